@@ -16,37 +16,146 @@
 
 package io.rainfall;
 
+import io.rainfall.ehcache.generator.PooledGenerator;
+import io.rainfall.ehcache.pacing.Pacer;
+import io.rainfall.ehcache.trace.OperationBatch;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.generator.IterationSequenceGenerator;
 import io.rainfall.generator.RandomSequenceGenerator;
 import io.rainfall.generator.sequence.Distribution;
 import io.rainfall.utils.NullObjectGenerator;
 import io.rainfall.utils.NullSequenceGenerator;
 
+import java.util.Map;
+import java.util.Set;
+
 /**
  * @author Aurelien Broszniowski
  */
 
 public abstract class EhcacheOperation<K, V> extends Operation {
 
+  private static final int MAX_DRAWS_PER_KEY = 4;
+
   protected ObjectGenerator<K> keyGenerator = NullObjectGenerator.instance();
   protected ObjectGenerator<V> valueGenerator = NullObjectGenerator.instance();
   protected SequenceGenerator sequenceGenerator = NullSequenceGenerator.instance();
+  private PooledGenerator<K> keyPool = null;
+  private PooledGenerator<V> valuePool = null;
+  private Pacer pacer = null;
+  private boolean coordinatedOmissionCorrection = false;
+  private final ThreadLocal<OperationBatch> batches = new ThreadLocal<OperationBatch>() {
+    @Override
+    protected OperationBatch initialValue() {
+      return new OperationBatch();
+    }
+  };
 
+  /**
+   * Sets the generators of keys and values. {@link PooledGenerator}s are filled here, so that the steady state of the
+   * measurement doesn't allocate keys and values.
+   */
   public EhcacheOperation<K, V> using(ObjectGenerator<K> keyGenerator, ObjectGenerator<V> valueGenerator) {
     if (this.keyGenerator instanceof NullObjectGenerator) {
       this.keyGenerator = keyGenerator;
+      if (keyGenerator instanceof PooledGenerator) {
+        this.keyPool = (PooledGenerator<K>)keyGenerator;
+        this.keyPool.warmUp();
+      }
     } else {
       throw new IllegalStateException("KeyGenerator already chosen.");
     }
 
     if (this.valueGenerator instanceof NullObjectGenerator) {
       this.valueGenerator = valueGenerator;
+      if (valueGenerator instanceof PooledGenerator) {
+        this.valuePool = (PooledGenerator<V>)valueGenerator;
+        this.valuePool.warmUp();
+      }
     } else {
       throw new IllegalStateException("ValueGenerator already chosen.");
     }
     return this;
   }
 
+  protected K generateKey(final long seed) {
+    return keyPool != null ? keyPool.get(seed) : keyGenerator.generate(seed);
+  }
+
+  protected V generateValue(final long seed) {
+    return valuePool != null ? valuePool.get(seed) : valueGenerator.generate(seed);
+  }
+
+  /**
+   * Fills a batch with distinct keys drawn from the sequence generator. The batch can end up smaller than batchSize
+   * when the sequence keeps returning keys that are already in it, e.g. with a narrow key range.
+   *
+   * @param operationLog log of the CacheConfig, the sequence numbers of the keys are kept for it when not null
+   */
+  protected void generateKeys(final OperationLog operationLog, final Set<K> keys, final int batchSize) {
+    keys.clear();
+    OperationBatch batch = operationLog == null ? null : batches.get();
+    if (batch != null) {
+      batch.clear();
+    }
+    for (int attempts = 0; keys.size() < batchSize && attempts < batchSize * MAX_DRAWS_PER_KEY; attempts++) {
+      long next = sequenceGenerator.next();
+      if (keys.add(generateKey(next)) && batch != null) {
+        batch.add(next, 0);
+      }
+    }
+  }
+
+  /**
+   * Fills a batch with entries of distinct keys drawn from the sequence generator.
+   *
+   * @see #generateKeys(OperationLog, Set, int)
+   */
+  protected void generateEntries(final OperationLog operationLog, final Map<K, V> entries, final int batchSize) {
+    entries.clear();
+    OperationBatch batch = operationLog == null ? null : batches.get();
+    if (batch != null) {
+      batch.clear();
+    }
+    for (int attempts = 0; entries.size() < batchSize && attempts < batchSize * MAX_DRAWS_PER_KEY; attempts++) {
+      long next = sequenceGenerator.next();
+      K key = generateKey(next);
+      V value = generateValue(next);
+      int size = entries.size();
+      entries.put(key, value);
+      if (entries.size() > size && batch != null) {
+        batch.add(next, OperationLog.sizeOf(value));
+      }
+    }
+  }
+
+  /**
+   * Records an invocation on one key when the operations are recorded
+   *
+   * @param operationLog log of the CacheConfig, null when the operations are not recorded
+   * @param sequence sequence number the key and the value were generated from
+   */
+  protected void log(final OperationLog operationLog, final TraceOperation operation, final int cacheIndex,
+                     final long sequence, final Object value) throws TestException {
+    if (operationLog != null) {
+      operationLog.record(operation, cacheIndex, sequence, OperationLog.sizeOf(value));
+    }
+  }
+
+  /**
+   * Records an invocation on the keys of the last batch generated by this thread when the operations are recorded
+   *
+   * @see #generateKeys(OperationLog, Set, int)
+   * @see #generateEntries(OperationLog, Map, int)
+   */
+  protected void logBatch(final OperationLog operationLog, final TraceOperation operation, final int cacheIndex)
+      throws TestException {
+    if (operationLog != null) {
+      operationLog.record(operation, cacheIndex, batches.get());
+    }
+  }
+
   public EhcacheOperation<K, V> sequentially() {
     if (this.sequenceGenerator instanceof NullSequenceGenerator) {
       this.sequenceGenerator = new IterationSequenceGenerator();
@@ -65,6 +174,82 @@ public abstract class EhcacheOperation<K, V> extends Operation {
     return this;
   }
 
+  /**
+   * Draws the keys from any sequence generator, e.g. one of {@link io.rainfall.ehcache.generator.sequence.Sequences}
+   */
+  public EhcacheOperation<K, V> atRandom(SequenceGenerator sequenceGenerator) {
+    if (this.sequenceGenerator instanceof NullSequenceGenerator) {
+      this.sequenceGenerator = sequenceGenerator;
+    } else {
+      throw new IllegalStateException("SequenceGenerator already chosen");
+    }
+    return this;
+  }
+
+  /**
+   * Paces the invocations of this operation on a fixed schedule of tpsLimit operations per second, shared by all
+   * the threads.
+   *
+   * @param tpsLimit number of operations per second
+   * @return this operation
+   */
+  public EhcacheOperation<K, V> withTpsLimit(long tpsLimit) {
+    if (this.pacer == null) {
+      this.pacer = new Pacer(tpsLimit);
+    } else {
+      throw new IllegalStateException("TPS limit already chosen.");
+    }
+    return this;
+  }
+
+  /**
+   * Measures the latencies from the intended start time of each invocation on the schedule set by
+   * {@link #withTpsLimit(long)}, instead of from the time the cache is actually called.
+   * <p/>
+   * When the cache stalls, the invocations that should have been issued during the stall are late : their waiting
+   * time is then included in the recorded latencies, so that the percentiles reflect what a caller would see.
+   *
+   * @return this operation
+   */
+  public EhcacheOperation<K, V> withCoordinatedOmissionCorrection() {
+    if (this.pacer == null) {
+      throw new IllegalStateException("Coordinated Omission correction needs a schedule, a TPS limit must be chosen first.");
+    }
+    this.coordinatedOmissionCorrection = true;
+    return this;
+  }
+
+  public Pacer getPacer() {
+    return pacer;
+  }
+
+  /**
+   * Waits for the next slot of the schedule when a TPS limit has been set, returns immediately otherwise.
+   *
+   * @return the intended start time in ns of this invocation, to be passed to {@link #correction(long, long)}
+   */
+  protected long pace() {
+    if (pacer == null) {
+      return 0L;
+    }
+    return pacer.acquire();
+  }
+
+  /**
+   * An invocation calls its caches one after the other : each call is late by the delay of the invocation plus the
+   * time spent on the previous caches.
+   *
+   * @param intendedStart intended start time of the invocation, returned by {@link #pace()}
+   * @param start time the call to a cache actually starts
+   * @return the delay in ns to add to the latency of the call when correcting for Coordinated Omission, 0 otherwise
+   */
+  protected long correction(final long intendedStart, final long start) {
+    if (!coordinatedOmissionCorrection) {
+      return 0L;
+    }
+    return Math.max(0L, start - intendedStart);
+  }
+
   @SuppressWarnings("unchecked")
   public EhcacheOperation<K, V> withWeight(Double weight) {
     return (EhcacheOperation<K, V>)super.withWeight(weight);
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binds each worker thread to one cache, in round robin, the first time the thread asks for its cache.
+ * <p/>
+ * The caches are then loaded by their own threads, at their own rate, instead of each operation paying the sum
+ * of the latencies of all the caches. There must be at least as many threads as caches for every cache to be used.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class DedicatedThreads<C> {
+
+  private final List<C> caches;
+  private final AtomicInteger nextThread = new AtomicInteger();
+  private final ThreadLocal<C> assignedCache = new ThreadLocal<C>() {
+    @Override
+    protected C initialValue() {
+      int threadNb = nextThread.getAndIncrement() & Integer.MAX_VALUE;
+      return caches.get(threadNb % caches.size());
+    }
+  };
+
+  public DedicatedThreads(final List<C> caches) {
+    if (caches.isEmpty()) {
+      throw new IllegalStateException("Caches must be added before they get dedicated threads.");
+    }
+    this.caches = new ArrayList<C>(caches);
+  }
+
+  /**
+   * @return the only cache the current thread works on
+   */
+  public C getCacheForCurrentThread() {
+    return assignedCache.get();
+  }
+}
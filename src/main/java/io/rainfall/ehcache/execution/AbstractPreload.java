@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Fills the caches with the keys 0 to nbElements - 1, as a sequential put warm-up would, but with bulk loads
+ * split across the threads of the {@link ConcurrencyConfig}.
+ * <p/>
+ * The operations of the scenario are ignored and no latency is recorded : only the fill throughput is printed
+ * at the end.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class AbstractPreload<K, V> extends Execution {
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final long nbElements;
+  private int chunkSize = 1000;
+  private ObjectGenerator<K> keyGenerator;
+  private ObjectGenerator<V> valueGenerator;
+
+  protected AbstractPreload(final long nbElements) {
+    if (nbElements <= 0) {
+      throw new IllegalArgumentException("Number of elements must be strictly positive.");
+    }
+    this.nbElements = nbElements;
+  }
+
+  public AbstractPreload<K, V> using(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator) {
+    this.keyGenerator = keyGenerator;
+    this.valueGenerator = valueGenerator;
+    return this;
+  }
+
+  /**
+   * Sets the number of entries of each bulk load, 1000 by default
+   */
+  public AbstractPreload<K, V> inChunksOf(final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be strictly positive.");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /**
+   * Called once, before the loading threads are started
+   *
+   * @return the number of caches that will be loaded
+   */
+  protected abstract int startLoading(final Map<Class<? extends Configuration>, Configuration> configurations);
+
+  /**
+   * Loads the entries of the keys from (inclusive) to to (exclusive) in every cache. Called concurrently.
+   */
+  protected abstract void loadChunk(final long from, final long to);
+
+  protected K generateKey(final long seed) {
+    return keyGenerator.generate(seed);
+  }
+
+  protected V generateValue(final long seed) {
+    return valueGenerator.generate(seed);
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    if (keyGenerator == null || valueGenerator == null) {
+      throw new IllegalStateException("Key and value generators must be set with using(keyGenerator, valueGenerator).");
+    }
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+    int nbThreads = concurrencyConfig.getNbThreads();
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    final AtomicLong nextChunk = new AtomicLong();
+
+    int nbCaches = startLoading(configurations);
+    long start = System.nanoTime();
+    List<Future<Object>> futures = new ArrayList<Future<Object>>();
+    for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+      futures.add(executor.submit(new Callable<Object>() {
+
+        @Override
+        public Object call() throws Exception {
+          long from;
+          while ((from = nextChunk.getAndAdd(chunkSize)) < nbElements) {
+            loadChunk(from, Math.min(from + chunkSize, nbElements));
+          }
+          return null;
+        }
+      }));
+    }
+
+    executor.shutdown();
+    try {
+      long timeoutInSeconds = concurrencyConfig.getTimeoutInSeconds();
+      boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
+      if (!success) {
+        executor.shutdownNow();
+        throw new TestException("Preload timed out after " + timeoutInSeconds + " seconds.");
+      }
+      for (Future<Object> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Preload didn't stop correctly.", e);
+    } catch (ExecutionException e) {
+      throw new TestException("Preload failed.", e.getCause());
+    }
+    long elapsedInNs = System.nanoTime() - start;
+
+    long nbEntries = nbElements * nbCaches;
+    StringBuilder sb = new StringBuilder();
+    sb.append("===================================================== PRELOAD ============================================")
+        .append(CRLF);
+    sb.append(String.format("%d entries loaded in %d caches in %.3f s : %d entries/s", nbEntries, nbCaches,
+        elapsedInNs / 1000000000d, elapsedInNs <= 0 ? 0L : (long)(nbEntries * 1000000000d / elapsedInNs)))
+        .append(CRLF);
+    System.out.println(sb.toString());
+  }
+}
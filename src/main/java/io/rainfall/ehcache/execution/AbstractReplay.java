@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.Operation;
+import io.rainfall.Scenario;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.ehcache.trace.ReplayCursor;
+import io.rainfall.ehcache.trace.TraceFormat;
+import io.rainfall.ehcache.trace.TraceOperation;
+import io.rainfall.ehcache.trace.TraceReader;
+import io.rainfall.statistics.InitStatisticsHolder;
+import io.rainfall.statistics.RuntimeStatisticsHolder;
+import io.rainfall.statistics.StatisticsHolder;
+import jsr166e.LongAdder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Replays a binary trace file (see {@link TraceFormat}) with the operations registered for each
+ * {@link TraceOperation}.
+ * <p/>
+ * The file is memory-mapped by windows, and the threads of the {@link ConcurrencyConfig} take the records in turn :
+ * thread t replays the records t, t + nbThreads, t + 2 * nbThreads... The operations must draw their keys from
+ * {@link #keys()}, and may use {@link #values()} to get values of the size of the records. The bulk operations get the
+ * keys of their record in turn, and the CacheConfig uses the number of keys of the record as batch size.
+ * By default the records are replayed as fast as possible, {@link #inOriginalTiming()} replays them at the time
+ * they have in the trace.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class AbstractReplay extends Execution {
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final File traceFile;
+  private final ReplayCursor cursor = new ReplayCursor();
+  private final Operation[] operations = new Operation[TraceOperation.values().length];
+  private boolean originalTiming = false;
+
+  protected AbstractReplay(final File traceFile) {
+    this.traceFile = traceFile;
+  }
+
+  public AbstractReplay on(final TraceOperation traceOperation, final Operation operation) {
+    this.operations[traceOperation.ordinal()] = operation;
+    return this;
+  }
+
+  public AbstractReplay inOriginalTiming() {
+    this.originalTiming = true;
+    return this;
+  }
+
+  public SequenceGenerator keys() {
+    return cursor.keys();
+  }
+
+  public ObjectGenerator<byte[]> values() {
+    return cursor.values();
+  }
+
+  /**
+   * Maps the caches of the trace to the configured caches, and makes the CacheConfig follow the cursor.
+   */
+  protected abstract void startReplay(final Map<Class<? extends Configuration>, Configuration> configurations,
+                                      final ReplayCursor cursor, final List<String> traceCacheNames);
+
+  protected abstract void stopReplay(final Map<Class<? extends Configuration>, Configuration> configurations);
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    final TraceFormat format;
+    final FileChannel channel;
+    try {
+      format = TraceFormat.read(traceFile);
+      channel = new RandomAccessFile(traceFile, "r").getChannel();
+    } catch (IOException e) {
+      throw new TestException("Can not read trace " + traceFile, e);
+    }
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+    final int nbThreads = concurrencyConfig.getNbThreads();
+    final long nbRecords = format.getNbRecords();
+    final LongAdder skipped = new LongAdder();
+    final LongAdder batchKeys = new LongAdder();
+    final AtomicLong maxLagInNs = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+
+    final long startInNs;
+    boolean completed = false;
+    try {
+      // the operations are not part of the scenario, so Rainfall did not initialize their statistics
+      if (statisticsHolder instanceof RuntimeStatisticsHolder) {
+        InitStatisticsHolder<E> initHolder = new InitStatisticsHolder<E>((RuntimeStatisticsHolder<E>)statisticsHolder);
+        for (Operation operation : operations) {
+          if (operation != null) {
+            operation.exec(initHolder, configurations, assertions);
+          }
+        }
+      }
+      startReplay(configurations, cursor, format.getCacheNames());
+      startInNs = System.nanoTime();
+      List<Future<Object>> futures = new ArrayList<Future<Object>>();
+      for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+        final int firstRecord = threadNb;
+        futures.add(executor.submit(new Callable<Object>() {
+
+          @Override
+          public Object call() throws Exception {
+            TraceReader reader = new TraceReader(channel, nbRecords);
+            long lagInNs = 0;
+            for (long record = firstRecord; record < nbRecords; record += nbThreads) {
+              reader.seek(record);
+              if (reader.isBatchContinuation()) {
+                // replayed by the thread of the first key of the batch
+                batchKeys.increment();
+                continue;
+              }
+              int operationOrdinal = reader.getOperationOrdinal();
+              Operation operation = operationOrdinal < operations.length ? operations[operationOrdinal] : null;
+              if (operation == null) {
+                skipped.increment();
+                continue;
+              }
+              reader.loadInto(cursor, record);
+
+              long timestampInNs = reader.getTimestampInNs();
+              if (originalTiming && timestampInNs != TraceFormat.NO_TIMESTAMP) {
+                long intendedStart = startInNs + timestampInNs;
+                long now;
+                while ((now = System.nanoTime()) < intendedStart) {
+                  LockSupport.parkNanos(intendedStart - now);
+                }
+                lagInNs = Math.max(lagInNs, now - intendedStart);
+              }
+              operation.exec(statisticsHolder, configurations, assertions);
+            }
+            long max;
+            while (lagInNs > (max = maxLagInNs.get()) && !maxLagInNs.compareAndSet(max, lagInNs)) {
+              // retry
+            }
+            return null;
+          }
+        }));
+      }
+
+      executor.shutdown();
+      long timeoutInSeconds = concurrencyConfig.getTimeoutInSeconds();
+      boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
+      if (!success) {
+        executor.shutdownNow();
+        throw new TestException("Replay timed out after " + timeoutInSeconds + " seconds.");
+      }
+      for (Future<Object> future : futures) {
+        future.get();
+      }
+      completed = true;
+    } catch (InterruptedException e) {
+      throw new TestException("Replay didn't stop correctly.", e);
+    } catch (ExecutionException e) {
+      throw new TestException("Replay failed.", e.getCause());
+    } finally {
+      stopReplay(configurations);
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // a failed replay throws its own failure instead
+        if (completed) {
+          throw new TestException("Can not close trace " + traceFile, e);
+        }
+      }
+    }
+    long elapsedInNs = System.nanoTime() - startInNs;
+
+    long replayed = nbRecords - skipped.sum() - batchKeys.sum();
+    StringBuilder sb = new StringBuilder();
+    sb.append("====================================================== REPLAY ============================================")
+        .append(CRLF);
+    sb.append(String.format("%d operations replayed in %.3f s : %d ops/s, %d records without operation skipped",
+        replayed, elapsedInNs / 1000000000d, elapsedInNs <= 0 ? 0L : (long)(replayed * 1000000000d / elapsedInNs),
+        skipped.sum())).append(CRLF);
+    if (originalTiming) {
+      sb.append(String.format("Max lag behind the original timing : %.3f ms", maxLagInNs.get() / 1000000d))
+          .append(CRLF);
+    }
+    System.out.println(sb.toString());
+  }
+}
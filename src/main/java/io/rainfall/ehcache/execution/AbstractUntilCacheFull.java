@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Operation;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.utils.RangeMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Runs the scenario until the caches are full.
+ * <p/>
+ * The worker threads only check a flag between two iterations : the caches are sampled by a single monitor thread,
+ * at a fixed interval, which raises the flag once {@link #cachesAreFull()} returns true.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class AbstractUntilCacheFull extends Execution {
+
+  private long samplingIntervalInMs = 100;
+
+  /**
+   * Sets the interval at which the monitor thread samples the caches, 100ms by default
+   */
+  public AbstractUntilCacheFull sampledEvery(final long interval, final TimeUnit unit) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Sampling interval must be strictly positive.");
+    }
+    this.samplingIntervalInMs = Math.max(1L, unit.toMillis(interval));
+    return this;
+  }
+
+  /**
+   * Called once, before the worker threads are started
+   */
+  protected abstract void startMonitoring(final Map<Class<? extends Configuration>, Configuration> configurations);
+
+  /**
+   * Called by the monitor thread only, at every sampling interval
+   */
+  protected abstract boolean cachesAreFull();
+
+  /**
+   * Called once, after the worker threads are done
+   */
+  protected abstract void stopMonitoring();
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+    int nbThreads = concurrencyConfig.getNbThreads();
+    ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+    ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor();
+    final AtomicBoolean full = new AtomicBoolean(false);
+
+    startMonitoring(configurations);
+    try {
+      monitor.scheduleAtFixedRate(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            if (cachesAreFull()) {
+              full.set(true);
+            }
+          } catch (RuntimeException e) {
+            // without sampling, the workers would only stop at the timeout
+            full.set(true);
+            throw e;
+          }
+        }
+      }, samplingIntervalInMs, samplingIntervalInMs, MILLISECONDS);
+
+      for (int threadNb = 0; threadNb < nbThreads; threadNb++) {
+        executor.submit(new Callable() {
+
+          @Override
+          public Object call() throws Exception {
+            List<RangeMap<Operation>> operations = scenario.getOperations();
+            while (!full.get()) {
+              for (RangeMap<Operation> operation : operations) {
+                operation.get(weightRnd.nextFloat(operation.getHigherBound()))
+                    .exec(statisticsHolder, configurations, assertions);
+              }
+            }
+            return null;
+          }
+        });
+      }
+
+      executor.shutdown();
+      try {
+        long timeoutInSeconds = concurrencyConfig.getTimeoutInSeconds();
+        boolean success = executor.awaitTermination(timeoutInSeconds, SECONDS);
+        if (!success) {
+          throw new TestException("Execution of Scenario timed out after " + timeoutInSeconds + " seconds.");
+        }
+      } catch (InterruptedException e) {
+        throw new TestException("Execution of Scenario didn't stop correctly.", e);
+      }
+    } finally {
+      full.set(true);
+      executor.shutdownNow();
+      monitor.shutdownNow();
+      stopMonitoring();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import jsr166e.ThreadLocalRandom;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of the number of keys used by each invocation of a bulk operation.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class BatchSizeDistribution {
+
+  /**
+   * @return the number of keys of the next batch
+   */
+  public abstract int next();
+
+  /**
+   * @return the largest batch size this distribution can return
+   */
+  public abstract int getMaxSize();
+
+  public static BatchSizeDistribution fixed(final int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Batch size must be strictly positive.");
+    }
+    return new BatchSizeDistribution() {
+      @Override
+      public int next() {
+        return size;
+      }
+
+      @Override
+      public int getMaxSize() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * @param min smallest batch size, inclusive
+   * @param max largest batch size, inclusive
+   */
+  public static BatchSizeDistribution uniform(final int min, final int max) {
+    if (min <= 0 || max < min) {
+      throw new IllegalArgumentException("Batch sizes must be strictly positive and min must not be greater than max.");
+    }
+    return new BatchSizeDistribution() {
+      @Override
+      public int next() {
+        return min + ThreadLocalRandom.current().nextInt(max - min + 1);
+      }
+
+      @Override
+      public int getMaxSize() {
+        return max;
+      }
+    };
+  }
+
+  /**
+   * Empirical distribution, e.g. measured in production.
+   *
+   * @param sizes   batch sizes
+   * @param weights relative frequency of each batch size
+   */
+  public static BatchSizeDistribution histogram(final int[] sizes, final double[] weights) {
+    if (sizes.length == 0 || sizes.length != weights.length) {
+      throw new IllegalArgumentException("There must be one weight per batch size.");
+    }
+    final int[] values = Arrays.copyOf(sizes, sizes.length);
+    final CumulativeWeights cumulativeWeights = new CumulativeWeights(weights);
+    int max = 0;
+    for (int value : values) {
+      if (value <= 0) {
+        throw new IllegalArgumentException("Batch sizes must be strictly positive.");
+      }
+      max = Math.max(max, value);
+    }
+    final int maxSize = max;
+    return new BatchSizeDistribution() {
+      @Override
+      public int next() {
+        return values[cumulativeWeights.next()];
+      }
+
+      @Override
+      public int getMaxSize() {
+        return maxSize;
+      }
+    };
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import jsr166e.ThreadLocalRandom;
+
+/**
+ * Picks indexes with a probability proportional to their weight.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CumulativeWeights {
+
+  private final double[] cumulativeWeights;
+  private final double totalWeight;
+
+  /**
+   * @param weights relative weight of each index, positive, at least one strictly positive
+   */
+  public CumulativeWeights(final double[] weights) {
+    if (weights.length == 0) {
+      throw new IllegalArgumentException("At least one weight is needed.");
+    }
+    this.cumulativeWeights = new double[weights.length];
+    double total = 0;
+    for (int i = 0; i < weights.length; i++) {
+      if (weights[i] < 0) {
+        throw new IllegalArgumentException("Weights must be positive.");
+      }
+      total += weights[i];
+      cumulativeWeights[i] = total;
+    }
+    if (total <= 0) {
+      throw new IllegalArgumentException("At least one weight must be strictly positive.");
+    }
+    this.totalWeight = total;
+  }
+
+  /**
+   * @return an index picked at random
+   */
+  public int next() {
+    return indexOf(ThreadLocalRandom.current().nextDouble());
+  }
+
+  /**
+   * @param unit a number in [0, 1)
+   * @return the index whose share of the total weight holds the unit
+   */
+  public int indexOf(final double unit) {
+    // first cumulative weight strictly greater than the draw, so that zero weights are never picked
+    double draw = unit * totalWeight;
+    int low = 0;
+    int high = cumulativeWeights.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cumulativeWeights[mid] > draw) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+}
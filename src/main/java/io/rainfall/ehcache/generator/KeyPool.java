@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.ObjectGenerator;
+
+/**
+ * Precomputed keys for the seeds 0 to size - 1, indexed by the seed.
+ * <p/>
+ * A key is always the one the wrapped generator produces for the seed : seeds outside of the pool, e.g. when the memory
+ * budget is smaller than the key range, fall back on the wrapped generator.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class KeyPool<K> extends PooledGenerator<K> {
+
+  public KeyPool(final ObjectGenerator<K> generator, final int nbKeys) {
+    super(generator, nbKeys);
+  }
+
+  public static <K> KeyPool<K> keyPool(final ObjectGenerator<K> generator, final int nbKeys) {
+    return new KeyPool<K>(generator, nbKeys);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public K get(final long seed) {
+    Object[] keys = pooled();
+    if (seed >= 0 && seed < keys.length) {
+      return (K)keys[((int)seed)];
+    }
+    return generator.generate(seed);
+  }
+}
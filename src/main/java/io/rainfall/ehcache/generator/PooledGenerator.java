@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.ObjectGenerator;
+
+/**
+ * An {@link ObjectGenerator} that serves precomputed instances from an array, so that getting an object during the
+ * measurement doesn't allocate anything.
+ * <p/>
+ * The array is filled by {@link #warmUp()}, which is called when the pool is given to
+ * {@link io.rainfall.EhcacheOperation#using(ObjectGenerator, ObjectGenerator)}, i.e. before the measurement starts.
+ * Its size is bounded by the memory budget, using an estimation of the size of the generated objects.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class PooledGenerator<T> implements ObjectGenerator<T> {
+
+  private static final int OBJECT_HEADER_SIZE = 16;
+  private static final int REFERENCE_SIZE = 8;
+  private static final int DEFAULT_OBJECT_SIZE = 64;
+
+  protected final ObjectGenerator<T> generator;
+  private final int requestedSize;
+  private long memoryBudgetInBytes = Long.MAX_VALUE;
+  private volatile Object[] pool = null;
+
+  protected PooledGenerator(final ObjectGenerator<T> generator, final int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Pool size must be strictly positive.");
+    }
+    this.generator = generator;
+    this.requestedSize = size;
+  }
+
+  /**
+   * Limits the memory used by the pool, the number of pooled instances is reduced if needed.
+   *
+   * @param memoryBudgetInBytes maximum size of the pooled instances
+   * @return this pool
+   */
+  public PooledGenerator<T> withMemoryBudget(final long memoryBudgetInBytes) {
+    if (this.pool != null) {
+      throw new IllegalStateException("Pool is already filled.");
+    }
+    this.memoryBudgetInBytes = memoryBudgetInBytes;
+    return this;
+  }
+
+  /**
+   * Fills the pool, does nothing if it is already filled.
+   */
+  public synchronized void warmUp() {
+    if (pool != null) {
+      return;
+    }
+    T sample = generator.generate(0L);
+    long size = Math.min(requestedSize, memoryBudgetInBytes / (estimateSizeInBytes(sample) + REFERENCE_SIZE));
+    if (size <= 0) {
+      throw new IllegalStateException("Memory budget of " + memoryBudgetInBytes + " bytes is too small to pool a single instance.");
+    }
+    Object[] objects = new Object[(int)size];
+    objects[0] = sample;
+    for (int i = 1; i < objects.length; i++) {
+      objects[i] = generator.generate((long)i);
+    }
+    this.pool = objects;
+  }
+
+  /**
+   * @return the number of pooled instances
+   */
+  public int size() {
+    return pooled().length;
+  }
+
+  @Override
+  public T generate(final Long seed) {
+    return get(seed);
+  }
+
+  /**
+   * Same as {@link #generate(Long)}, without boxing the seed.
+   */
+  public abstract T get(long seed);
+
+  protected Object[] pooled() {
+    Object[] objects = pool;
+    if (objects == null) {
+      warmUp();
+      objects = pool;
+    }
+    return objects;
+  }
+
+  static long estimateSizeInBytes(final Object o) {
+    long size;
+    if (o instanceof byte[]) {
+      size = OBJECT_HEADER_SIZE + ((byte[])o).length;
+    } else if (o instanceof char[]) {
+      size = OBJECT_HEADER_SIZE + 2L * ((char[])o).length;
+    } else if (o instanceof String) {
+      size = OBJECT_HEADER_SIZE + 8 + OBJECT_HEADER_SIZE + 2L * ((String)o).length();
+    } else if (o instanceof SizedValue) {
+      // the serialized size is a rough estimation of the size of the object graph
+      size = ((SizedValue)o).getSerializedSize();
+    } else if (o instanceof Number || o instanceof Character || o instanceof Boolean) {
+      size = OBJECT_HEADER_SIZE + 8;
+    } else {
+      size = DEFAULT_OBJECT_SIZE;
+    }
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.ObjectGenerator;
+
+import java.util.Random;
+
+/**
+ * Generates byte arrays of the sizes of a {@link ValueSizeDistribution}. The content is copied from a shared buffer
+ * of random bytes, at an offset depending on the seed, so that generating a value costs a single copy.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SizedByteArrayGenerator implements ObjectGenerator<byte[]> {
+
+  // number of different offsets in the shared buffer
+  private static final int NB_OFFSETS = 4096;
+
+  private final ValueSizeDistribution sizes;
+  private final byte[] buffer;
+
+  public SizedByteArrayGenerator(final ValueSizeDistribution sizes) {
+    this.sizes = sizes;
+    this.buffer = new byte[sizes.getMaxSize() + NB_OFFSETS];
+    new Random(sizes.getMaxSize()).nextBytes(buffer);
+  }
+
+  /**
+   * @see ValueSizeDistribution#fixed(int)
+   * @see ValueSizeDistribution#uniform(int, int)
+   * @see ValueSizeDistribution#logNormal(int, double, int)
+   * @see ValueSizeDistribution#histogram(int[], double[])
+   */
+  public static SizedByteArrayGenerator sizedByteArrays(final ValueSizeDistribution sizes) {
+    return new SizedByteArrayGenerator(sizes);
+  }
+
+  @Override
+  public byte[] generate(final Long seed) {
+    long s = seed;
+    byte[] value = new byte[sizes.sizeOf(s)];
+    int offset = (int)(ValueSizeDistribution.unit(s, 2) * NB_OFFSETS);
+    System.arraycopy(buffer, offset, value, 0, value.length);
+    return value;
+  }
+
+  public ValueSizeDistribution getSizes() {
+    return sizes;
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+/**
+ * A value that knows the size of its serialized form, so that the bytes moved by the operations can be counted
+ * without serializing it again.
+ *
+ * @author Aurelien Broszniowski
+ */
+public interface SizedValue {
+
+  /**
+   * @return the size in bytes of the serialized value
+   */
+  int getSerializedSize();
+}
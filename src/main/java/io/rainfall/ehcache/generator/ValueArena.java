@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.ObjectGenerator;
+
+/**
+ * Fixed arena of value instances, the seed selects the instance modulo the arena size.
+ * <p/>
+ * The instances are shared between the entries of the caches, so the values must not be modified.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ValueArena<V> extends PooledGenerator<V> {
+
+  public ValueArena(final ObjectGenerator<V> generator, final int nbValues) {
+    super(generator, nbValues);
+  }
+
+  public static <V> ValueArena<V> valueArena(final ObjectGenerator<V> generator, final int nbValues) {
+    return new ValueArena<V>(generator, nbValues);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(final long seed) {
+    Object[] values = pooled();
+    int index = (int)(seed % values.length);
+    return (V)values[index < 0 ? index + values.length : index];
+  }
+}
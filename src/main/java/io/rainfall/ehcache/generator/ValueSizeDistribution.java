@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of the sizes of the generated values. The size is a function of the seed, so that the value of a key
+ * always has the same size, whichever thread or operation generates it.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class ValueSizeDistribution {
+
+  /**
+   * @return the size in bytes of the value generated from this seed
+   */
+  public abstract int sizeOf(long seed);
+
+  /**
+   * @return the largest size this distribution can return
+   */
+  public abstract int getMaxSize();
+
+  public static ValueSizeDistribution fixed(final int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Value size must be positive.");
+    }
+    return new ValueSizeDistribution() {
+      @Override
+      public int sizeOf(final long seed) {
+        return size;
+      }
+
+      @Override
+      public int getMaxSize() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * @param min smallest size, inclusive
+   * @param max largest size, inclusive
+   */
+  public static ValueSizeDistribution uniform(final int min, final int max) {
+    if (min < 0 || max < min) {
+      throw new IllegalArgumentException("Value sizes must be positive and min must not be greater than max.");
+    }
+    return new ValueSizeDistribution() {
+      @Override
+      public int sizeOf(final long seed) {
+        return min + (int)(unit(seed, 0) * (max - min + 1));
+      }
+
+      @Override
+      public int getMaxSize() {
+        return max;
+      }
+    };
+  }
+
+  /**
+   * Log-normal distribution, the usual shape of the sizes of cached entries : most of them are small, with a long
+   * tail of large ones.
+   *
+   * @param median median size
+   * @param sigma  standard deviation of the logarithm of the sizes, e.g. 1 spreads 95% of the sizes between
+   *               median / 7 and median * 7
+   * @param max    largest size, larger draws are truncated
+   */
+  public static ValueSizeDistribution logNormal(final int median, final double sigma, final int max) {
+    if (median <= 0 || sigma < 0 || max < median) {
+      throw new IllegalArgumentException("Median must be strictly positive, sigma positive and max not smaller than median.");
+    }
+    return new ValueSizeDistribution() {
+      @Override
+      public int sizeOf(final long seed) {
+        // Box-Muller transform
+        double gaussian = Math.sqrt(-2 * Math.log(1 - unit(seed, 0))) * Math.cos(2 * Math.PI * unit(seed, 1));
+        double size = median * Math.exp(sigma * gaussian);
+        return (int)Math.max(1, Math.min(max, Math.round(size)));
+      }
+
+      @Override
+      public int getMaxSize() {
+        return max;
+      }
+    };
+  }
+
+  /**
+   * Empirical distribution, e.g. measured in production. The size is drawn uniformly within the chosen bucket.
+   *
+   * @param upperBounds largest size of each bucket, in ascending order : the first bucket starts at 0, the next ones
+   *                    after the upper bound of the previous bucket
+   * @param weights     relative frequency of each bucket
+   */
+  public static ValueSizeDistribution histogram(final int[] upperBounds, final double[] weights) {
+    if (upperBounds.length == 0 || upperBounds.length != weights.length) {
+      throw new IllegalArgumentException("There must be one weight per bucket.");
+    }
+    final int[] bounds = Arrays.copyOf(upperBounds, upperBounds.length);
+    for (int i = 0; i < bounds.length; i++) {
+      if (bounds[i] < 0 || (i > 0 && bounds[i] <= bounds[i - 1])) {
+        throw new IllegalArgumentException("Upper bounds must be positive and ascending.");
+      }
+    }
+    final CumulativeWeights cumulativeWeights = new CumulativeWeights(weights);
+    return new ValueSizeDistribution() {
+      @Override
+      public int sizeOf(final long seed) {
+        int bucket = cumulativeWeights.indexOf(unit(seed, 0));
+        int min = bucket == 0 ? 0 : bounds[bucket - 1] + 1;
+        return min + (int)(unit(seed, 1) * (bounds[bucket] - min + 1));
+      }
+
+      @Override
+      public int getMaxSize() {
+        return bounds[bounds.length - 1];
+      }
+    };
+  }
+
+  /**
+   * @return a number in [0, 1) derived from the seed, different for each draw number
+   */
+  static double unit(final long seed, final int draw) {
+    return (mix(seed + draw * 0x9E3779B97F4A7C15L) >>> 11) * 0x1.0p-53;
+  }
+
+  // finalizer of SplitMix64, spreads consecutive seeds over all the bits
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
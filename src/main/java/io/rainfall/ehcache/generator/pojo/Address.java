@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.pojo;
+
+import java.io.Serializable;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class Address implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String street;
+  private final String city;
+  private final String zipCode;
+
+  public Address(final String street, final String city, final String zipCode) {
+    this.street = street;
+    this.city = city;
+    this.zipCode = zipCode;
+  }
+
+  public String getStreet() {
+    return street;
+  }
+
+  public String getCity() {
+    return city;
+  }
+
+  public String getZipCode() {
+    return zipCode;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Address address = (Address)o;
+    return street.equals(address.street) && city.equals(address.city) && zipCode.equals(address.zipCode);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = street.hashCode();
+    result = 31 * result + city.hashCode();
+    result = 31 * result + zipCode.hashCode();
+    return result;
+  }
+}
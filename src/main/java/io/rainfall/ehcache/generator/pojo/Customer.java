@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.pojo;
+
+import io.rainfall.ehcache.generator.SizedValue;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Domain-like value : nested objects, strings, a list and a map, generated by {@link CustomerGenerator}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Customer implements Serializable, SizedValue {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long id;
+  private final String name;
+  private final String email;
+  private final Address address;
+  private final List<Order> orders;
+  private final Map<String, String> attributes;
+  // pads the serialized form to the requested size
+  private final String notes;
+  private int serializedSize;
+
+  public Customer(final long id, final String name, final String email, final Address address,
+                  final List<Order> orders, final Map<String, String> attributes, final String notes) {
+    this.id = id;
+    this.name = name;
+    this.email = email;
+    this.address = address;
+    this.orders = orders;
+    this.attributes = attributes;
+    this.notes = notes;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public Address getAddress() {
+    return address;
+  }
+
+  public List<Order> getOrders() {
+    return orders;
+  }
+
+  public Map<String, String> getAttributes() {
+    return attributes;
+  }
+
+  public String getNotes() {
+    return notes;
+  }
+
+  @Override
+  public int getSerializedSize() {
+    return serializedSize;
+  }
+
+  /**
+   * Set by the generator, and by the serializers that rebuild customers
+   */
+  public void setSerializedSize(final int serializedSize) {
+    this.serializedSize = serializedSize;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Customer customer = (Customer)o;
+    return id == customer.id && name.equals(customer.name) && email.equals(customer.email)
+           && address.equals(customer.address) && orders.equals(customer.orders)
+           && attributes.equals(customer.attributes) && notes.equals(customer.notes);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = (int)(id ^ (id >>> 32));
+    result = 31 * result + name.hashCode();
+    result = 31 * result + email.hashCode();
+    result = 31 * result + address.hashCode();
+    result = 31 * result + orders.hashCode();
+    result = 31 * result + attributes.hashCode();
+    result = 31 * result + notes.hashCode();
+    return result;
+  }
+}
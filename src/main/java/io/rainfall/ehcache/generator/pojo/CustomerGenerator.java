@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.pojo;
+
+import io.rainfall.ObjectGenerator;
+import io.rainfall.ehcache.generator.ValueArena;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates {@link Customer}s of a configurable shape, the same customer for the same seed.
+ * <p/>
+ * Building a customer costs far more than a cache access : use {@link #templates(int)} so that they are built once,
+ * before the measurement.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CustomerGenerator implements ObjectGenerator<Customer> {
+
+  private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+  private int nbOrders = 3;
+  private int nbAttributes = 4;
+  private int stringLength = 12;
+  private int serializedSize = 0;
+  private int paddingLength = -1;
+  private int actualSerializedSize;
+
+  public static CustomerGenerator customers() {
+    return new CustomerGenerator();
+  }
+
+  /**
+   * @param nbOrders number of elements of the list of orders
+   */
+  public CustomerGenerator orders(final int nbOrders) {
+    if (nbOrders < 0) {
+      throw new IllegalArgumentException("Number of orders must be positive.");
+    }
+    this.nbOrders = nbOrders;
+    return reset();
+  }
+
+  /**
+   * @param nbAttributes number of entries of the map of attributes
+   */
+  public CustomerGenerator attributes(final int nbAttributes) {
+    if (nbAttributes < 0) {
+      throw new IllegalArgumentException("Number of attributes must be positive.");
+    }
+    this.nbAttributes = nbAttributes;
+    return reset();
+  }
+
+  /**
+   * @param stringLength length of the string fields
+   */
+  public CustomerGenerator stringLength(final int stringLength) {
+    if (stringLength <= 0) {
+      throw new IllegalArgumentException("String length must be strictly positive.");
+    }
+    this.stringLength = stringLength;
+    return reset();
+  }
+
+  /**
+   * Pads the customers so that their Java serialized form has this size. The customers can't be smaller than
+   * their fields.
+   *
+   * @param serializedSize size in bytes
+   */
+  public CustomerGenerator serializedSize(final int serializedSize) {
+    if (serializedSize <= 0) {
+      throw new IllegalArgumentException("Serialized size must be strictly positive.");
+    }
+    this.serializedSize = serializedSize;
+    return reset();
+  }
+
+  /**
+   * @param nbTemplates number of customers built before the measurement, the seeds select them modulo nbTemplates
+   * @return a pool of customers to be given to the operations
+   */
+  public ValueArena<Customer> templates(final int nbTemplates) {
+    return ValueArena.valueArena(this, nbTemplates);
+  }
+
+  @Override
+  public Customer generate(final Long seed) {
+    int padding;
+    int size;
+    synchronized (this) {
+      if (paddingLength < 0) {
+        computePadding();
+      }
+      padding = paddingLength;
+      size = actualSerializedSize;
+    }
+    Customer customer = build(seed, padding);
+    customer.setSerializedSize(size);
+    return customer;
+  }
+
+  private CustomerGenerator reset() {
+    synchronized (this) {
+      this.paddingLength = -1;
+    }
+    return this;
+  }
+
+  // all the fields have a fixed size, so that all the customers have the same serialized size
+  private void computePadding() {
+    int padding = 0;
+    int size = serializedSizeOf(build(0L, padding));
+    if (serializedSize > size) {
+      padding = serializedSize - size;
+      size = serializedSizeOf(build(0L, padding));
+      // a string longer than 65535 bytes has a longer header
+      if (size > serializedSize) {
+        padding = Math.max(0, padding - (size - serializedSize));
+        size = serializedSizeOf(build(0L, padding));
+      }
+    }
+    this.paddingLength = padding;
+    this.actualSerializedSize = size;
+  }
+
+  private Customer build(final long seed, final int padding) {
+    Random random = new Random(seed);
+    String name = string(random, stringLength);
+    Address address = new Address(string(random, stringLength), string(random, stringLength), string(random, 5));
+    List<Order> orders = new ArrayList<Order>(nbOrders);
+    for (int i = 0; i < nbOrders; i++) {
+      orders.add(new Order(random.nextLong(), string(random, stringLength), 1 + random.nextInt(10),
+          random.nextInt(100000) / 100d));
+    }
+    Map<String, String> attributes = new HashMap<String, String>();
+    for (int i = 0; i < nbAttributes; i++) {
+      attributes.put("attribute" + i, string(random, stringLength));
+    }
+    return new Customer(seed, name, name + "@example.com", address, orders, attributes, string(random, padding));
+  }
+
+  private static String string(final Random random, final int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+    }
+    return new String(chars);
+  }
+
+  static int serializedSizeOf(final Object o) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream output = new ObjectOutputStream(bytes);
+      output.writeObject(o);
+      output.close();
+      return bytes.size();
+    } catch (IOException e) {
+      throw new IllegalStateException("Can not serialize " + o.getClass().getName(), e);
+    }
+  }
+}
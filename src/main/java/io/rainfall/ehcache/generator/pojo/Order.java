@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.pojo;
+
+import java.io.Serializable;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class Order implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long id;
+  private final String product;
+  private final int quantity;
+  private final double amount;
+
+  public Order(final long id, final String product, final int quantity, final double amount) {
+    this.id = id;
+    this.product = product;
+    this.quantity = quantity;
+    this.amount = amount;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getProduct() {
+    return product;
+  }
+
+  public int getQuantity() {
+    return quantity;
+  }
+
+  public double getAmount() {
+    return amount;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Order order = (Order)o;
+    return id == order.id && quantity == order.quantity && Double.compare(order.amount, amount) == 0
+           && product.equals(order.product);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = (int)(id ^ (id >>> 32));
+    result = 31 * result + product.hashCode();
+    result = 31 * result + quantity;
+    long bits = Double.doubleToLongBits(amount);
+    result = 31 * result + (int)(bits ^ (bits >>> 32));
+    return result;
+  }
+}
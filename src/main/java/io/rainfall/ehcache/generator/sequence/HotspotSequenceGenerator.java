@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+import jsr166e.ThreadLocalRandom;
+
+/**
+ * A fraction of the operations go to a hot set of keys, at the beginning of [min, max), and the others to the rest
+ * of the keys, uniformly in both cases.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class HotspotSequenceGenerator implements SequenceGenerator {
+
+  private final long min;
+  private final long hotSetSize;
+  private final long coldSetSize;
+  private final double hotOperationsFraction;
+
+  /**
+   * @param min                   smallest key, inclusive
+   * @param max                   largest key, exclusive
+   * @param hotKeysFraction       fraction of the keys that are hot, e.g. 0.2
+   * @param hotOperationsFraction fraction of the operations that use the hot keys, e.g. 0.8
+   */
+  public HotspotSequenceGenerator(final long min, final long max, final double hotKeysFraction,
+                                  final double hotOperationsFraction) {
+    if (max <= min) {
+      throw new IllegalArgumentException("max must be greater than min.");
+    }
+    if (hotKeysFraction < 0 || hotKeysFraction > 1 || hotOperationsFraction < 0 || hotOperationsFraction > 1) {
+      throw new IllegalArgumentException("Hotspot fractions must be between 0 and 1.");
+    }
+    this.min = min;
+    this.hotSetSize = Math.max(1L, (long)((max - min) * hotKeysFraction));
+    this.coldSetSize = (max - min) - hotSetSize;
+    this.hotOperationsFraction = coldSetSize == 0 ? 1d : hotOperationsFraction;
+  }
+
+  @Override
+  public long next() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (random.nextDouble() < hotOperationsFraction) {
+      return min + random.nextLong(hotSetSize);
+    }
+    return min + hotSetSize + random.nextLong(coldSetSize);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The most recently inserted keys are the most popular, with a Zipfian distribution over the age of the keys.
+ * <p/>
+ * The insertions are the keys returned by {@link #insertions()}, which should drive the operation that adds the
+ * keys (e.g. a put executed sequentially), while this generator drives the reads.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class LatestSequenceGenerator implements SequenceGenerator {
+
+  private final long min;
+  private final ZipfianSequenceGenerator ages;
+  private final AtomicLong inserted;
+  private final SequenceGenerator insertions;
+
+  /**
+   * @param min          first inserted key
+   * @param max          largest key, exclusive, which bounds the age of the keys that are read
+   * @param skew         Zipfian skew of the age of the keys, see {@link ZipfianSequenceGenerator}
+   * @param nbPreloaded  number of keys already in the cache, from min
+   */
+  public LatestSequenceGenerator(final long min, final long max, final double skew, final long nbPreloaded) {
+    this.min = min;
+    this.ages = new ZipfianSequenceGenerator(min, max, skew);
+    this.inserted = new AtomicLong(nbPreloaded);
+    this.insertions = new SequenceGenerator() {
+      @Override
+      public long next() {
+        return LatestSequenceGenerator.this.min + inserted.getAndIncrement();
+      }
+    };
+  }
+
+  /**
+   * @return the sequence of the inserted keys, from min + nbPreloaded
+   */
+  public SequenceGenerator insertions() {
+    return insertions;
+  }
+
+  @Override
+  public long next() {
+    long nbInserted = inserted.get();
+    if (nbInserted <= 0) {
+      return min;
+    }
+    long age = ages.nextOffset();
+    if (age >= nbInserted) {
+      age %= nbInserted;
+    }
+    return min + nbInserted - 1 - age;
+  }
+}
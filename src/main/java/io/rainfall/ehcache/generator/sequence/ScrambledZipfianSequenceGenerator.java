@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Zipfian distribution whose popular keys are spread over [min, max) instead of being grouped at min, so that they
+ * don't all land in the same segments of the cache.
+ * <p/>
+ * The rank drawn from the {@link ZipfianSequenceGenerator} is hashed with FNV-1a, several ranks can then map to the
+ * same key.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ScrambledZipfianSequenceGenerator implements SequenceGenerator {
+
+  private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 1099511628211L;
+
+  private final long min;
+  private final ZipfianSequenceGenerator zipfian;
+
+  public ScrambledZipfianSequenceGenerator(final long min, final long max, final double skew) {
+    this.min = min;
+    this.zipfian = new ZipfianSequenceGenerator(min, max, skew);
+  }
+
+  @Override
+  public long next() {
+    long hash = fnvHash(zipfian.nextOffset());
+    return min + (hash & Long.MAX_VALUE) % zipfian.getNbItems();
+  }
+
+  static long fnvHash(long value) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < 8; i++) {
+      hash ^= value & 0xFF;
+      hash *= FNV_PRIME;
+      value >>>= 8;
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+/**
+ * Skewed key distributions, to be used with {@link io.rainfall.EhcacheOperation#atRandom(io.rainfall.SequenceGenerator)}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Sequences {
+
+  public static ZipfianSequenceGenerator zipfian(final long min, final long max, final double skew) {
+    return new ZipfianSequenceGenerator(min, max, skew);
+  }
+
+  public static ScrambledZipfianSequenceGenerator scrambledZipfian(final long min, final long max, final double skew) {
+    return new ScrambledZipfianSequenceGenerator(min, max, skew);
+  }
+
+  public static HotspotSequenceGenerator hotspot(final long min, final long max, final double hotKeysFraction,
+                                                 final double hotOperationsFraction) {
+    return new HotspotSequenceGenerator(min, max, hotKeysFraction, hotOperationsFraction);
+  }
+
+  public static LatestSequenceGenerator latest(final long min, final long max, final double skew,
+                                               final long nbPreloaded) {
+    return new LatestSequenceGenerator(min, max, skew, nbPreloaded);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+import jsr166e.ThreadLocalRandom;
+
+/**
+ * Zipfian distribution over [min, max) : min is the most popular key, then min + 1, and so on.
+ * <p/>
+ * Uses the algorithm of Gray et al., "Quickly generating billion-record synthetic databases" : the zeta constant is
+ * computed once, in O(max - min), and each call only costs a random draw and a pow.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ZipfianSequenceGenerator implements SequenceGenerator {
+
+  private final long min;
+  private final long nbItems;
+  private final double skew;
+  private final double zetan;
+  private final double alpha;
+  private final double eta;
+  private final double halfPowSkew;
+
+  /**
+   * @param min  smallest key, inclusive
+   * @param max  largest key, exclusive
+   * @param skew between 0 (uniform) and 1 excluded, 0.99 is the usual value
+   */
+  public ZipfianSequenceGenerator(final long min, final long max, final double skew) {
+    if (max <= min) {
+      throw new IllegalArgumentException("max must be greater than min.");
+    }
+    if (skew <= 0 || skew >= 1) {
+      throw new IllegalArgumentException("Zipfian skew must be between 0 and 1, both excluded.");
+    }
+    this.min = min;
+    this.nbItems = max - min;
+    this.skew = skew;
+    this.zetan = zeta(nbItems, skew);
+    this.alpha = 1d / (1d - skew);
+    this.eta = (1 - Math.pow(2d / nbItems, 1 - skew)) / (1 - zeta(Math.min(2, nbItems), skew) / zetan);
+    this.halfPowSkew = 1 + Math.pow(0.5, skew);
+  }
+
+  private static double zeta(final long n, final double skew) {
+    double sum = 0;
+    for (long i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, skew);
+    }
+    return sum;
+  }
+
+  @Override
+  public long next() {
+    return min + nextOffset();
+  }
+
+  /**
+   * @return the rank of the next key, 0 being the most popular
+   */
+  long nextOffset() {
+    double u = ThreadLocalRandom.current().nextDouble();
+    double uz = u * zetan;
+    if (uz < 1) {
+      return 0;
+    }
+    if (uz < halfPowSkew && nbItems > 1) {
+      return 1;
+    }
+    return Math.min(nbItems - 1, (long)(nbItems * Math.pow(eta * u - eta + 1, alpha)));
+  }
+
+  long getNbItems() {
+    return nbItems;
+  }
+
+  public double getSkew() {
+    return skew;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.pacing;
+
+import jsr166e.LongAdder;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-interval arrival schedule shared by all the threads executing an operation.
+ * <p/>
+ * Each call to {@link #acquire()} takes the next slot of the schedule and waits until its intended start time.
+ * Slots are never dropped : when the threads fall behind the schedule, they run the late slots back to back until
+ * they catch up, so that the arrival rate stays constant over the run (open-loop load).
+ * <p/>
+ * The schedule starts with the first call to {@link #acquire()}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Pacer {
+
+  private static final long NOT_STARTED = Long.MIN_VALUE;
+
+  private final long tpsLimit;
+  private final double intervalInNs;
+  private final AtomicLong startTimeInNs = new AtomicLong(NOT_STARTED);
+  private final AtomicLong slots = new AtomicLong();
+  private final LongAdder started = new LongAdder();
+
+  public Pacer(final long tpsLimit) {
+    if (tpsLimit <= 0) {
+      throw new IllegalArgumentException("TPS limit must be strictly positive.");
+    }
+    this.tpsLimit = tpsLimit;
+    this.intervalInNs = 1000000000d / tpsLimit;
+  }
+
+  /**
+   * Takes the next slot of the schedule and blocks until its intended start time.
+   *
+   * @return the intended start time of the slot, in ns
+   */
+  public long acquire() {
+    long intendedStart = getStartTimeInNs() + (long)(slots.getAndIncrement() * intervalInNs);
+    long now;
+    while ((now = System.nanoTime()) < intendedStart) {
+      LockSupport.parkNanos(intendedStart - now);
+    }
+    started.increment();
+    return intendedStart;
+  }
+
+  private long getStartTimeInNs() {
+    long startTime = startTimeInNs.get();
+    if (startTime == NOT_STARTED) {
+      startTimeInNs.compareAndSet(NOT_STARTED, System.nanoTime());
+      startTime = startTimeInNs.get();
+    }
+    return startTime;
+  }
+
+  public long getTpsLimit() {
+    return tpsLimit;
+  }
+
+  /**
+   * @return the number of operations that have been started since the beginning of the schedule
+   */
+  public long getStartedCount() {
+    return started.sum();
+  }
+
+  /**
+   * @return the number of operations that should have been started at this time according to the schedule
+   */
+  public long getScheduledCount() {
+    long startTime = startTimeInNs.get();
+    if (startTime == NOT_STARTED) {
+      return 0L;
+    }
+    return (long)((System.nanoTime() - startTime) / intervalInNs) + 1;
+  }
+
+  /**
+   * @return the average TPS achieved since the beginning of the schedule
+   */
+  public long getAchievedTps() {
+    long startTime = startTimeInNs.get();
+    if (startTime == NOT_STARTED) {
+      return 0L;
+    }
+    long elapsedInNs = System.nanoTime() - startTime;
+    return elapsedInNs <= 0 ? 0L : (long)(started.sum() * 1000000000d / elapsedInNs);
+  }
+}
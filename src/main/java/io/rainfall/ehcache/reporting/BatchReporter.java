@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.statistics.BatchStatistics;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+
+import java.util.List;
+
+/**
+ * Summarizes the latencies of the bulk operations per number of keys, so that e.g. a getAll of n keys can be compared
+ * to n gets.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class BatchReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-15s %-15s %10s %12s %12s %16s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final BatchStatistics batchStatistics;
+
+  public BatchReporter(final BatchStatistics batchStatistics) {
+    this.batchStatistics = batchStatistics;
+  }
+
+  public static BatchReporter<EhcacheResult> batches(final CacheConfig<?, ?> cacheConfig) {
+    return new BatchReporter<EhcacheResult>(cacheConfig.getBatchStatistics());
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    // summary only
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("=================================================== BULK OPERATIONS ======================================")
+        .append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Type", "Nb_keys", "Txn_Count", "Avg_Lat", "Avg_Lat_per_key"))
+        .append(CRLF);
+    List<String> cacheNames = batchStatistics.getCacheNames();
+    for (int cacheIndex = 0; cacheIndex < cacheNames.size(); cacheIndex++) {
+      String cacheName = cacheNames.get(cacheIndex);
+      for (EhcacheResult result : EhcacheResult.values()) {
+        long[] counts = batchStatistics.getCounts(cacheIndex, result);
+        long[] latencies = batchStatistics.getTotalLatenciesInNs(cacheIndex, result);
+        for (int batchSize = 1; batchSize < counts.length; batchSize++) {
+          if (counts[batchSize] == 0) {
+            continue;
+          }
+          double averageLatencyInMs = latencies[batchSize] / 1000000d / counts[batchSize];
+          sb.append(String.format(FORMAT, cacheName, result.name(), batchSize, counts[batchSize],
+              String.format("%.6f", averageLatencyInMs), String.format("%.6f", averageLatencyInMs / batchSize)))
+              .append(CRLF);
+        }
+      }
+    }
+    System.out.println(sb.toString());
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+
+import java.util.List;
+
+/**
+ * Reports the values and bytes written to and read from each cache (see {@link ByteStatistics}), with their rates,
+ * at each reporting tick.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ByteReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-15s %-10s %12s %12s %14s %10s %10s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final ByteStatistics byteStatistics;
+  private final Totals first;
+  private Totals last;
+
+  public ByteReporter(final ByteStatistics byteStatistics) {
+    this.byteStatistics = byteStatistics;
+    this.first = new Totals(byteStatistics);
+    this.last = first;
+  }
+
+  public static ByteReporter bytes(final io.rainfall.ehcache3.CacheConfig cacheConfig) {
+    return new ByteReporter(cacheConfig.getByteStatistics());
+  }
+
+  public static ByteReporter bytes(final io.rainfall.ehcache2.CacheConfig cacheConfig) {
+    return new ByteReporter(cacheConfig.getByteStatistics());
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    Totals current = new Totals(byteStatistics);
+    System.out.println(format("======================================================= BYTES ============================================",
+        current, last));
+    last = current;
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    System.out.println(format("==================================================== BYTES SUMMARY =======================================",
+        new Totals(byteStatistics), first));
+  }
+
+  private String format(final String title, final Totals current, final Totals previous) {
+    long elapsedInNs = current.timestampInNs - previous.timestampInNs;
+    StringBuilder sb = new StringBuilder();
+    sb.append(title).append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Direction", "Values", "Values/s", "Bytes", "MB/s", "Avg_Size"))
+        .append(CRLF);
+    List<String> cacheNames = byteStatistics.getCacheNames();
+    for (int cacheIndex = 0; cacheIndex < current.writtenValues.length; cacheIndex++) {
+      line(sb, cacheNames.get(cacheIndex), "WRITE", current.writtenValues[cacheIndex] - previous.writtenValues(cacheIndex),
+          current.writtenBytes[cacheIndex] - previous.writtenBytes(cacheIndex), elapsedInNs);
+      line(sb, cacheNames.get(cacheIndex), "READ", current.readValues[cacheIndex] - previous.readValues(cacheIndex),
+          current.readBytes[cacheIndex] - previous.readBytes(cacheIndex), elapsedInNs);
+    }
+    return sb.toString();
+  }
+
+  private void line(final StringBuilder sb, final String cacheName, final String direction, final long values,
+                    final long bytes, final long elapsedInNs) {
+    if (values == 0) {
+      return;
+    }
+    double seconds = elapsedInNs / 1000000000d;
+    sb.append(String.format(FORMAT, cacheName, direction, values,
+        seconds <= 0 ? 0L : (long)(values / seconds), bytes,
+        String.format("%.3f", seconds <= 0 ? 0d : bytes / seconds / (1024 * 1024)),
+        bytes / values)).append(CRLF);
+  }
+
+  private static class Totals {
+    final long timestampInNs = System.nanoTime();
+    final long[] writtenValues;
+    final long[] writtenBytes;
+    final long[] readValues;
+    final long[] readBytes;
+
+    Totals(final ByteStatistics byteStatistics) {
+      int nbCaches = byteStatistics.getCacheNames().size();
+      writtenValues = new long[nbCaches];
+      writtenBytes = new long[nbCaches];
+      readValues = new long[nbCaches];
+      readBytes = new long[nbCaches];
+      for (int i = 0; i < nbCaches; i++) {
+        writtenValues[i] = byteStatistics.getWrittenValues(i);
+        writtenBytes[i] = byteStatistics.getWrittenBytes(i);
+        readValues[i] = byteStatistics.getReadValues(i);
+        readBytes[i] = byteStatistics.getReadBytes(i);
+      }
+    }
+
+    // caches may have been added since this snapshot
+    long writtenValues(final int cacheIndex) {
+      return cacheIndex < writtenValues.length ? writtenValues[cacheIndex] : 0L;
+    }
+
+    long writtenBytes(final int cacheIndex) {
+      return cacheIndex < writtenBytes.length ? writtenBytes[cacheIndex] : 0L;
+    }
+
+    long readValues(final int cacheIndex) {
+      return cacheIndex < readValues.length ? readValues[cacheIndex] : 0L;
+    }
+
+    long readBytes(final int cacheIndex) {
+      return cacheIndex < readBytes.length ? readBytes[cacheIndex] : 0L;
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+import org.HdrHistogram.Histogram;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports, at each reporting tick and for each cache, the evictions (see {@link EvictionStatistics}), the latencies of
+ * the puts that triggered an eviction and of the other puts, and the hit ratio of the gets, so that the hit ratio can
+ * be followed as the number of mappings reaches the capacity of the cache.
+ * <p/>
+ * The summary compares the hit ratio before the first eviction of each cache with the hit ratio after it.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class EvictionReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-15s %12s %12s %12s %10s %12s %14s %10s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final EvictionStatistics evictionStatistics;
+  private final Totals first;
+  private Totals last;
+  private Histogram[] puts = new Histogram[0];
+  private Histogram[] evictingPuts = new Histogram[0];
+  // totals at the first tick that saw an eviction, null until then
+  private Totals[] firstEvictions = new Totals[0];
+
+  public EvictionReporter(final EvictionStatistics evictionStatistics) {
+    this.evictionStatistics = evictionStatistics;
+    grow();
+    this.first = new Totals(evictionStatistics, puts.length, null, null);
+    this.last = first;
+  }
+
+  public static EvictionReporter evictions(final io.rainfall.ehcache3.CacheConfig cacheConfig) {
+    return new EvictionReporter(checked(cacheConfig.getEvictionStatistics()));
+  }
+
+  public static EvictionReporter evictions(final io.rainfall.ehcache2.CacheConfig cacheConfig) {
+    return new EvictionReporter(checked(cacheConfig.getEvictionStatistics()));
+  }
+
+  private static EvictionStatistics checked(final EvictionStatistics evictionStatistics) {
+    if (evictionStatistics == null) {
+      throw new IllegalStateException("Eviction statistics must be enabled on the CacheConfig first.");
+    }
+    return evictionStatistics;
+  }
+
+  /**
+   * Follows the caches added to the CacheConfig since the previous tick
+   */
+  private void grow() {
+    int nbCaches = evictionStatistics.getCacheNames().size();
+    int previous = puts.length;
+    if (nbCaches <= previous) {
+      return;
+    }
+    puts = Arrays.copyOf(puts, nbCaches);
+    evictingPuts = Arrays.copyOf(evictingPuts, nbCaches);
+    firstEvictions = Arrays.copyOf(firstEvictions, nbCaches);
+    for (int i = previous; i < nbCaches; i++) {
+      puts[i] = new Histogram(3);
+      evictingPuts[i] = new Histogram(3);
+      // drops the puts recorded before the run, e.g. during a preload
+      evictionStatistics.getIntervalPutLatencies(i, false);
+      evictionStatistics.getIntervalPutLatencies(i, true);
+    }
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    System.out.println(tick());
+  }
+
+  String tick() {
+    grow();
+    int nbCaches = puts.length;
+    Histogram[] intervalPuts = new Histogram[nbCaches];
+    Histogram[] intervalEvictingPuts = new Histogram[nbCaches];
+    for (int i = 0; i < nbCaches; i++) {
+      intervalPuts[i] = evictionStatistics.getIntervalPutLatencies(i, false);
+      intervalEvictingPuts[i] = evictionStatistics.getIntervalPutLatencies(i, true);
+      puts[i].add(intervalPuts[i]);
+      evictingPuts[i].add(intervalEvictingPuts[i]);
+    }
+    Totals current = new Totals(evictionStatistics, nbCaches, intervalPuts, intervalEvictingPuts);
+    for (int i = 0; i < nbCaches; i++) {
+      if (firstEvictions[i] == null && current.evicted[i] > 0) {
+        firstEvictions[i] = last;
+      }
+    }
+    String tick = format("===================================================== EVICTIONS ==========================================",
+        current, last);
+    last = current;
+    return tick;
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    System.out.println(summary());
+  }
+
+  String summary() {
+    grow();
+    Totals current = new Totals(evictionStatistics, puts.length, puts, evictingPuts);
+    StringBuilder sb = new StringBuilder();
+    sb.append(format("================================================== EVICTIONS SUMMARY =====================================",
+        current, first));
+    sb.append(String.format("%-15s %24s %24s", "Cache", "Hit_ratio_before_evicting", "Hit_ratio_while_evicting"))
+        .append(CRLF);
+    List<String> cacheNames = evictionStatistics.getCacheNames();
+    for (int i = 0; i < current.mappings.length; i++) {
+      Totals split = firstEvictions[i] == null ? current : firstEvictions[i];
+      sb.append(String.format("%-15s %24s %24s", cacheNames.get(i),
+          hitRatio(split.hits(i) - first.hits(i), split.misses(i) - first.misses(i)),
+          hitRatio(current.hits[i] - split.hits(i), current.misses[i] - split.misses(i)))).append(CRLF);
+    }
+    return sb.toString();
+  }
+
+  private String format(final String title, final Totals current, final Totals previous) {
+    double seconds = (current.timestampInNs - previous.timestampInNs) / 1000000000d;
+    StringBuilder sb = new StringBuilder();
+    sb.append(title).append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Mappings", "Evictions/s", "Puts/s", "Evicting_%", "Put_p99_ms",
+        "Evicting_p99_ms", "Hit_ratio")).append(CRLF);
+    List<String> cacheNames = evictionStatistics.getCacheNames();
+    for (int i = 0; i < current.mappings.length; i++) {
+      long nbPuts = current.puts[i].getTotalCount();
+      long nbEvictingPuts = current.evictingPuts[i].getTotalCount();
+      sb.append(String.format(FORMAT, cacheNames.get(i),
+          current.mappings[i],
+          seconds <= 0 ? 0L : (long)((current.evicted[i] - previous.evicted(i)) / seconds),
+          seconds <= 0 ? 0L : (long)((nbPuts + nbEvictingPuts) / seconds),
+          nbPuts + nbEvictingPuts == 0 ? "-" : String.format("%.2f", 100d * nbEvictingPuts / (nbPuts + nbEvictingPuts)),
+          p99(current.puts[i]),
+          p99(current.evictingPuts[i]),
+          hitRatio(current.hits[i] - previous.hits(i), current.misses[i] - previous.misses(i)))).append(CRLF);
+    }
+    return sb.toString();
+  }
+
+  private static String p99(final Histogram histogram) {
+    return histogram.getTotalCount() == 0 ? "-" : String.format("%.3f", histogram.getValueAtPercentile(99) / 1000000d);
+  }
+
+  private static String hitRatio(final long hits, final long misses) {
+    return hits + misses == 0 ? "-" : String.format("%.4f", (double)hits / (hits + misses));
+  }
+
+  private static class Totals {
+    final long timestampInNs = System.nanoTime();
+    final long[] mappings;
+    final long[] evicted;
+    final long[] hits;
+    final long[] misses;
+    final Histogram[] puts;
+    final Histogram[] evictingPuts;
+
+    Totals(final EvictionStatistics evictionStatistics, final int nbCaches, final Histogram[] puts,
+           final Histogram[] evictingPuts) {
+      this.mappings = new long[nbCaches];
+      this.evicted = new long[nbCaches];
+      this.hits = new long[nbCaches];
+      this.misses = new long[nbCaches];
+      this.puts = puts;
+      this.evictingPuts = evictingPuts;
+      for (int i = 0; i < nbCaches; i++) {
+        mappings[i] = evictionStatistics.getMappings(i);
+        evicted[i] = evictionStatistics.getEvicted(i);
+        hits[i] = evictionStatistics.getHits(i);
+        misses[i] = evictionStatistics.getMisses(i);
+      }
+    }
+
+    // the caches added after these totals were taken had nothing yet
+    long evicted(final int cacheIndex) {
+      return cacheIndex < evicted.length ? evicted[cacheIndex] : 0L;
+    }
+
+    long hits(final int cacheIndex) {
+      return cacheIndex < hits.length ? hits[cacheIndex] : 0L;
+    }
+
+    long misses(final int cacheIndex) {
+      return cacheIndex < misses.length ? misses[cacheIndex] : 0L;
+    }
+  }
+}
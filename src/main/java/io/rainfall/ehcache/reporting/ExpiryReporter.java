@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.statistics.ExpiryStatistics;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+import org.HdrHistogram.Histogram;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXPIRED_MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Reports, at each reporting tick and for each cache, the expirations (see {@link ExpiryStatistics}), the share of the
+ * gets missing an absent entry and an expired one, and what the expiry costs : the latency of the misses on expired
+ * entries, and how much longer they take than the misses on absent ones.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ExpiryReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-15s %14s %12s %8s %16s %12s %12s %16s %18s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final ExpiryStatistics expiryStatistics;
+  private final Totals first;
+  private Totals last;
+  private Histogram[] hits = new Histogram[0];
+  private Histogram[] misses = new Histogram[0];
+  private Histogram[] expiredMisses = new Histogram[0];
+
+  public ExpiryReporter(final ExpiryStatistics expiryStatistics) {
+    this.expiryStatistics = expiryStatistics;
+    grow();
+    this.first = new Totals(expiryStatistics, hits.length, null, null, null);
+    this.last = first;
+  }
+
+  public static ExpiryReporter expiries(final io.rainfall.ehcache3.CacheConfig cacheConfig) {
+    return new ExpiryReporter(checked(cacheConfig.getExpiryStatistics()));
+  }
+
+  public static ExpiryReporter expiries(final io.rainfall.ehcache2.CacheConfig cacheConfig) {
+    return new ExpiryReporter(checked(cacheConfig.getExpiryStatistics()));
+  }
+
+  private static ExpiryStatistics checked(final ExpiryStatistics expiryStatistics) {
+    if (expiryStatistics == null) {
+      throw new IllegalStateException("Expiry statistics must be enabled on the CacheConfig first.");
+    }
+    return expiryStatistics;
+  }
+
+  /**
+   * Follows the caches added to the CacheConfig since the previous tick
+   */
+  private void grow() {
+    int nbCaches = expiryStatistics.getCacheNames().size();
+    int previous = hits.length;
+    if (nbCaches <= previous) {
+      return;
+    }
+    hits = Arrays.copyOf(hits, nbCaches);
+    misses = Arrays.copyOf(misses, nbCaches);
+    expiredMisses = Arrays.copyOf(expiredMisses, nbCaches);
+    for (int i = previous; i < nbCaches; i++) {
+      hits[i] = new Histogram(3);
+      misses[i] = new Histogram(3);
+      expiredMisses[i] = new Histogram(3);
+      // drops the gets recorded before the run, e.g. during a warmup
+      expiryStatistics.getIntervalGetLatencies(i, GET);
+      expiryStatistics.getIntervalGetLatencies(i, MISS);
+      expiryStatistics.getIntervalGetLatencies(i, EXPIRED_MISS);
+    }
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    System.out.println(tick());
+  }
+
+  String tick() {
+    grow();
+    int nbCaches = hits.length;
+    Histogram[] intervalHits = new Histogram[nbCaches];
+    Histogram[] intervalMisses = new Histogram[nbCaches];
+    Histogram[] intervalExpiredMisses = new Histogram[nbCaches];
+    for (int i = 0; i < nbCaches; i++) {
+      intervalHits[i] = expiryStatistics.getIntervalGetLatencies(i, GET);
+      intervalMisses[i] = expiryStatistics.getIntervalGetLatencies(i, MISS);
+      intervalExpiredMisses[i] = expiryStatistics.getIntervalGetLatencies(i, EXPIRED_MISS);
+      hits[i].add(intervalHits[i]);
+      misses[i].add(intervalMisses[i]);
+      expiredMisses[i].add(intervalExpiredMisses[i]);
+    }
+    Totals current = new Totals(expiryStatistics, nbCaches, intervalHits, intervalMisses, intervalExpiredMisses);
+    String tick = format("====================================================== EXPIRY ============================================",
+        current, last);
+    last = current;
+    return tick;
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    System.out.println(summary());
+  }
+
+  String summary() {
+    grow();
+    return format("=================================================== EXPIRY SUMMARY =======================================",
+        new Totals(expiryStatistics, hits.length, hits, misses, expiredMisses), first);
+  }
+
+  private String format(final String title, final Totals current, final Totals previous) {
+    double seconds = (current.timestampInNs - previous.timestampInNs) / 1000000000d;
+    StringBuilder sb = new StringBuilder();
+    sb.append(title).append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Expirations/s", "Gets/s", "Miss_%", "Expired_miss_%", "Hit_p99_ms",
+        "Miss_p99_ms", "Expired_p99_ms", "Expired_cost_ms")).append(CRLF);
+    List<String> cacheNames = expiryStatistics.getCacheNames();
+    for (int i = 0; i < current.expired.length; i++) {
+      long nbHits = current.hits[i].getTotalCount();
+      long nbMisses = current.misses[i].getTotalCount();
+      long nbExpiredMisses = current.expiredMisses[i].getTotalCount();
+      long nbGets = nbHits + nbMisses + nbExpiredMisses;
+      sb.append(String.format(FORMAT, cacheNames.get(i),
+          seconds <= 0 ? 0L : (long)((current.expired[i] - previous.expired(i)) / seconds),
+          seconds <= 0 ? 0L : (long)(nbGets / seconds),
+          percent(nbMisses, nbGets),
+          percent(nbExpiredMisses, nbGets),
+          p99(current.hits[i]),
+          p99(current.misses[i]),
+          p99(current.expiredMisses[i]),
+          cost(current.expiredMisses[i], current.misses[i]))).append(CRLF);
+    }
+    return sb.toString();
+  }
+
+  private static String percent(final long count, final long total) {
+    return total == 0 ? "-" : String.format("%.2f", 100d * count / total);
+  }
+
+  private static String p99(final Histogram histogram) {
+    return histogram.getTotalCount() == 0 ? "-" : String.format("%.3f", histogram.getValueAtPercentile(99) / 1000000d);
+  }
+
+  /**
+   * @return how much longer a miss on an expired entry takes, on average, than a miss on an absent one
+   */
+  private static String cost(final Histogram expiredMisses, final Histogram misses) {
+    if (expiredMisses.getTotalCount() == 0 || misses.getTotalCount() == 0) {
+      return "-";
+    }
+    return String.format("%.3f", (expiredMisses.getMean() - misses.getMean()) / 1000000d);
+  }
+
+  private static class Totals {
+    final long timestampInNs = System.nanoTime();
+    final long[] expired;
+    final Histogram[] hits;
+    final Histogram[] misses;
+    final Histogram[] expiredMisses;
+
+    Totals(final ExpiryStatistics expiryStatistics, final int nbCaches, final Histogram[] hits,
+           final Histogram[] misses, final Histogram[] expiredMisses) {
+      this.expired = new long[nbCaches];
+      this.hits = hits;
+      this.misses = misses;
+      this.expiredMisses = expiredMisses;
+      for (int i = 0; i < nbCaches; i++) {
+        expired[i] = expiryStatistics.getExpired(i);
+      }
+    }
+
+    // the caches added after these totals were taken had nothing yet
+    long expired(final int cacheIndex) {
+      return cacheIndex < expired.length ? expired[cacheIndex] : 0L;
+    }
+  }
+}
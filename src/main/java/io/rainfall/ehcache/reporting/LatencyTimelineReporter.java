@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache.statistics.StripedRecorder.Snapshot;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the min, p50, p99 and max latencies of every reporting interval, per cache and per {@link EhcacheResult},
+ * as a time series : latency-timeline.csv, and latency-timeline.html with one chart per cache and result.
+ * <p/>
+ * Needs the striped statistics of the CacheConfig.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class LatencyTimelineReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String CSV_FILE = "latency-timeline.csv";
+  private static final String HTML_FILE = "latency-timeline.html";
+  private static final String[] SERIES = { "min", "p50", "p99", "max" };
+  private static final String[] COLORS = { "#2ca02c", "steelblue", "#ff7f0e", "#d62728" };
+  private static final int WIDTH = 1000;
+  private static final int HEIGHT = 300;
+  private static final int MARGIN = 50;
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final StripedRecorder recorder;
+  private final File basedir;
+  private final long startTimeInNs;
+  private final Map<String, List<long[]>> timelines = new LinkedHashMap<String, List<long[]>>();
+  private Snapshot last;
+
+  public LatencyTimelineReporter(final StripedRecorder recorder, final String basedir) {
+    this.recorder = recorder;
+    this.basedir = new File(basedir);
+    this.last = recorder.snapshot();
+    this.startTimeInNs = last.getTimestampInNs();
+    this.basedir.mkdirs();
+    try {
+      Writer writer = new FileWriter(new File(this.basedir, CSV_FILE));
+      try {
+        writer.append("timestamp,elapsed_ms,cache,result,count,min_us,p50_us,p99_us,max_us").append(CRLF);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Can not create " + CSV_FILE + " in " + basedir, e);
+    }
+  }
+
+  public static LatencyTimelineReporter latencyTimeline(final io.rainfall.ehcache3.CacheConfig cacheConfig) {
+    return latencyTimeline(cacheConfig, "target/rainfall-report");
+  }
+
+  public static LatencyTimelineReporter latencyTimeline(final io.rainfall.ehcache3.CacheConfig cacheConfig,
+                                                        final String basedir) {
+    return new LatencyTimelineReporter(striped(cacheConfig.getRecorder()), basedir);
+  }
+
+  public static LatencyTimelineReporter latencyTimeline(final io.rainfall.ehcache2.CacheConfig cacheConfig) {
+    return latencyTimeline(cacheConfig, "target/rainfall-report");
+  }
+
+  public static LatencyTimelineReporter latencyTimeline(final io.rainfall.ehcache2.CacheConfig cacheConfig,
+                                                        final String basedir) {
+    return new LatencyTimelineReporter(striped(cacheConfig.getRecorder()), basedir);
+  }
+
+  private static StripedRecorder striped(final EhcacheRecorder recorder) {
+    if (!(recorder instanceof StripedRecorder)) {
+      throw new IllegalStateException("Striped statistics must be enabled on the CacheConfig.");
+    }
+    return (StripedRecorder)recorder;
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    Snapshot current = recorder.snapshot();
+    Snapshot interval = current.minus(last);
+    last = current;
+    long elapsedInMs = (current.getTimestampInNs() - startTimeInNs) / 1000000L;
+    long timestamp = System.currentTimeMillis();
+
+    StringBuilder sb = new StringBuilder();
+    List<String> cacheNames = recorder.getCacheNames();
+    for (int cacheIndex = 0; cacheIndex < cacheNames.size(); cacheIndex++) {
+      for (EhcacheResult result : EhcacheResult.values()) {
+        Histogram histogram = interval.getHistogram(cacheIndex, result);
+        if (histogram == null || histogram.getTotalCount() == 0) {
+          continue;
+        }
+        long[] point = { elapsedInMs, histogram.getMinValue(), histogram.getValueAtPercentile(50),
+            histogram.getValueAtPercentile(99), histogram.getMaxValue() };
+        timeline(cacheNames.get(cacheIndex) + " - " + result.name()).add(point);
+        sb.append(timestamp).append(',').append(elapsedInMs).append(',')
+            .append(csv(cacheNames.get(cacheIndex))).append(',').append(result.name()).append(',')
+            .append(histogram.getTotalCount());
+        for (int i = 1; i < point.length; i++) {
+          sb.append(',').append(micros(point[i]));
+        }
+        sb.append(CRLF);
+      }
+    }
+
+    try {
+      Writer writer = new FileWriter(new File(basedir, CSV_FILE), true);
+      try {
+        writer.append(sb);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Can not write " + CSV_FILE + " in " + basedir, e);
+    }
+  }
+
+  private List<long[]> timeline(final String name) {
+    List<long[]> timeline = timelines.get(name);
+    if (timeline == null) {
+      timeline = new ArrayList<long[]>();
+      timelines.put(name, timeline);
+    }
+    return timeline;
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("<!DOCTYPE html>").append(CRLF)
+        .append("<html><head><meta charset=\"UTF-8\"><title>Latency timeline</title>")
+        .append("<style>body { font: 12px sans-serif; } svg text { font: 10px sans-serif; }</style></head><body>")
+        .append(CRLF).append("<h1>Latency per reporting interval (us, log scale)</h1>").append(CRLF);
+    sb.append("<p>");
+    for (int i = 0; i < SERIES.length; i++) {
+      sb.append("<span style=\"color:").append(COLORS[i]).append("\">&#9632; ").append(SERIES[i]).append("</span> ");
+    }
+    sb.append("</p>").append(CRLF);
+    for (Map.Entry<String, List<long[]>> entry : timelines.entrySet()) {
+      sb.append("<h2>").append(html(entry.getKey())).append("</h2>").append(CRLF);
+      appendChart(sb, entry.getValue());
+    }
+    sb.append("</body></html>").append(CRLF);
+
+    try {
+      Writer writer = new FileWriter(new File(basedir, HTML_FILE));
+      try {
+        writer.append(sb);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Can not write " + HTML_FILE + " in " + basedir, e);
+    }
+  }
+
+  private void appendChart(final StringBuilder sb, final List<long[]> timeline) {
+    long maxElapsed = 1;
+    long minValue = Long.MAX_VALUE;
+    long maxValue = 1;
+    for (long[] point : timeline) {
+      maxElapsed = Math.max(maxElapsed, point[0]);
+      minValue = Math.min(minValue, Math.max(1, point[1]));
+      maxValue = Math.max(maxValue, point[SERIES.length]);
+    }
+    // y axis in decades of ns, labelled in us
+    int lowDecade = (int)Math.floor(Math.log10(minValue));
+    int highDecade = Math.max(lowDecade + 1, (int)Math.ceil(Math.log10(maxValue)));
+
+    sb.append("<svg width=\"").append(WIDTH + 2 * MARGIN).append("\" height=\"").append(HEIGHT + 2 * MARGIN)
+        .append("\">").append(CRLF);
+    for (int decade = lowDecade; decade <= highDecade; decade++) {
+      double y = y(Math.pow(10, decade), lowDecade, highDecade);
+      sb.append(String.format(Locale.ENGLISH,
+          "<line x1=\"%d\" x2=\"%d\" y1=\"%.1f\" y2=\"%.1f\" stroke=\"lightgrey\"/>" +
+          "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%s</text>",
+          MARGIN, MARGIN + WIDTH, y, y, MARGIN - 5, y + 3, micros((long)Math.pow(10, decade)))).append(CRLF);
+    }
+    for (int i = 0; i <= 10; i++) {
+      double x = MARGIN + WIDTH * i / 10d;
+      sb.append(String.format(Locale.ENGLISH,
+          "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%ss</text>",
+          x, MARGIN + HEIGHT + 15, String.format(Locale.ENGLISH, "%.1f", maxElapsed * i / 10000d))).append(CRLF);
+    }
+    for (int series = 0; series < SERIES.length; series++) {
+      sb.append("<polyline fill=\"none\" stroke-width=\"1.5\" stroke=\"").append(COLORS[series]).append("\" points=\"");
+      for (long[] point : timeline) {
+        sb.append(String.format(Locale.ENGLISH, "%.1f,%.1f ", MARGIN + WIDTH * point[0] / (double)maxElapsed,
+            y(Math.max(1, point[series + 1]), lowDecade, highDecade)));
+      }
+      sb.append("\"/>").append(CRLF);
+    }
+    sb.append("</svg>").append(CRLF);
+  }
+
+  private static double y(final double valueInNs, final int lowDecade, final int highDecade) {
+    double ratio = (Math.log10(valueInNs) - lowDecade) / (highDecade - lowDecade);
+    return MARGIN + HEIGHT - ratio * HEIGHT;
+  }
+
+  /**
+   * Cache names are user-defined, they are escaped to be written as HTML text
+   */
+  static String html(final String text) {
+    StringBuilder sb = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '<':
+          sb.append("&lt;");
+          break;
+        case '>':
+          sb.append("&gt;");
+          break;
+        case '&':
+          sb.append("&amp;");
+          break;
+        case '"':
+          sb.append("&quot;");
+          break;
+        case '\'':
+          sb.append("&#39;");
+          break;
+        default:
+          sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Quotes a CSV field when it contains a separator, a quote or a line break
+   */
+  static String csv(final String field) {
+    if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+      return field;
+    }
+    return '"' + field.replace("\"", "\"\"") + '"';
+  }
+
+  private static String micros(final long valueInNs) {
+    return String.format(Locale.ENGLISH, "%.3f", valueInNs / 1000d);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeek;
+import io.rainfall.statistics.StatisticsPeekHolder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_MISS;
+
+/**
+ * Reports the latency seen by the callers of the loading operations, e.g. cache-aside : the average of the
+ * {@link EhcacheResult#LOAD_HIT}s and {@link EhcacheResult#LOAD_MISS}es weighted by their counts, with the hit ratio.
+ * <p/>
+ * Both results must be reported by the ReportingConfig.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class LoadReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-15s %12s %12s %12s %12s %12s";
+
+  private final String CRLF = System.getProperty("line.separator");
+
+  public static LoadReporter loads() {
+    return new LoadReporter();
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("====================================================== LOADS =============================================")
+        .append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Loads", "Hit_ratio", "Hit_Lat", "Miss_Lat", "Effective_Lat"))
+        .append(CRLF);
+    for (String name : new TreeSet<String>(statisticsPeekHolder.getStatisticsPeeksNames())) {
+      StatisticsPeek<E> peek = statisticsPeekHolder.getStatisticsPeeks(name);
+      if (reports(peek.getKeys())) {
+        sb.append(format(name, peek.getPeriodicCounters(hit()), peek.getPeriodicAverageLatencyInMs(hit()),
+            peek.getPeriodicCounters(miss()), peek.getPeriodicAverageLatencyInMs(miss())));
+      }
+    }
+    System.out.println(sb.toString());
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    System.out.println(summary(statisticsHolder));
+  }
+
+  String summary(final StatisticsHolder<E> statisticsHolder) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("================================================== LOADS SUMMARY =========================================")
+        .append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Loads", "Hit_ratio", "Hit_Lat", "Miss_Lat", "Effective_Lat"))
+        .append(CRLF);
+    if (!reports(statisticsHolder.getResultsReported())) {
+      return sb.toString();
+    }
+    for (String name : new TreeSet<String>(statisticsHolder.getStatisticsKeys())) {
+      StatisticsPeek<E> peek = statisticsHolder.getStatistics(name).peek(System.currentTimeMillis());
+      sb.append(format(name, peek.getCumulativeCounters(hit()), peek.getCumulativeAverageLatencyInMs(hit()),
+          peek.getCumulativeCounters(miss()), peek.getCumulativeAverageLatencyInMs(miss())));
+    }
+    return sb.toString();
+  }
+
+  private String format(final String name, final Long hits, final Double hitLatencyInMs, final Long misses,
+                        final Double missLatencyInMs) {
+    long nbHits = hits == null ? 0L : hits;
+    long nbMisses = misses == null ? 0L : misses;
+    long loads = nbHits + nbMisses;
+    if (loads == 0) {
+      return "";
+    }
+    double totalHitLatencyInMs = nbHits == 0 ? 0d : nbHits * hitLatencyInMs;
+    double totalMissLatencyInMs = nbMisses == 0 ? 0d : nbMisses * missLatencyInMs;
+    return String.format(FORMAT, name, loads, String.format("%.4f", (double)nbHits / loads),
+        nbHits == 0 ? "-" : String.format("%.6f", hitLatencyInMs),
+        nbMisses == 0 ? "-" : String.format("%.6f", missLatencyInMs),
+        String.format("%.6f", (totalHitLatencyInMs + totalMissLatencyInMs) / loads)) + CRLF;
+  }
+
+  private static boolean reports(final Enum<?>[] results) {
+    List<Enum<?>> reported = Arrays.<Enum<?>>asList(results);
+    return reported.contains(LOAD_HIT) && reported.contains(LOAD_MISS);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Enum<E> hit() {
+    return (Enum<E>)(Enum)LOAD_HIT;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Enum<E> miss() {
+    return (Enum<E>)(Enum)LOAD_MISS;
+  }
+}
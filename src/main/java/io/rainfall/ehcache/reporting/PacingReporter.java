@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.EhcacheOperation;
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.pacing.Pacer;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the requested TPS against the TPS achieved by the operations paced with
+ * {@link EhcacheOperation#withTpsLimit(long)}
+ *
+ * @author Aurelien Broszniowski
+ */
+public class PacingReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-30s %15s %15s %15s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final List<EhcacheOperation> operations = new ArrayList<EhcacheOperation>();
+  private final long[] lastStartedCounts;
+  private long lastTimestampInNs;
+
+  public PacingReporter(final EhcacheOperation... operations) {
+    for (EhcacheOperation operation : operations) {
+      if (operation.getPacer() == null) {
+        throw new IllegalArgumentException("Operation " + operation.getClass().getSimpleName() + " has no TPS limit.");
+      }
+      this.operations.add(operation);
+    }
+    this.lastStartedCounts = new long[operations.length];
+    this.lastTimestampInNs = System.nanoTime();
+  }
+
+  public static PacingReporter pacing(final EhcacheOperation... operations) {
+    return new PacingReporter(operations);
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    long now = System.nanoTime();
+    long elapsedInNs = now - lastTimestampInNs;
+    lastTimestampInNs = now;
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("====================================================== PACING ============================================")
+        .append(CRLF);
+    sb.append(String.format(FORMAT, "Operation", "Requested_TPS", "Achieved_TPS", "Behind_sched"))
+        .append(CRLF);
+    for (int i = 0; i < operations.size(); i++) {
+      Pacer pacer = operations.get(i).getPacer();
+      long started = pacer.getStartedCount();
+      long periodicTps = elapsedInNs <= 0 ? 0L : (long)((started - lastStartedCounts[i]) * 1000000000d / elapsedInNs);
+      lastStartedCounts[i] = started;
+      sb.append(String.format(FORMAT, name(operations.get(i)), pacer.getTpsLimit(), periodicTps,
+          Math.max(0L, pacer.getScheduledCount() - started))).append(CRLF);
+    }
+    System.out.println(sb.toString());
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("================================================== PACING SUMMARY ========================================")
+        .append(CRLF);
+    sb.append(String.format(FORMAT, "Operation", "Requested_TPS", "Achieved_TPS", "Started"))
+        .append(CRLF);
+    for (EhcacheOperation operation : operations) {
+      Pacer pacer = operation.getPacer();
+      sb.append(String.format(FORMAT, name(operation), pacer.getTpsLimit(), pacer.getAchievedTps(),
+          pacer.getStartedCount())).append(CRLF);
+    }
+    System.out.println(sb.toString());
+  }
+
+  private String name(final EhcacheOperation operation) {
+    return operation.getClass().getSimpleName();
+  }
+}
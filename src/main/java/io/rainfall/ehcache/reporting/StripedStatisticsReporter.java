@@ -0,0 +1,170 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache.statistics.StripedRecorder.Snapshot;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_MISS;
+
+/**
+ * Reports the results recorded by a {@link StripedRecorder}, merging the counters of all the threads at each
+ * reporting tick.
+ * <p/>
+ * The latency seen by the callers of the loading operations is reported as EFFECTIVE, computed from the
+ * {@link EhcacheResult#LOAD_HIT}s and {@link EhcacheResult#LOAD_MISS}es together.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class StripedStatisticsReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-15s %-15s %12s %12s %12s";
+  private static final String PERCENTILES_FORMAT = "%-15s %-15s %12s %10s %10s %10s %10s %10s %10s %10s";
+  private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 99.99 };
+  private static final String EFFECTIVE = "EFFECTIVE";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final StripedRecorder recorder;
+  private final Snapshot first;
+  private Snapshot last;
+
+  public StripedStatisticsReporter(final StripedRecorder recorder) {
+    this.recorder = recorder;
+    this.first = recorder.snapshot();
+    this.last = first;
+  }
+
+  public static StripedStatisticsReporter stripedStatistics(final io.rainfall.ehcache3.CacheConfig cacheConfig) {
+    return new StripedStatisticsReporter(striped(cacheConfig.getRecorder()));
+  }
+
+  public static StripedStatisticsReporter stripedStatistics(final io.rainfall.ehcache2.CacheConfig cacheConfig) {
+    return new StripedStatisticsReporter(striped(cacheConfig.getRecorder()));
+  }
+
+  private static StripedRecorder striped(final EhcacheRecorder recorder) {
+    if (!(recorder instanceof StripedRecorder)) {
+      throw new IllegalStateException("Striped statistics must be enabled on the CacheConfig.");
+    }
+    return (StripedRecorder)recorder;
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    Snapshot current = recorder.snapshot();
+    Snapshot periodic = current.minus(last);
+    long elapsedInNs = current.getTimestampInNs() - last.getTimestampInNs();
+    last = current;
+    System.out.println(format("================================================= STRIPED STATISTICS =====================================",
+        periodic, elapsedInNs));
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    Snapshot current = recorder.snapshot();
+    Snapshot run = current.minus(first);
+    System.out.println(format("============================================== STRIPED STATISTICS SUMMARY ================================",
+        run, current.getTimestampInNs() - first.getTimestampInNs()));
+    System.out.println(formatPercentiles(run));
+  }
+
+  private String formatPercentiles(final Snapshot snapshot) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("============================================= LATENCY PERCENTILES (us) ===================================")
+        .append(CRLF);
+    sb.append(String.format(PERCENTILES_FORMAT, "Cache", "Type", "Txn_Count", "Min", "p50", "p90", "p99", "p99.9",
+        "p99.99", "Max")).append(CRLF);
+    List<String> cacheNames = recorder.getCacheNames();
+    for (int cacheIndex = 0; cacheIndex < cacheNames.size(); cacheIndex++) {
+      for (EhcacheResult result : EhcacheResult.values()) {
+        appendPercentiles(sb, cacheNames.get(cacheIndex), result.name(), snapshot.getHistogram(cacheIndex, result));
+      }
+      appendPercentiles(sb, cacheNames.get(cacheIndex), EFFECTIVE, effective(snapshot, cacheIndex));
+    }
+    return sb.toString();
+  }
+
+  private void appendPercentiles(final StringBuilder sb, final String cacheName, final String type,
+                                 final Histogram histogram) {
+    if (histogram == null || histogram.getTotalCount() == 0) {
+      return;
+    }
+    Object[] values = new Object[PERCENTILES.length + 5];
+    values[0] = cacheName;
+    values[1] = type;
+    values[2] = histogram.getTotalCount();
+    values[3] = micros(histogram.getMinValue());
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      values[4 + i] = micros(histogram.getValueAtPercentile(PERCENTILES[i]));
+    }
+    values[values.length - 1] = micros(histogram.getMaxValue());
+    sb.append(String.format(PERCENTILES_FORMAT, values)).append(CRLF);
+  }
+
+  private static Histogram effective(final Snapshot snapshot, final int cacheIndex) {
+    Histogram hits = snapshot.getHistogram(cacheIndex, LOAD_HIT);
+    Histogram misses = snapshot.getHistogram(cacheIndex, LOAD_MISS);
+    if (hits == null || misses == null) {
+      return hits == null ? misses : hits;
+    }
+    Histogram histogram = hits.copy();
+    histogram.add(misses);
+    return histogram;
+  }
+
+  private static String micros(final long valueInNs) {
+    return String.format("%.3f", valueInNs / 1000d);
+  }
+
+  private String format(final String title, final Snapshot snapshot, final long elapsedInNs) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(title).append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Type", "Txn_Count", "TPS", "Avg_Lat")).append(CRLF);
+    List<String> cacheNames = recorder.getCacheNames();
+    for (int cacheIndex = 0; cacheIndex < cacheNames.size(); cacheIndex++) {
+      for (EhcacheResult result : EhcacheResult.values()) {
+        appendAverage(sb, cacheNames.get(cacheIndex), result.name(), snapshot.getCount(cacheIndex, result),
+            snapshot.getTotalLatencyInNs(cacheIndex, result), elapsedInNs);
+      }
+      appendAverage(sb, cacheNames.get(cacheIndex), EFFECTIVE,
+          snapshot.getCount(cacheIndex, LOAD_HIT) + snapshot.getCount(cacheIndex, LOAD_MISS),
+          snapshot.getTotalLatencyInNs(cacheIndex, LOAD_HIT) + snapshot.getTotalLatencyInNs(cacheIndex, LOAD_MISS),
+          elapsedInNs);
+    }
+    return sb.toString();
+  }
+
+  private void appendAverage(final StringBuilder sb, final String cacheName, final String type, final long count,
+                             final long totalLatencyInNs, final long elapsedInNs) {
+    if (count == 0) {
+      return;
+    }
+    long tps = elapsedInNs <= 0 ? 0L : (long)(count * 1000000000d / elapsedInNs);
+    double averageLatencyInMs = totalLatencyInNs / 1000000d / count;
+    sb.append(String.format(FORMAT, cacheName, type, count, tps, String.format("%.6f", averageLatencyInMs)))
+        .append(CRLF);
+  }
+}
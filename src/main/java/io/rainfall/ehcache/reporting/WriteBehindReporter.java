@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.Reporter;
+import io.rainfall.ehcache.sor.PendingWrites;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.statistics.StatisticsPeekHolder;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports, at each reporting tick and for each write-behind cache, how far the writes to the system of record lag
+ * behind the puts accepted by the cache, the throughput of the writer, the average size of the batches it flushed,
+ * and the tail latency of the puts, which grows when the write-behind queue is full.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteBehindReporter<E extends Enum<E>> extends Reporter<E> {
+
+  private static final String FORMAT = "%-15s %12s %10s %12s %10s %10s %10s %12s %12s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final List<String> cacheNames = new ArrayList<String>();
+  private final List<SystemOfRecord<?, ?>> systemsOfRecord = new ArrayList<SystemOfRecord<?, ?>>();
+  private final Totals[] first;
+  private final Totals[] last;
+  private final Histogram[] putLatencies;
+  private final int[] maxPendingCounts;
+  private final long[] maxOldestAgesInNs;
+
+  public WriteBehindReporter(final Map<String, SystemOfRecord<?, ?>> systemsOfRecord) {
+    for (Map.Entry<String, SystemOfRecord<?, ?>> entry : systemsOfRecord.entrySet()) {
+      this.cacheNames.add(entry.getKey());
+      this.systemsOfRecord.add(entry.getValue());
+    }
+    int nbCaches = cacheNames.size();
+    this.first = new Totals[nbCaches];
+    this.last = new Totals[nbCaches];
+    this.putLatencies = new Histogram[nbCaches];
+    this.maxPendingCounts = new int[nbCaches];
+    this.maxOldestAgesInNs = new long[nbCaches];
+    for (int i = 0; i < nbCaches; i++) {
+      first[i] = new Totals(this.systemsOfRecord.get(i));
+      last[i] = first[i];
+      putLatencies[i] = new Histogram(3);
+      // drops the puts recorded before the run, e.g. during a preload
+      this.systemsOfRecord.get(i).getPendingWrites().getIntervalAcceptLatencies();
+    }
+  }
+
+  public static WriteBehindReporter writeBehindLag(final SystemOfRecordProvider systemOfRecordProvider) {
+    return new WriteBehindReporter(systemOfRecordProvider.getSystemsOfRecord());
+  }
+
+  @Override
+  public void report(final StatisticsPeekHolder<E> statisticsPeekHolder) {
+    System.out.println(tick());
+  }
+
+  String tick() {
+    StringBuilder sb = header("===================================================== WRITE BEHIND =======================================");
+    for (int i = 0; i < cacheNames.size(); i++) {
+      PendingWrites<?, ?> pendingWrites = systemsOfRecord.get(i).getPendingWrites();
+      Totals current = new Totals(systemsOfRecord.get(i));
+      int pendingCount = pendingWrites.getCount();
+      long oldestAgeInNs = pendingWrites.getOldestAgeInNs();
+      Histogram interval = pendingWrites.getIntervalAcceptLatencies();
+      putLatencies[i].add(interval);
+      maxPendingCounts[i] = Math.max(maxPendingCounts[i], pendingCount);
+      maxOldestAgesInNs[i] = Math.max(maxOldestAgesInNs[i], oldestAgeInNs);
+      line(sb, cacheNames.get(i), current, last[i], pendingCount, oldestAgeInNs, interval);
+      last[i] = current;
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void summarize(final StatisticsHolder<E> statisticsHolder) {
+    System.out.println(summary());
+  }
+
+  String summary() {
+    StringBuilder sb = header("================================================== WRITE BEHIND SUMMARY ==================================");
+    for (int i = 0; i < cacheNames.size(); i++) {
+      putLatencies[i].add(systemsOfRecord.get(i).getPendingWrites().getIntervalAcceptLatencies());
+      line(sb, cacheNames.get(i), new Totals(systemsOfRecord.get(i)), first[i], maxPendingCounts[i],
+          maxOldestAgesInNs[i], putLatencies[i]);
+    }
+    sb.append("(summary : Pending and Oldest_ms are the maxima observed at the reporting ticks)").append(CRLF);
+    return sb.toString();
+  }
+
+  private StringBuilder header(final String title) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(title).append(CRLF);
+    sb.append(String.format(FORMAT, "Cache", "Accepted/s", "Pending", "Oldest_ms", "Writes/s", "Batches/s", "Avg_Batch",
+        "Put_p99_ms", "Put_max_ms")).append(CRLF);
+    return sb;
+  }
+
+  private void line(final StringBuilder sb, final String cacheName, final Totals current, final Totals previous,
+                    final int pendingCount, final long oldestAgeInNs, final Histogram putLatencies) {
+    double seconds = (current.timestampInNs - previous.timestampInNs) / 1000000000d;
+    long writes = current.writes - previous.writes;
+    long batches = current.batches - previous.batches;
+    sb.append(String.format(FORMAT, cacheName,
+        rate(current.accepted - previous.accepted, seconds),
+        pendingCount,
+        String.format("%.3f", oldestAgeInNs / 1000000d),
+        rate(writes, seconds),
+        String.format("%.1f", seconds <= 0 ? 0d : batches / seconds),
+        batches == 0 ? "-" : String.format("%.1f", (double)writes / batches),
+        putLatencies.getTotalCount() == 0 ? "-" : String.format("%.3f", putLatencies.getValueAtPercentile(99) / 1000000d),
+        putLatencies.getTotalCount() == 0 ? "-" : String.format("%.3f", putLatencies.getMaxValue() / 1000000d)))
+        .append(CRLF);
+  }
+
+  private static long rate(final long count, final double seconds) {
+    return seconds <= 0 ? 0L : (long)(count / seconds);
+  }
+
+  private static class Totals {
+    final long timestampInNs = System.nanoTime();
+    final long accepted;
+    final long writes;
+    final long batches;
+
+    Totals(final SystemOfRecord<?, ?> systemOfRecord) {
+      this.accepted = systemOfRecord.getPendingWrites().getAcceptedCount();
+      this.writes = systemOfRecord.getWriteCount();
+      this.batches = systemOfRecord.getWriteBatchCount();
+    }
+  }
+}
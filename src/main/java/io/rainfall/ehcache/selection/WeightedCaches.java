@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.selection;
+
+import io.rainfall.ehcache.generator.CumulativeWeights;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks one cache per invocation of an operation, with a probability proportional to its weight.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WeightedCaches<C> {
+
+  private final List<C> caches;
+  private final CumulativeWeights weights;
+
+  public WeightedCaches(final List<C> caches, final double[] weights) {
+    if (caches.isEmpty() || caches.size() != weights.length) {
+      throw new IllegalArgumentException("One weight per cache is required, in the order the caches were added.");
+    }
+    this.caches = new ArrayList<C>(caches);
+    this.weights = new CumulativeWeights(weights);
+  }
+
+  /**
+   * @return the cache the current invocation works on
+   */
+  public C next() {
+    return caches.get(weights.next());
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.sor;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Distribution of the latencies of the calls to a simulated {@link SystemOfRecord}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class LatencyDistribution {
+
+  // parkNanos overshoots by tens of µs, the end of a wait is spun
+  private static final long SPIN_THRESHOLD_IN_NS = 50000L;
+
+  private final ThreadLocal<Random> randoms = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue() {
+      return new Random();
+    }
+  };
+
+  /**
+   * @return the latency in ns of the next call
+   */
+  public long nextInNs() {
+    return draw(randoms.get());
+  }
+
+  protected abstract long draw(Random random);
+
+  /**
+   * Blocks the calling thread for the latency of the next call
+   */
+  public void simulate() {
+    long latencyInNs = nextInNs();
+    if (latencyInNs <= 0) {
+      return;
+    }
+    long deadline = System.nanoTime() + latencyInNs;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      if (remaining > SPIN_THRESHOLD_IN_NS) {
+        LockSupport.parkNanos(remaining - SPIN_THRESHOLD_IN_NS);
+      } else {
+        Thread.yield();
+      }
+    }
+  }
+
+  public static LatencyDistribution none() {
+    return fixed(0, TimeUnit.NANOSECONDS);
+  }
+
+  public static LatencyDistribution fixed(final long latency, final TimeUnit unit) {
+    if (latency < 0) {
+      throw new IllegalArgumentException("Latency must be positive.");
+    }
+    final long latencyInNs = unit.toNanos(latency);
+    return new LatencyDistribution() {
+      @Override
+      protected long draw(final Random random) {
+        return latencyInNs;
+      }
+    };
+  }
+
+  /**
+   * @param min smallest latency, inclusive
+   * @param max largest latency, exclusive
+   */
+  public static LatencyDistribution uniform(final long min, final long max, final TimeUnit unit) {
+    if (min < 0 || max <= min) {
+      throw new IllegalArgumentException("Latencies must be positive and min must be smaller than max.");
+    }
+    final long minInNs = unit.toNanos(min);
+    final long rangeInNs = unit.toNanos(max) - minInNs;
+    return new LatencyDistribution() {
+      @Override
+      protected long draw(final Random random) {
+        return minInNs + (long)(random.nextDouble() * rangeInNs);
+      }
+    };
+  }
+
+  /**
+   * Log-normal distribution, the usual shape of the response times of a database : most calls are close to the
+   * median, with a long tail of slow ones.
+   *
+   * @param median median latency
+   * @param sigma  standard deviation of the logarithm of the latencies
+   * @param max    largest latency, longer draws are truncated
+   */
+  public static LatencyDistribution logNormal(final long median, final double sigma, final long max,
+                                              final TimeUnit unit) {
+    if (median <= 0 || sigma < 0 || max < median) {
+      throw new IllegalArgumentException("Median must be strictly positive, sigma positive and max not smaller than median.");
+    }
+    final long medianInNs = unit.toNanos(median);
+    final long maxInNs = unit.toNanos(max);
+    return new LatencyDistribution() {
+      @Override
+      protected long draw(final Random random) {
+        return Math.min(maxInNs, Math.round(medianInNs * Math.exp(sigma * random.nextGaussian())));
+      }
+    };
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.sor;
+
+import jsr166e.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes accepted by a write-behind cache that haven't reached its {@link SystemOfRecord} yet.
+ * <p/>
+ * Each accepted write of a key gets the next sequence number of the key. The write-behind queue writes the values of
+ * a key in order, so a value written to the system of record, matched with equals() against the newest pending write
+ * of the key, also accounts for the older writes of the key : with write coalescing, the intermediate values of a key
+ * are never written and the key stays pending, with the age of its oldest accepted write, until a later value is
+ * written.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class PendingWrites<K, V> {
+
+  private final ConcurrentMap<K, Pending<V>> pending = new ConcurrentHashMap<K, Pending<V>>();
+  private final LongAdder accepted = new LongAdder();
+  private final Recorder acceptLatencies = new Recorder(3);
+
+  /**
+   * Marks a key as pending, before it is put in the cache : the write-behind queue may write it before the put returns
+   *
+   * @return the sequence number of the write, to pass to {@link #rejected(Object, long)} when the put fails
+   */
+  public long accepting(final K key, final V value) {
+    while (true) {
+      Pending<V> current = pending.get(key);
+      if (current == null) {
+        Pending<V> created = new Pending<V>();
+        current = pending.putIfAbsent(key, created);
+        if (current == null) {
+          current = created;
+        }
+      }
+      synchronized (current) {
+        // an empty Pending was removed from the map, the key needs a new one
+        if (!current.removed) {
+          return current.add(value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a put accepted by the cache
+   *
+   * @param latencyInNs latency of the put, as seen by the caller
+   */
+  public void accepted(final long latencyInNs) {
+    accepted.increment();
+    acceptLatencies.recordValue(latencyInNs);
+  }
+
+  /**
+   * Unmarks the write of a key whose put failed
+   *
+   * @param sequence sequence number returned by {@link #accepting(Object, Object)}
+   */
+  public void rejected(final K key, final long sequence) {
+    Pending<V> current = pending.get(key);
+    if (current != null) {
+      synchronized (current) {
+        if (current.remove(sequence)) {
+          pending.remove(key, current);
+        }
+      }
+    }
+  }
+
+  /**
+   * Unmarks the writes of a key up to the oldest pending one of this value, when it is written to the system of record
+   */
+  void written(final K key, final V value) {
+    Pending<V> current = pending.get(key);
+    if (current != null) {
+      synchronized (current) {
+        if (current.written(value)) {
+          pending.remove(key, current);
+        }
+      }
+    }
+  }
+
+  public long getAcceptedCount() {
+    return accepted.sum();
+  }
+
+  /**
+   * @return the number of keys whose last accepted value hasn't been written yet
+   */
+  public int getCount() {
+    return pending.size();
+  }
+
+  /**
+   * @return the age of the oldest accepted write that hasn't been written yet, 0 when none is pending
+   */
+  public long getOldestAgeInNs() {
+    long oldest = Long.MAX_VALUE;
+    for (Pending<V> write : pending.values()) {
+      synchronized (write) {
+        oldest = Math.min(oldest, write.getOldestAcceptedTimeInNs());
+      }
+    }
+    return oldest == Long.MAX_VALUE ? 0L : Math.max(0L, System.nanoTime() - oldest);
+  }
+
+  /**
+   * @return the latencies of the puts accepted since the previous call
+   */
+  public Histogram getIntervalAcceptLatencies() {
+    return acceptLatencies.getIntervalHistogram();
+  }
+
+  /**
+   * Writes of one key not written yet, in sequence order. Guarded by its own lock.
+   */
+  private static class Pending<V> {
+    private final ArrayDeque<Write<V>> writes = new ArrayDeque<Write<V>>();
+    private long nextSequence = 0L;
+    private boolean removed = false;
+
+    long add(final V value) {
+      long sequence = nextSequence++;
+      writes.addLast(new Write<V>(sequence, value, System.nanoTime()));
+      return sequence;
+    }
+
+    /**
+     * @return true when no write is left, the Pending is then marked removed
+     */
+    boolean remove(final long sequence) {
+      for (Iterator<Write<V>> iterator = writes.iterator(); iterator.hasNext(); ) {
+        if (iterator.next().sequence == sequence) {
+          iterator.remove();
+          break;
+        }
+      }
+      return markRemovedIfEmpty();
+    }
+
+    boolean written(final V value) {
+      long sequence = -1L;
+      // the newest equal value : with coalescing, equal values queued for the key are written once
+      for (Iterator<Write<V>> iterator = writes.descendingIterator(); iterator.hasNext(); ) {
+        Write<V> write = iterator.next();
+        if (write.value == null ? value == null : write.value.equals(value)) {
+          sequence = write.sequence;
+          break;
+        }
+      }
+      while (!writes.isEmpty() && writes.peekFirst().sequence <= sequence) {
+        writes.removeFirst();
+      }
+      return markRemovedIfEmpty();
+    }
+
+    long getOldestAcceptedTimeInNs() {
+      return writes.isEmpty() ? Long.MAX_VALUE : writes.peekFirst().acceptedTimeInNs;
+    }
+
+    private boolean markRemovedIfEmpty() {
+      removed = writes.isEmpty();
+      return removed;
+    }
+  }
+
+  private static class Write<V> {
+    final long sequence;
+    final V value;
+    final long acceptedTimeInNs;
+
+    Write(final long sequence, final V value, final long acceptedTimeInNs) {
+      this.sequence = sequence;
+      this.value = value;
+      this.acceptedTimeInNs = acceptedTimeInNs;
+    }
+  }
+}
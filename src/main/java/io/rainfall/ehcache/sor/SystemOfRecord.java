@@ -0,0 +1,324 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.sor;
+
+import io.rainfall.ehcache.pacing.Pacer;
+import jsr166e.LongAdder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Simulated system of record behind a cache, e.g. a database : the values missing from the cache are loaded from it,
+ * and the writes of the cache are written to it.
+ * <p/>
+ * A simulated system of record only waits for the latency of each call and returns the value generated by the
+ * operation. A local system of record also keeps the values in memory, as a stand-in for a real backend : a key is
+ * loaded with the value it was last written with, or first loaded with.
+ * <p/>
+ * The calls made by each thread are tracked, so that an operation can tell the time spent in the system of record
+ * from the time spent in the cache, even when the calls are made by a cache loader-writer.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SystemOfRecord<K, V> {
+
+  private final LatencyDistribution readLatency;
+  private LatencyDistribution writeLatency;
+  private final ConcurrentMap<K, V> records;
+  private Pacer pacer = null;
+  private double failureRate = 0d;
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadTimeInNs = new LongAdder();
+  private final LongAdder writes = new LongAdder();
+  private final LongAdder writeTimeInNs = new LongAdder();
+  private final LongAdder writeBatches = new LongAdder();
+  private final LongAdder deletes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final PendingWrites<K, V> pendingWrites = new PendingWrites<K, V>();
+  private final ThreadLocal<Calls> calls = new ThreadLocal<Calls>() {
+    @Override
+    protected Calls initialValue() {
+      return new Calls();
+    }
+  };
+  private final ThreadLocal<Random> randoms = new ThreadLocal<Random>() {
+    @Override
+    protected Random initialValue() {
+      return new Random();
+    }
+  };
+
+  private SystemOfRecord(final LatencyDistribution readLatency, final ConcurrentMap<K, V> records) {
+    this.readLatency = readLatency;
+    this.writeLatency = readLatency;
+    this.records = records;
+  }
+
+  /**
+   * @param latency latency of each call
+   */
+  public static <K, V> SystemOfRecord<K, V> simulated(final LatencyDistribution latency) {
+    return new SystemOfRecord<K, V>(latency, null);
+  }
+
+  /**
+   * @param latency latency of each call, on top of the in-memory lookup
+   */
+  public static <K, V> SystemOfRecord<K, V> local(final LatencyDistribution latency) {
+    return new SystemOfRecord<K, V>(latency, new ConcurrentHashMap<K, V>());
+  }
+
+  /**
+   * @param writeLatency latency of the writes and deletes, the latency of the loads by default
+   */
+  public SystemOfRecord<K, V> writeLatency(final LatencyDistribution writeLatency) {
+    this.writeLatency = writeLatency;
+    return this;
+  }
+
+  /**
+   * Caps the throughput of the system of record : the calls beyond it wait for their turn, like in the queue of a
+   * saturated database.
+   *
+   * @param maxTps maximum number of calls per second, all kinds of calls together
+   */
+  public SystemOfRecord<K, V> maxTps(final long maxTps) {
+    if (this.pacer != null) {
+      throw new IllegalStateException("Max TPS already chosen.");
+    }
+    this.pacer = new Pacer(maxTps);
+    return this;
+  }
+
+  /**
+   * @param failureRate probability of each call to fail with an IOException, after its latency
+   */
+  public SystemOfRecord<K, V> failureRate(final double failureRate) {
+    if (failureRate < 0d || failureRate > 1d) {
+      throw new IllegalArgumentException("Failure rate must be between 0 and 1.");
+    }
+    this.failureRate = failureRate;
+    return this;
+  }
+
+  /**
+   * Starts tracking the calls made by the current thread, e.g. by a cache loader-writer during a cache operation.
+   *
+   * @param generated value generated by the operation for its key, loaded when the system of record doesn't hold one
+   * @return the calls made by the current thread from now on
+   */
+  public Calls track(final V generated) {
+    Calls current = calls.get();
+    current.reset(generated);
+    return current;
+  }
+
+  /**
+   * Loads the value of a key, from a cache loader
+   *
+   * @return the value of the key, the value generated for the tracked calls of the current thread when the system of
+   * record doesn't hold one
+   * @see #track(Object)
+   */
+  @SuppressWarnings("unchecked")
+  public V load(final K key) throws IOException {
+    return load(key, (V)calls.get().generated);
+  }
+
+  /**
+   * Loads the value of a key
+   *
+   * @param generated value generated by the operation for this key, loaded when the system of record doesn't hold one
+   * @return the value of the key
+   */
+  public V load(final K key, final V generated) throws IOException {
+    long start = System.nanoTime();
+    try {
+      call(readLatency);
+      if (records == null || generated == null) {
+        return records == null ? generated : records.get(key);
+      }
+      V current = records.putIfAbsent(key, generated);
+      return current == null ? generated : current;
+    } finally {
+      long timeInNs = System.nanoTime() - start;
+      loads.increment();
+      loadTimeInNs.add(timeInNs);
+      Calls current = calls.get();
+      current.loads++;
+      current.loadTimeInNs += timeInNs;
+    }
+  }
+
+  public void write(final K key, final V value) throws IOException {
+    long start = System.nanoTime();
+    try {
+      call(writeLatency);
+      store(key, value);
+    } finally {
+      wrote(1, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Writes a batch of entries, e.g. flushed by a write-behind queue, in a single call
+   */
+  public void writeAll(final Iterable<? extends Map.Entry<? extends K, ? extends V>> entries) throws IOException {
+    long start = System.nanoTime();
+    int nbEntries = 0;
+    try {
+      call(writeLatency);
+      for (Map.Entry<? extends K, ? extends V> entry : entries) {
+        store(entry.getKey(), entry.getValue());
+        nbEntries++;
+      }
+    } finally {
+      wrote(nbEntries, System.nanoTime() - start);
+    }
+  }
+
+  private void store(final K key, final V value) {
+    if (records != null) {
+      records.put(key, value);
+    }
+    pendingWrites.written(key, value);
+  }
+
+  private void wrote(final int nbEntries, final long timeInNs) {
+    writes.add(nbEntries);
+    writeBatches.increment();
+    writeTimeInNs.add(timeInNs);
+    Calls current = calls.get();
+    current.writes++;
+    current.writeTimeInNs += timeInNs;
+  }
+
+  public void delete(final K key) throws IOException {
+    long start = System.nanoTime();
+    try {
+      call(writeLatency);
+      if (records != null) {
+        records.remove(key);
+      }
+    } finally {
+      long timeInNs = System.nanoTime() - start;
+      deletes.increment();
+      writeTimeInNs.add(timeInNs);
+      Calls current = calls.get();
+      current.writes++;
+      current.writeTimeInNs += timeInNs;
+    }
+  }
+
+  private void call(final LatencyDistribution latency) throws IOException {
+    if (pacer != null) {
+      pacer.acquire();
+    }
+    latency.simulate();
+    if (failureRate > 0d && randoms.get().nextDouble() < failureRate) {
+      failures.increment();
+      throw new IOException("Simulated failure of the system of record.");
+    }
+  }
+
+  public long getLoadCount() {
+    return loads.sum();
+  }
+
+  public long getLoadTimeInNs() {
+    return loadTimeInNs.sum();
+  }
+
+  public long getWriteCount() {
+    return writes.sum();
+  }
+
+  /**
+   * @return the number of calls that wrote entries, a batch written in one call counts once
+   */
+  public long getWriteBatchCount() {
+    return writeBatches.sum();
+  }
+
+  public long getDeleteCount() {
+    return deletes.sum();
+  }
+
+  /**
+   * @return the time spent in writes and deletes
+   */
+  public long getWriteTimeInNs() {
+    return writeTimeInNs.sum();
+  }
+
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  /**
+   * @return the writes accepted by a write-behind cache that haven't been written yet
+   */
+  public PendingWrites<K, V> getPendingWrites() {
+    return pendingWrites;
+  }
+
+  /**
+   * @return the number of values held, 0 for a simulated system of record
+   */
+  public int size() {
+    return records == null ? 0 : records.size();
+  }
+
+  /**
+   * Calls made by one thread since the start of their tracking, deletes are counted as writes
+   */
+  public static class Calls {
+    private Object generated;
+    private int loads;
+    private long loadTimeInNs;
+    private int writes;
+    private long writeTimeInNs;
+
+    void reset(final Object generated) {
+      this.generated = generated;
+      this.loads = 0;
+      this.loadTimeInNs = 0L;
+      this.writes = 0;
+      this.writeTimeInNs = 0L;
+    }
+
+    public int getLoads() {
+      return loads;
+    }
+
+    public long getLoadTimeInNs() {
+      return loadTimeInNs;
+    }
+
+    public int getWrites() {
+      return writes;
+    }
+
+    public long getWriteTimeInNs() {
+      return writeTimeInNs;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import jsr166e.LongAdder;
+
+import java.util.List;
+
+/**
+ * Counts and latencies of the bulk operations, per cache index, per {@link EhcacheResult} and per number of keys.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class BatchStatistics {
+
+  private final List<String> cacheNames;
+  private volatile Counters[][] counters = new Counters[0][];
+
+  /**
+   * @param cacheNames names of the cache indexes, may grow after the creation
+   */
+  public BatchStatistics(final List<String> cacheNames) {
+    this.cacheNames = cacheNames;
+  }
+
+  public void record(final int cacheIndex, final EhcacheResult result, final int batchSize, final long latencyInNs) {
+    Counters[][] c = counters;
+    if (cacheIndex >= c.length) {
+      grow(cacheIndex);
+      c = counters;
+    }
+    c[cacheIndex][result.ordinal()].record(batchSize, latencyInNs);
+  }
+
+  private synchronized void grow(final int cacheIndex) {
+    if (cacheIndex < counters.length) {
+      return;
+    }
+    Counters[][] newCounters = new Counters[cacheIndex + 1][];
+    System.arraycopy(counters, 0, newCounters, 0, counters.length);
+    for (int i = counters.length; i < newCounters.length; i++) {
+      newCounters[i] = new Counters[EhcacheResult.values().length];
+      for (int j = 0; j < newCounters[i].length; j++) {
+        newCounters[i][j] = new Counters();
+      }
+    }
+    counters = newCounters;
+  }
+
+  public List<String> getCacheNames() {
+    return cacheNames;
+  }
+
+  /**
+   * @return the number of recorded operations for each batch size, indexed by batch size
+   */
+  public long[] getCounts(final int cacheIndex, final EhcacheResult result) {
+    Counters[][] c = counters;
+    return cacheIndex < c.length ? c[cacheIndex][result.ordinal()].counts() : new long[0];
+  }
+
+  /**
+   * @return the total latency of the recorded operations for each batch size, indexed by batch size
+   */
+  public long[] getTotalLatenciesInNs(final int cacheIndex, final EhcacheResult result) {
+    Counters[][] c = counters;
+    return cacheIndex < c.length ? c[cacheIndex][result.ordinal()].latencies() : new long[0];
+  }
+
+  private static class Counters {
+    private volatile LongAdder[] counts = new LongAdder[0];
+    private volatile LongAdder[] latencies = new LongAdder[0];
+
+    void record(final int batchSize, final long latencyInNs) {
+      LongAdder[] c = counts;
+      LongAdder[] l = latencies;
+      if (batchSize >= c.length || batchSize >= l.length) {
+        grow(batchSize);
+        c = counts;
+        l = latencies;
+      }
+      c[batchSize].increment();
+      l[batchSize].add(latencyInNs);
+    }
+
+    private synchronized void grow(final int batchSize) {
+      if (batchSize < counts.length) {
+        return;
+      }
+      LongAdder[] newCounts = new LongAdder[batchSize + 1];
+      LongAdder[] newLatencies = new LongAdder[batchSize + 1];
+      System.arraycopy(counts, 0, newCounts, 0, counts.length);
+      System.arraycopy(latencies, 0, newLatencies, 0, latencies.length);
+      for (int i = counts.length; i < newCounts.length; i++) {
+        newCounts[i] = new LongAdder();
+        newLatencies[i] = new LongAdder();
+      }
+      latencies = newLatencies;
+      counts = newCounts;
+    }
+
+    long[] counts() {
+      return sum(counts);
+    }
+
+    long[] latencies() {
+      return sum(latencies);
+    }
+
+    private static long[] sum(final LongAdder[] adders) {
+      long[] sums = new long[adders.length];
+      for (int i = 0; i < adders.length; i++) {
+        sums[i] = adders[i].sum();
+      }
+      return sums;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.ehcache.generator.SizedValue;
+import jsr166e.LongAdder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Number of values and bytes written to and read from each cache, by cache index. Only byte[] and {@link SizedValue}
+ * values are counted, the bytes of a SizedValue are its serialized size.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ByteStatistics {
+
+  private final List<String> cacheNames;
+  private volatile Counters[] counters = new Counters[0];
+
+  /**
+   * @param cacheNames names of the cache indexes, may grow after the creation
+   */
+  public ByteStatistics(final List<String> cacheNames) {
+    this.cacheNames = cacheNames;
+  }
+
+  public void written(final int cacheIndex, final Object value) {
+    long size = sizeOf(value);
+    if (size >= 0) {
+      Counters c = counters(cacheIndex);
+      c.writtenValues.increment();
+      c.writtenBytes.add(size);
+    }
+  }
+
+  public void read(final int cacheIndex, final Object value) {
+    long size = sizeOf(value);
+    if (size >= 0) {
+      Counters c = counters(cacheIndex);
+      c.readValues.increment();
+      c.readBytes.add(size);
+    }
+  }
+
+  public void written(final int cacheIndex, final Map<?, ?> entries) {
+    for (Object value : entries.values()) {
+      written(cacheIndex, value);
+    }
+  }
+
+  public void read(final int cacheIndex, final Map<?, ?> entries) {
+    for (Object value : entries.values()) {
+      read(cacheIndex, value);
+    }
+  }
+
+  public List<String> getCacheNames() {
+    return cacheNames;
+  }
+
+  public long getWrittenValues(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].writtenValues.sum() : 0L;
+  }
+
+  public long getWrittenBytes(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].writtenBytes.sum() : 0L;
+  }
+
+  public long getReadValues(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].readValues.sum() : 0L;
+  }
+
+  public long getReadBytes(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].readBytes.sum() : 0L;
+  }
+
+  /**
+   * @return the size of a byte[] or of a {@link SizedValue}, -1 for other values
+   */
+  public static long sizeOf(final Object value) {
+    if (value instanceof byte[]) {
+      return ((byte[])value).length;
+    }
+    if (value instanceof SizedValue) {
+      return ((SizedValue)value).getSerializedSize();
+    }
+    return -1L;
+  }
+
+  private Counters counters(final int cacheIndex) {
+    Counters[] c = counters;
+    if (cacheIndex >= c.length) {
+      grow(cacheIndex);
+      c = counters;
+    }
+    return c[cacheIndex];
+  }
+
+  private synchronized void grow(final int cacheIndex) {
+    if (cacheIndex < counters.length) {
+      return;
+    }
+    Counters[] newCounters = new Counters[cacheIndex + 1];
+    System.arraycopy(counters, 0, newCounters, 0, counters.length);
+    for (int i = counters.length; i < newCounters.length; i++) {
+      newCounters[i] = new Counters();
+    }
+    counters = newCounters;
+  }
+
+  private static class Counters {
+    final LongAdder writtenValues = new LongAdder();
+    final LongAdder writtenBytes = new LongAdder();
+    final LongAdder readValues = new LongAdder();
+    final LongAdder readBytes = new LongAdder();
+  }
+}
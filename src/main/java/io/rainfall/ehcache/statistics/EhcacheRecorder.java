@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.statistics.StatisticsHolder;
+
+/**
+ * Records the result of each call to a cache, identified by its index in the CacheConfig.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class EhcacheRecorder {
+
+  public abstract void record(final StatisticsHolder statisticsHolder, final int cacheIndex, final long latencyInNs,
+                              final EhcacheResult result);
+}
@@ -1,8 +1,19 @@
 package io.rainfall.ehcache.statistics;
 
 /**
+ * Results of the Ehcache operations.
+ * <p/>
+ * The loading operations, e.g. cache-aside, record each invocation once : as {@link #LOAD_HIT} when the value was
+ * in the cache or {@link #LOAD_MISS} when it had to be loaded. The latency seen by the callers of the cache, over
+ * both, is computed by the reporters, see {@link io.rainfall.ehcache.reporting.LoadReporter}.
+ * <p/>
+ * The calls made to a system of record by the cache during an operation are recorded as {@link #LOADER} or
+ * {@link #WRITER}, with the time spent in the system of record only : their count is the load the cache didn't
+ * absorb.
+ *
  * @author Aurelien Broszniowski
  */
 public enum EhcacheResult {
   PUT, GET, MISS, REMOVE, REMOVEVALUE, EXCEPTION, PUTALL, GETALL, REMOVEALL, PUTIFABSENT, REPLACE, REPLACEVALUE,
+  LOAD_HIT, LOAD_MISS, LOADER, WRITER, EXPIRED_MISS, HEAP_HIT, OFFHEAP_HIT, DISK_HIT,
 }
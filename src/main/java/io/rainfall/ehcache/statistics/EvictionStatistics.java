@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import jsr166e.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+
+/**
+ * Evictions of each cache, by cache index, with the latencies of the puts that triggered them, and the hits and misses
+ * of the gets.
+ * <p/>
+ * A put evicts when {@link #evicting()} is called in its thread while it runs, i.e. between {@link #putting()} and
+ * {@link #put(int, long)} : Ehcache 2 notifies the evictions to its listeners in the putting thread, while Ehcache 3
+ * fires its listeners from its own event threads, so the evictions of its authoritative tier are observed instead,
+ * see {@link io.rainfall.ehcache3.tier.EvictionObserver}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class EvictionStatistics {
+
+  private final List<String> cacheNames;
+  private volatile Counters[] counters = new Counters[0];
+  private final ThreadLocal<boolean[]> evicting = new ThreadLocal<boolean[]>() {
+    @Override
+    protected boolean[] initialValue() {
+      return new boolean[1];
+    }
+  };
+
+  /**
+   * @param cacheNames names of the cache indexes, may grow after the creation
+   */
+  public EvictionStatistics(final List<String> cacheNames) {
+    this.cacheNames = cacheNames;
+  }
+
+  public void created(final int cacheIndex) {
+    counters(cacheIndex).created.increment();
+  }
+
+  public void evicted(final int cacheIndex) {
+    counters(cacheIndex).evicted.increment();
+  }
+
+  /**
+   * Marks the put running in the current thread as evicting
+   */
+  public void evicting() {
+    evicting.get()[0] = true;
+  }
+
+  /**
+   * Counts an entry removed from the cache, other than by eviction, e.g. by a remove or an expiry
+   */
+  public void removed(final int cacheIndex) {
+    counters(cacheIndex).removed.increment();
+  }
+
+  /**
+   * Starts a put in the current thread, before the call to the cache
+   */
+  public void putting() {
+    evicting.get()[0] = false;
+  }
+
+  /**
+   * Records a put of the current thread, as evicting when {@link #evicting()} was called since {@link #putting()}
+   */
+  public void put(final int cacheIndex, final long latencyInNs) {
+    boolean[] flag = evicting.get();
+    if (flag[0]) {
+      flag[0] = false;
+      counters(cacheIndex).evictingPuts.recordValue(latencyInNs);
+    } else {
+      counters(cacheIndex).puts.recordValue(latencyInNs);
+    }
+  }
+
+  public void hit(final int cacheIndex) {
+    counters(cacheIndex).hits.increment();
+  }
+
+  public void miss(final int cacheIndex) {
+    counters(cacheIndex).misses.increment();
+  }
+
+  public List<String> getCacheNames() {
+    return cacheNames;
+  }
+
+  public long getCreated(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].created.sum() : 0L;
+  }
+
+  public long getEvicted(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].evicted.sum() : 0L;
+  }
+
+  public long getRemoved(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].removed.sum() : 0L;
+  }
+
+  /**
+   * @return the number of entries in the cache, as seen by the events
+   */
+  public long getMappings(final int cacheIndex) {
+    return getCreated(cacheIndex) - getEvicted(cacheIndex) - getRemoved(cacheIndex);
+  }
+
+  public long getHits(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].hits.sum() : 0L;
+  }
+
+  public long getMisses(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].misses.sum() : 0L;
+  }
+
+  /**
+   * @param evicting true for the latencies of the puts that triggered an eviction, false for the others
+   * @return the latencies of the puts recorded since the previous call
+   */
+  public Histogram getIntervalPutLatencies(final int cacheIndex, final boolean evicting) {
+    Counters c = counters(cacheIndex);
+    return evicting ? c.evictingPuts.getIntervalHistogram() : c.puts.getIntervalHistogram();
+  }
+
+  private Counters counters(final int cacheIndex) {
+    Counters[] c = counters;
+    if (cacheIndex >= c.length) {
+      grow(cacheIndex);
+      c = counters;
+    }
+    return c[cacheIndex];
+  }
+
+  private synchronized void grow(final int cacheIndex) {
+    if (cacheIndex < counters.length) {
+      return;
+    }
+    Counters[] newCounters = new Counters[cacheIndex + 1];
+    System.arraycopy(counters, 0, newCounters, 0, counters.length);
+    for (int i = counters.length; i < newCounters.length; i++) {
+      newCounters[i] = new Counters();
+    }
+    counters = newCounters;
+  }
+
+  private static class Counters {
+    final LongAdder created = new LongAdder();
+    final LongAdder evicted = new LongAdder();
+    final LongAdder removed = new LongAdder();
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final Recorder puts = new Recorder(3);
+    final Recorder evictingPuts = new Recorder(3);
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import jsr166e.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Expirations of each cache, by cache index, with the latencies of the gets that hit, that missed an absent key and
+ * that missed an expired one.
+ * <p/>
+ * The expirations are notified by cache event listeners, which both Ehcache 2 and Ehcache 3 deliver before the
+ * operation that found the expired entry returns : the keys expired, and not created again since, are kept so that a
+ * get missing one of them is counted as an {@link EhcacheResult#EXPIRED_MISS} instead of a {@link EhcacheResult#MISS}.
+ * <p/>
+ * Only the last maxExpiredKeys expirations of each cache are kept : a get missing a key that expired before them is
+ * counted as a {@link EhcacheResult#MISS}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ExpiryStatistics {
+
+  public static final int DEFAULT_MAX_EXPIRED_KEYS = 100000;
+
+  private final List<String> cacheNames;
+  private final int maxExpiredKeys;
+  private volatile Counters[] counters = new Counters[0];
+
+  /**
+   * @param cacheNames names of the cache indexes, may grow after the creation
+   */
+  public ExpiryStatistics(final List<String> cacheNames) {
+    this(cacheNames, DEFAULT_MAX_EXPIRED_KEYS);
+  }
+
+  /**
+   * @param cacheNames names of the cache indexes, may grow after the creation
+   * @param maxExpiredKeys number of expired keys kept for each cache
+   */
+  public ExpiryStatistics(final List<String> cacheNames, final int maxExpiredKeys) {
+    if (maxExpiredKeys < 1) {
+      throw new IllegalArgumentException("At least one expired key must be kept.");
+    }
+    this.cacheNames = cacheNames;
+    this.maxExpiredKeys = maxExpiredKeys;
+  }
+
+  public void created(final int cacheIndex, final Object key) {
+    counters(cacheIndex).expiredKeys.remove(key);
+  }
+
+  public void expired(final int cacheIndex, final Object key) {
+    counters(cacheIndex).expired.increment();
+    counters(cacheIndex).expiredKeys.add(key);
+  }
+
+  public void removed(final int cacheIndex, final Object key) {
+    counters(cacheIndex).expiredKeys.remove(key);
+  }
+
+  /**
+   * @return true when the last mapping of the key expired, among the last expirations kept, false when the key was
+   * never mapped or was removed
+   */
+  public boolean isExpired(final int cacheIndex, final Object key) {
+    return counters(cacheIndex).expiredKeys.contains(key);
+  }
+
+  /**
+   * @param result {@link EhcacheResult#GET}, {@link EhcacheResult#MISS} or {@link EhcacheResult#EXPIRED_MISS}
+   */
+  public void get(final int cacheIndex, final long latencyInNs, final EhcacheResult result) {
+    recorder(cacheIndex, result).recordValue(latencyInNs);
+  }
+
+  public List<String> getCacheNames() {
+    return cacheNames;
+  }
+
+  public long getExpired(final int cacheIndex) {
+    return cacheIndex < counters.length ? counters[cacheIndex].expired.sum() : 0L;
+  }
+
+  /**
+   * @param result {@link EhcacheResult#GET}, {@link EhcacheResult#MISS} or {@link EhcacheResult#EXPIRED_MISS}
+   * @return the latencies of the gets with that result recorded since the previous call
+   */
+  public Histogram getIntervalGetLatencies(final int cacheIndex, final EhcacheResult result) {
+    return recorder(cacheIndex, result).getIntervalHistogram();
+  }
+
+  private Recorder recorder(final int cacheIndex, final EhcacheResult result) {
+    switch (result) {
+      case GET:
+        return counters(cacheIndex).hits;
+      case MISS:
+        return counters(cacheIndex).misses;
+      case EXPIRED_MISS:
+        return counters(cacheIndex).expiredMisses;
+      default:
+        throw new IllegalArgumentException("Not a get result : " + result);
+    }
+  }
+
+  private Counters counters(final int cacheIndex) {
+    Counters[] c = counters;
+    if (cacheIndex >= c.length) {
+      grow(cacheIndex);
+      c = counters;
+    }
+    return c[cacheIndex];
+  }
+
+  private synchronized void grow(final int cacheIndex) {
+    if (cacheIndex < counters.length) {
+      return;
+    }
+    Counters[] newCounters = new Counters[cacheIndex + 1];
+    System.arraycopy(counters, 0, newCounters, 0, counters.length);
+    for (int i = counters.length; i < newCounters.length; i++) {
+      newCounters[i] = new Counters(maxExpiredKeys);
+    }
+    counters = newCounters;
+  }
+
+  private static class Counters {
+    final LongAdder expired = new LongAdder();
+    final ExpiredKeys expiredKeys;
+    final Recorder hits = new Recorder(3);
+    final Recorder misses = new Recorder(3);
+    final Recorder expiredMisses = new Recorder(3);
+
+    Counters(final int maxExpiredKeys) {
+      this.expiredKeys = new ExpiredKeys(maxExpiredKeys);
+    }
+  }
+
+  /**
+   * Keys expired, in the order of their expirations : the oldest expirations are dropped past the maximum. A key
+   * expiring again is kept as of its last expiration.
+   */
+  static class ExpiredKeys {
+    private final int max;
+    private final ConcurrentHashMap<Object, Long> keys = new ConcurrentHashMap<Object, Long>();
+    private final Queue<Expiration> expirations = new ConcurrentLinkedQueue<Expiration>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    ExpiredKeys(final int max) {
+      this.max = max;
+    }
+
+    void add(final Object key) {
+      Long expiration = sequence.incrementAndGet();
+      keys.put(key, expiration);
+      expirations.add(new Expiration(key, expiration));
+      // the created and removed keys leave their expirations in the queue, they age out with the others
+      if (size.incrementAndGet() > max) {
+        Expiration oldest = expirations.poll();
+        if (oldest != null) {
+          size.decrementAndGet();
+          keys.remove(oldest.key, oldest.sequence);
+        }
+      }
+    }
+
+    void remove(final Object key) {
+      keys.remove(key);
+    }
+
+    boolean contains(final Object key) {
+      return keys.containsKey(key);
+    }
+
+    int size() {
+      return keys.size();
+    }
+  }
+
+  private static class Expiration {
+    final Object key;
+    final Long sequence;
+
+    Expiration(final Object key, final Long sequence) {
+      this.key = key;
+      this.sequence = sequence;
+    }
+  }
+}
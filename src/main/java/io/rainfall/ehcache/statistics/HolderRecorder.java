@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.util.List;
+
+/**
+ * Records in the Rainfall {@link StatisticsHolder}, under the name of the cache.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class HolderRecorder extends EhcacheRecorder {
+
+  private final List<String> cacheNames;
+
+  public HolderRecorder(final List<String> cacheNames) {
+    this.cacheNames = cacheNames;
+  }
+
+  @Override
+  public void record(final StatisticsHolder statisticsHolder, final int cacheIndex, final long latencyInNs,
+                     final EhcacheResult result) {
+    statisticsHolder.record(cacheNames.get(cacheIndex), latencyInNs, result);
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.statistics.StatisticsHolder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records in per thread counters, so that the threads never write to a shared location.
+ * <p/>
+ * Each thread owns a stripe of primitive counters and latency accumulators, indexed by cache index and
+ * {@link EhcacheResult#ordinal()}, and a latency histogram per cache and result. The stripes are only merged when a
+ * {@link Snapshot} is taken, at reporting time.
+ * The Rainfall {@link StatisticsHolder} is not used, results are reported with
+ * {@link io.rainfall.ehcache.reporting.StripedStatisticsReporter}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class StripedRecorder extends EhcacheRecorder {
+
+  private static final int NB_RESULTS = EhcacheResult.values().length;
+  // keeps the counters of two threads on distinct cache lines
+  private static final int PADDING = 16;
+  // 0.1% precision, the range of the histograms grows with the recorded values
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final List<String> cacheNames;
+  private final List<Stripe> stripes = new CopyOnWriteArrayList<Stripe>();
+  // only used under the lock of the snapshot
+  private Histogram[] cumulativeHistograms = new Histogram[0];
+  private final ThreadLocal<Stripe> stripe = new ThreadLocal<Stripe>() {
+    @Override
+    protected Stripe initialValue() {
+      Stripe newStripe = new Stripe(cacheNames.size() * NB_RESULTS);
+      stripes.add(newStripe);
+      return newStripe;
+    }
+  };
+
+  /**
+   * @param cacheNames names of the cache indexes, may grow after the creation
+   */
+  public StripedRecorder(final List<String> cacheNames) {
+    this.cacheNames = Collections.unmodifiableList(cacheNames);
+  }
+
+  @Override
+  public void record(final StatisticsHolder statisticsHolder, final int cacheIndex, final long latencyInNs,
+                     final EhcacheResult result) {
+    Stripe current = stripe.get();
+    int counter = cacheIndex * NB_RESULTS + result.ordinal();
+    Counters counters = current.counters;
+    if (counter >= counters.nbCounters) {
+      counters = current.grow((cacheIndex + 1) * NB_RESULTS);
+    }
+    int index = PADDING + counter;
+    // single writer per stripe : lazySet publishes without the cost of a volatile write or a CAS
+    counters.counts.lazySet(index, counters.counts.get(index) + 1);
+    counters.latencies.lazySet(index, counters.latencies.get(index) + latencyInNs);
+
+    SingleWriterRecorder histogram = counters.histograms.get(counter);
+    if (histogram == null) {
+      histogram = new SingleWriterRecorder(SIGNIFICANT_DIGITS);
+      counters.histograms.set(counter, histogram);
+    }
+    histogram.recordValue(Math.max(0L, latencyInNs));
+  }
+
+  public List<String> getCacheNames() {
+    return cacheNames;
+  }
+
+  /**
+   * @return the sum of the stripes of all the threads that recorded so far
+   */
+  public synchronized Snapshot snapshot() {
+    int nbCounters = cacheNames.size() * NB_RESULTS;
+    if (cumulativeHistograms.length < nbCounters) {
+      cumulativeHistograms = Arrays.copyOf(cumulativeHistograms, nbCounters);
+    }
+    long[] counts = new long[nbCounters];
+    long[] latencies = new long[nbCounters];
+    for (Stripe each : stripes) {
+      Counters counters = each.counters;
+      if (each.intervalHistograms.length < counters.nbCounters) {
+        each.intervalHistograms = Arrays.copyOf(each.intervalHistograms, counters.nbCounters);
+      }
+      for (int i = 0; i < Math.min(nbCounters, counters.nbCounters); i++) {
+        counts[i] += counters.counts.get(PADDING + i);
+        latencies[i] += counters.latencies.get(PADDING + i);
+        SingleWriterRecorder histogram = counters.histograms.get(i);
+        if (histogram != null) {
+          // the interval histogram is handed back to the recorder at the next snapshot
+          each.intervalHistograms[i] = histogram.getIntervalHistogram(each.intervalHistograms[i]);
+          if (cumulativeHistograms[i] == null) {
+            cumulativeHistograms[i] = new Histogram(SIGNIFICANT_DIGITS);
+          }
+          cumulativeHistograms[i].add(each.intervalHistograms[i]);
+        }
+      }
+    }
+    Histogram[] histograms = new Histogram[nbCounters];
+    for (int i = 0; i < nbCounters; i++) {
+      if (cumulativeHistograms[i] != null) {
+        histograms[i] = cumulativeHistograms[i].copy();
+      }
+    }
+    return new Snapshot(System.nanoTime(), counts, latencies, histograms);
+  }
+
+  private static class Stripe {
+    volatile Counters counters;
+    // only used under the lock of the snapshot
+    Histogram[] intervalHistograms;
+
+    Stripe(final int nbCounters) {
+      this.counters = new Counters(nbCounters);
+      this.intervalHistograms = new Histogram[nbCounters];
+    }
+
+    /**
+     * Called by the thread of the stripe only, when a cache was added after its creation
+     */
+    Counters grow(final int nbCounters) {
+      Counters old = counters;
+      Counters grown = new Counters(nbCounters);
+      for (int i = 0; i < old.nbCounters; i++) {
+        grown.counts.set(PADDING + i, old.counts.get(PADDING + i));
+        grown.latencies.set(PADDING + i, old.latencies.get(PADDING + i));
+        grown.histograms.set(i, old.histograms.get(i));
+      }
+      counters = grown;
+      return grown;
+    }
+  }
+
+  private static class Counters {
+    final int nbCounters;
+    final AtomicLongArray counts;
+    final AtomicLongArray latencies;
+    final AtomicReferenceArray<SingleWriterRecorder> histograms;
+
+    Counters(final int nbCounters) {
+      this.nbCounters = nbCounters;
+      this.counts = new AtomicLongArray(nbCounters + 2 * PADDING);
+      this.latencies = new AtomicLongArray(nbCounters + 2 * PADDING);
+      this.histograms = new AtomicReferenceArray<SingleWriterRecorder>(nbCounters);
+    }
+  }
+
+  /**
+   * Counters summed over all the threads, of the caches known when it was taken
+   */
+  public static class Snapshot {
+    private final long timestampInNs;
+    private final long[] counts;
+    private final long[] latencies;
+    private final Histogram[] histograms;
+
+    Snapshot(final long timestampInNs, final long[] counts, final long[] latencies, final Histogram[] histograms) {
+      this.timestampInNs = timestampInNs;
+      this.counts = counts;
+      this.latencies = latencies;
+      this.histograms = histograms;
+    }
+
+    public long getTimestampInNs() {
+      return timestampInNs;
+    }
+
+    public long getCount(final int cacheIndex, final EhcacheResult result) {
+      int i = cacheIndex * NB_RESULTS + result.ordinal();
+      return i < counts.length ? counts[i] : 0L;
+    }
+
+    public long getTotalLatencyInNs(final int cacheIndex, final EhcacheResult result) {
+      int i = cacheIndex * NB_RESULTS + result.ordinal();
+      return i < latencies.length ? latencies[i] : 0L;
+    }
+
+    /**
+     * @return the latency histogram in ns, null when nothing was recorded
+     */
+    public Histogram getHistogram(final int cacheIndex, final EhcacheResult result) {
+      int i = cacheIndex * NB_RESULTS + result.ordinal();
+      return i < histograms.length ? histograms[i] : null;
+    }
+
+    /**
+     * @return the counters recorded between the previous snapshot and this one
+     */
+    public Snapshot minus(final Snapshot previous) {
+      long[] countsDelta = new long[counts.length];
+      long[] latenciesDelta = new long[latencies.length];
+      Histogram[] histogramsDelta = new Histogram[histograms.length];
+      for (int i = 0; i < counts.length; i++) {
+        boolean known = i < previous.counts.length;
+        countsDelta[i] = counts[i] - (known ? previous.counts[i] : 0L);
+        latenciesDelta[i] = latencies[i] - (known ? previous.latencies[i] : 0L);
+        if (histograms[i] != null) {
+          histogramsDelta[i] = histograms[i].copy();
+          if (known && previous.histograms[i] != null) {
+            histogramsDelta[i].subtract(previous.histograms[i]);
+          }
+        }
+      }
+      return new Snapshot(timestampInNs, countsDelta, latenciesDelta, histogramsDelta);
+    }
+  }
+}
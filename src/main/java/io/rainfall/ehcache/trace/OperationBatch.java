@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import java.util.Arrays;
+
+/**
+ * Sequence numbers and value sizes of the keys of the last batch built by a thread, for the {@link OperationLog}.
+ * Not thread safe.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class OperationBatch {
+
+  private long[] sequences = new long[16];
+  private int[] valueSizes = new int[16];
+  private int size = 0;
+
+  public void clear() {
+    size = 0;
+  }
+
+  public void add(final long sequence, final int valueSize) {
+    if (size == sequences.length) {
+      sequences = Arrays.copyOf(sequences, size * 2);
+      valueSizes = Arrays.copyOf(valueSizes, size * 2);
+    }
+    sequences[size] = sequence;
+    valueSizes[size] = valueSize;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long getSequence(final int index) {
+    return sequences[index];
+  }
+
+  public int getValueSize(final int index) {
+    return valueSizes[index];
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Writes the operations issued by a run to a trace file (see {@link TraceFormat}), so that the same stream of keys
+ * can be replayed exactly against another cache configuration.
+ * <p/>
+ * Each thread fills its own buffer, which is appended to a file of the thread when full : the records of a thread
+ * are in timestamp order in its file. {@link #close()} must be called once the run is over, it merges the files of
+ * the threads by timestamp into the trace file.
+ *
+ * @author Aurelien Broszniowski
+ * @see io.rainfall.ehcache.execution.AbstractReplay
+ */
+public class OperationLog {
+
+  // about 64KB of records per thread
+  private static final int BUFFER_RECORDS = 2730;
+
+  private final File logFile;
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final long startInNs = System.nanoTime();
+  private final List<ThreadLog> threadLogs = new ArrayList<ThreadLog>();
+  private final ThreadLocal<ThreadLog> logs = new ThreadLocal<ThreadLog>() {
+    @Override
+    protected ThreadLog initialValue() {
+      synchronized (OperationLog.this) {
+        ThreadLog threadLog = new ThreadLog(new File(logFile.getPath() + "." + threadLogs.size()));
+        threadLogs.add(threadLog);
+        return threadLog;
+      }
+    }
+  };
+  private volatile List<String> cacheNames = Collections.emptyList();
+  private long nbRecords = 0L;
+
+  private OperationLog(final File logFile) throws IOException {
+    this.logFile = logFile;
+    this.file = new RandomAccessFile(logFile, "rw");
+    this.file.setLength(0L);
+    this.channel = file.getChannel();
+    this.channel.position(TraceFormat.HEADER_SIZE);
+  }
+
+  public static OperationLog operationLog(final File logFile) throws IOException {
+    return new OperationLog(logFile);
+  }
+
+  /**
+   * @param cacheNames names of the cache indexes of the records, read when the log is closed
+   */
+  public void setCacheNames(final List<String> cacheNames) {
+    this.cacheNames = cacheNames;
+  }
+
+  /**
+   * Records an operation on one key
+   *
+   * @param sequence sequence number the key and the value were generated from
+   * @param valueSize size of the value, see {@link #sizeOf(Object)}
+   */
+  public void record(final TraceOperation operation, final int cacheIndex, final long sequence, final int valueSize)
+      throws TestException {
+    checkCacheIndex(cacheIndex);
+    ThreadLog threadLog = logs.get();
+    ByteBuffer buffer = threadLog.reserve(1);
+    put(buffer, System.nanoTime() - startInNs, sequence, valueSize, cacheIndex, operation, 0);
+  }
+
+  /**
+   * Records a bulk operation as consecutive records, one per key of the batch
+   */
+  public void record(final TraceOperation operation, final int cacheIndex, final OperationBatch batch)
+      throws TestException {
+    int size = batch.size();
+    if (size == 0) {
+      return;
+    }
+    checkCacheIndex(cacheIndex);
+    ThreadLog threadLog = logs.get();
+    long timestampInNs = System.nanoTime() - startInNs;
+    boolean fits = size <= BUFFER_RECORDS;
+    if (!fits) {
+      // the earlier records of the thread go first, its file stays in timestamp order
+      threadLog.write(threadLog.buffer);
+    }
+    ByteBuffer buffer = fits ? threadLog.reserve(size) : ByteBuffer.allocateDirect(size * TraceFormat.RECORD_SIZE);
+    for (int i = 0; i < size; i++) {
+      put(buffer, timestampInNs, batch.getSequence(i), batch.getValueSize(i), cacheIndex, operation,
+          i == 0 ? 0 : TraceFormat.BATCH_CONTINUATION);
+    }
+    if (!fits) {
+      threadLog.write(buffer);
+    }
+  }
+
+  /**
+   * @return the size of a byte[] or {@link io.rainfall.ehcache.generator.SizedValue} value, 0 for other values
+   */
+  public static int sizeOf(final Object value) {
+    return (int)Math.max(0L, ByteStatistics.sizeOf(value));
+  }
+
+  /**
+   * Writes the buffers of all the threads, merges their files, then writes the cache names and the header.
+   */
+  public synchronized void close() throws IOException {
+    try {
+      for (ThreadLog threadLog : threadLogs) {
+        threadLog.write(threadLog.buffer);
+      }
+      merge();
+      long footerOffset = TraceFormat.HEADER_SIZE + nbRecords * TraceFormat.RECORD_SIZE;
+      file.seek(footerOffset);
+      TraceFormat.writeCacheNames(file, cacheNames);
+      file.seek(0L);
+      TraceFormat.writeHeader(file, nbRecords, footerOffset);
+    } catch (TestException e) {
+      throw new IOException(e.getMessage(), e.getCause());
+    } finally {
+      file.close();
+      for (ThreadLog threadLog : threadLogs) {
+        threadLog.delete();
+      }
+    }
+  }
+
+  /**
+   * @return the number of records of the trace file, once the log is closed
+   */
+  public synchronized long getNbRecords() {
+    return nbRecords;
+  }
+
+  private void merge() throws IOException {
+    PriorityQueue<Run> runs = new PriorityQueue<Run>();
+    for (int i = 0; i < threadLogs.size(); i++) {
+      FileChannel threadChannel = threadLogs.get(i).channel;
+      if (threadChannel != null) {
+        threadChannel.position(0L);
+        Run run = new Run(i, threadChannel);
+        if (run.next()) {
+          runs.add(run);
+        }
+      }
+    }
+    ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_RECORDS * TraceFormat.RECORD_SIZE);
+    while (!runs.isEmpty()) {
+      Run run = runs.poll();
+      // the keys of a batch stay together after the first one
+      boolean hasNext;
+      do {
+        if (!output.hasRemaining()) {
+          drain(output);
+        }
+        run.copyTo(output);
+        nbRecords++;
+        hasNext = run.next();
+      } while (hasNext && run.isBatchContinuation());
+      if (hasNext) {
+        runs.add(run);
+      }
+    }
+    drain(output);
+  }
+
+  private void drain(final ByteBuffer output) throws IOException {
+    output.flip();
+    while (output.hasRemaining()) {
+      channel.write(output);
+    }
+    output.clear();
+  }
+
+  private static void checkCacheIndex(final int cacheIndex) {
+    if (cacheIndex < 0 || cacheIndex > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Cache index " + cacheIndex + " does not fit in a trace record.");
+    }
+  }
+
+  private static void put(final ByteBuffer buffer, final long timestampInNs, final long sequence, final int valueSize,
+                          final int cacheIndex, final TraceOperation operation, final int flags) {
+    buffer.putLong(timestampInNs);
+    buffer.putLong(sequence);
+    buffer.putInt(valueSize);
+    buffer.putShort((short)cacheIndex);
+    buffer.put((byte)operation.ordinal());
+    buffer.put((byte)flags);
+  }
+
+  /**
+   * Buffer and file of the records of one thread
+   */
+  private static class ThreadLog {
+
+    private final File threadFile;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * TraceFormat.RECORD_SIZE);
+    private RandomAccessFile file = null;
+    private FileChannel channel = null;
+
+    ThreadLog(final File threadFile) {
+      this.threadFile = threadFile;
+    }
+
+    ByteBuffer reserve(final int nbRecords) throws TestException {
+      if (buffer.remaining() < nbRecords * TraceFormat.RECORD_SIZE) {
+        write(buffer);
+      }
+      return buffer;
+    }
+
+    void write(final ByteBuffer records) throws TestException {
+      records.flip();
+      try {
+        if (channel == null) {
+          file = new RandomAccessFile(threadFile, "rw");
+          file.setLength(0L);
+          channel = file.getChannel();
+        }
+        while (records.hasRemaining()) {
+          channel.write(records);
+        }
+      } catch (IOException e) {
+        throw new TestException("Can not write the operation log " + threadFile, e);
+      } finally {
+        records.clear();
+      }
+    }
+
+    void delete() {
+      if (file != null) {
+        try {
+          file.close();
+        } catch (IOException e) {
+          // deleted anyway
+        }
+        threadFile.delete();
+      }
+    }
+  }
+
+  /**
+   * Reads the records of a thread file in turn, ordered by the timestamp of their current record
+   */
+  private static class Run implements Comparable<Run> {
+
+    private final int threadNb;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * TraceFormat.RECORD_SIZE);
+    private boolean started = false;
+    private long timestampInNs;
+
+    Run(final int threadNb, final FileChannel channel) {
+      this.threadNb = threadNb;
+      this.channel = channel;
+      this.buffer.limit(0);
+    }
+
+    /**
+     * @return false when there are no more records
+     */
+    boolean next() throws IOException {
+      if (started) {
+        buffer.position(buffer.position() + TraceFormat.RECORD_SIZE);
+      }
+      started = true;
+      if (buffer.remaining() < TraceFormat.RECORD_SIZE) {
+        buffer.compact();
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+          // fill the buffer
+        }
+        buffer.flip();
+        if (buffer.remaining() < TraceFormat.RECORD_SIZE) {
+          return false;
+        }
+      }
+      timestampInNs = buffer.getLong(buffer.position() + TraceFormat.TIMESTAMP_OFFSET);
+      return true;
+    }
+
+    boolean isBatchContinuation() {
+      return (buffer.get(buffer.position() + TraceFormat.FLAGS_OFFSET) & TraceFormat.BATCH_CONTINUATION) != 0;
+    }
+
+    void copyTo(final ByteBuffer output) {
+      int position = buffer.position();
+      for (int i = 0; i < TraceFormat.RECORD_SIZE; i++) {
+        output.put(buffer.get(position + i));
+      }
+    }
+
+    @Override
+    public int compareTo(final Run other) {
+      if (timestampInNs != other.timestampInNs) {
+        return timestampInNs < other.timestampInNs ? -1 : 1;
+      }
+      return threadNb < other.threadNb ? -1 : (threadNb == other.threadNb ? 0 : 1);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.ehcache.generator.BatchSizeDistribution;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Record of the trace being replayed by the current thread, seen by the operations through {@link #keys()},
+ * {@link #values()} and the cache selection of the CacheConfig.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ReplayCursor {
+
+  private final ThreadLocal<Record> current = new ThreadLocal<Record>() {
+    @Override
+    protected Record initialValue() {
+      return new Record();
+    }
+  };
+  private final SequenceGenerator keys = new SequenceGenerator() {
+    @Override
+    public long next() {
+      return current.get().nextKeyId();
+    }
+  };
+  private final ObjectGenerator<byte[]> values = new ObjectGenerator<byte[]>() {
+    @Override
+    public byte[] generate(final Long seed) {
+      return new byte[current.get().valueSize()];
+    }
+  };
+  private final BatchSizeDistribution batchSizes = new BatchSizeDistribution() {
+    @Override
+    public int next() {
+      return current.get().size;
+    }
+
+    @Override
+    public int getMaxSize() {
+      return Integer.MAX_VALUE;
+    }
+  };
+  private volatile int[][] cacheIndexesByTraceIndex = new int[0][];
+
+  /**
+   * Resolves the cache names of the trace against the caches of the CacheConfig. A trace cache name that is not
+   * configured may be the index of a configured cache.
+   */
+  public void mapCaches(final List<String> traceCacheNames, final List<String> configuredCacheNames) {
+    int[][] indexes = new int[traceCacheNames.size()][];
+    for (int i = 0; i < indexes.length; i++) {
+      String traceCacheName = traceCacheNames.get(i);
+      int cacheIndex = configuredCacheNames.indexOf(traceCacheName);
+      if (cacheIndex < 0) {
+        try {
+          cacheIndex = Integer.parseInt(traceCacheName);
+        } catch (NumberFormatException e) {
+          cacheIndex = -1;
+        }
+      }
+      if (cacheIndex < 0 || cacheIndex >= configuredCacheNames.size()) {
+        throw new IllegalStateException("Cache " + traceCacheName + " of the trace is not configured.");
+      }
+      indexes[i] = new int[] { cacheIndex };
+    }
+    this.cacheIndexesByTraceIndex = indexes;
+  }
+
+  void set(final long keyId, final int valueSize, final int traceCacheIndex) {
+    Record record = current.get();
+    record.size = 0;
+    record.add(keyId, valueSize);
+    record.cacheIndexes = cacheIndexesByTraceIndex[traceCacheIndex];
+  }
+
+  /**
+   * Adds a key to the batch of the current record
+   */
+  void add(final long keyId, final int valueSize) {
+    current.get().add(keyId, valueSize);
+  }
+
+  /**
+   * @return the key ids of the records, to be set on the operations with atRandom. The keys of a bulk record are
+   * returned in turn.
+   */
+  public SequenceGenerator keys() {
+    return keys;
+  }
+
+  /**
+   * @return byte arrays of the value sizes of the records
+   */
+  public ObjectGenerator<byte[]> values() {
+    return values;
+  }
+
+  /**
+   * @return the number of keys of the current record, to be used as the batch size of the bulk operations
+   */
+  public BatchSizeDistribution batchSizes() {
+    return batchSizes;
+  }
+
+  /**
+   * @return a singleton holding the index of the cache of the current record
+   */
+  public int[] cacheIndexes() {
+    return current.get().cacheIndexes;
+  }
+
+  private static class Record {
+    long[] keyIds = new long[1];
+    int[] valueSizes = new int[1];
+    // key 0 until a record is loaded
+    int size = 1;
+    int position;
+    int[] cacheIndexes;
+
+    void add(final long keyId, final int valueSize) {
+      if (size == keyIds.length) {
+        keyIds = Arrays.copyOf(keyIds, size * 2);
+        valueSizes = Arrays.copyOf(valueSizes, size * 2);
+      }
+      keyIds[size] = keyId;
+      valueSizes[size] = valueSize;
+      size++;
+      position = -1;
+    }
+
+    long nextKeyId() {
+      position = (position + 1) % size;
+      return keyIds[position];
+    }
+
+    // size of the value of the last key returned
+    int valueSize() {
+      return valueSizes[Math.max(position, 0)];
+    }
+  }
+}
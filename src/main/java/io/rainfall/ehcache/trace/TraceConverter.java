@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts a CSV access log into a binary trace file, one line at a time, so that traces larger than the heap can
+ * be converted.
+ * <p/>
+ * Each line is : timestamp in ms (may be empty, may have decimals), operation ({@link TraceOperation} name), cache
+ * name, key id, value size. Keys that are not numbers are hashed into a key id. Empty lines, lines starting with #
+ * and a first line starting with "timestamp" are skipped.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceConverter {
+
+  private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 1099511628211L;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage : TraceConverter <input.csv> <output.trace>");
+      System.exit(1);
+    }
+    long nbRecords = convert(new File(args[0]), new File(args[1]));
+    System.out.println(nbRecords + " records written to " + args[1]);
+  }
+
+  /**
+   * @return the number of records written
+   */
+  public static long convert(final File csvFile, final File traceFile) throws IOException {
+    List<String> cacheNames = new ArrayList<String>();
+    Map<String, Integer> cacheIndexes = new HashMap<String, Integer>();
+    long nbRecords = 0;
+    long firstTimestampInNs = TraceFormat.NO_TIMESTAMP;
+
+    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(csvFile), "UTF-8"), 1 << 20);
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(traceFile), 1 << 20));
+    try {
+      TraceFormat.writeHeader(output, 0L, 0L);
+      String line;
+      long lineNb = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNb++;
+        line = line.trim();
+        if (line.length() == 0 || line.startsWith("#") || (lineNb == 1 && line.startsWith("timestamp"))) {
+          continue;
+        }
+        String[] fields = line.split(",", -1);
+        if (fields.length != 5) {
+          throw new IllegalArgumentException("Line " + lineNb + " should have 5 fields : " + line);
+        }
+        try {
+          long timestampInNs = TraceFormat.NO_TIMESTAMP;
+          if (fields[0].trim().length() > 0) {
+            long absoluteInNs = Math.round(Double.parseDouble(fields[0].trim()) * 1000000d);
+            if (firstTimestampInNs == TraceFormat.NO_TIMESTAMP) {
+              firstTimestampInNs = absoluteInNs;
+            }
+            timestampInNs = Math.max(0L, absoluteInNs - firstTimestampInNs);
+          }
+          TraceOperation operation = TraceOperation.valueOf(fields[1].trim().toUpperCase(Locale.ENGLISH));
+          String cacheName = fields[2].trim();
+          Integer cacheIndex = cacheIndexes.get(cacheName);
+          if (cacheIndex == null) {
+            if (cacheNames.size() > Short.MAX_VALUE) {
+              throw new IllegalArgumentException("Too many caches in the trace.");
+            }
+            cacheIndex = cacheNames.size();
+            cacheIndexes.put(cacheName, cacheIndex);
+            cacheNames.add(cacheName);
+          }
+          int valueSize = fields[4].trim().length() == 0 ? 0 : Integer.parseInt(fields[4].trim());
+
+          output.writeLong(timestampInNs);
+          output.writeLong(keyId(fields[3].trim()));
+          output.writeInt(valueSize);
+          output.writeShort(cacheIndex);
+          output.writeByte(operation.ordinal());
+          output.writeByte(0);
+          nbRecords++;
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Line " + lineNb + " is not a valid trace record : " + line, e);
+        }
+      }
+      TraceFormat.writeCacheNames(output, cacheNames);
+    } finally {
+      reader.close();
+      output.close();
+    }
+
+    RandomAccessFile file = new RandomAccessFile(traceFile, "rw");
+    try {
+      TraceFormat.writeHeader(file, nbRecords, TraceFormat.HEADER_SIZE + nbRecords * TraceFormat.RECORD_SIZE);
+    } finally {
+      file.close();
+    }
+    return nbRecords;
+  }
+
+  static long keyId(final String key) {
+    try {
+      return Long.parseLong(key);
+    } catch (NumberFormatException e) {
+      long hash = FNV_OFFSET_BASIS;
+      for (int i = 0; i < key.length(); i++) {
+        hash ^= key.charAt(i);
+        hash *= FNV_PRIME;
+      }
+      return hash;
+    }
+  }
+}
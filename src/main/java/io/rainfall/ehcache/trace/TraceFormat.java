@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary trace file layout. All the values are big endian.
+ * <pre>
+ * header  : int magic, int version, long number of records, long offset of the footer, 8 reserved bytes
+ * records : long timestamp in ns from the first record (-1 when unknown), long key id, int value size,
+ *           short cache index, byte {@link TraceOperation} ordinal, byte flags
+ * footer  : int number of caches, then the name of each cache index, written with {@link DataOutput#writeUTF}
+ * </pre>
+ * The records have a fixed size, so that the n-th record can be read directly from a memory-mapped file.
+ * The keys of a bulk operation are consecutive records : the first one has the operation, the next ones are
+ * flagged with {@link #BATCH_CONTINUATION}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceFormat {
+
+  public static final int MAGIC = 0x52465452; // RFTR
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 32;
+  public static final int RECORD_SIZE = 24;
+  public static final long NO_TIMESTAMP = -1L;
+  public static final int BATCH_CONTINUATION = 1;
+
+  static final int TIMESTAMP_OFFSET = 0;
+  static final int KEY_OFFSET = 8;
+  static final int VALUE_SIZE_OFFSET = 16;
+  static final int CACHE_OFFSET = 20;
+  static final int OPERATION_OFFSET = 22;
+  static final int FLAGS_OFFSET = 23;
+
+  private final long nbRecords;
+  private final List<String> cacheNames;
+
+  TraceFormat(final long nbRecords, final List<String> cacheNames) {
+    this.nbRecords = nbRecords;
+    this.cacheNames = cacheNames;
+  }
+
+  public long getNbRecords() {
+    return nbRecords;
+  }
+
+  /**
+   * @return the name of each cache index used in the records
+   */
+  public List<String> getCacheNames() {
+    return cacheNames;
+  }
+
+  public static TraceFormat read(final File traceFile) throws IOException {
+    RandomAccessFile file = new RandomAccessFile(traceFile, "r");
+    try {
+      if (file.readInt() != MAGIC) {
+        throw new IOException(traceFile + " is not a trace file.");
+      }
+      int version = file.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported trace version " + version + " in " + traceFile);
+      }
+      long nbRecords = file.readLong();
+      long footerOffset = file.readLong();
+      file.seek(footerOffset);
+      return new TraceFormat(nbRecords, readCacheNames(file));
+    } finally {
+      file.close();
+    }
+  }
+
+  static void writeHeader(final DataOutput output, final long nbRecords, final long footerOffset) throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeLong(nbRecords);
+    output.writeLong(footerOffset);
+    output.writeLong(0L);
+  }
+
+  static void writeCacheNames(final DataOutput output, final List<String> cacheNames) throws IOException {
+    output.writeInt(cacheNames.size());
+    for (String cacheName : cacheNames) {
+      output.writeUTF(cacheName);
+    }
+  }
+
+  private static List<String> readCacheNames(final DataInput input) throws IOException {
+    int nbCaches = input.readInt();
+    List<String> cacheNames = new ArrayList<String>(nbCaches);
+    for (int i = 0; i < nbCaches; i++) {
+      cacheNames.add(input.readUTF());
+    }
+    return cacheNames;
+  }
+}
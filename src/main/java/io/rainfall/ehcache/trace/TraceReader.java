@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the records of a trace file through memory-mapped windows. Not thread safe, each thread uses its own.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceReader {
+
+  // 48MB of records per mapped window
+  private static final long WINDOW_RECORDS = 1 << 21;
+
+  private final FileChannel channel;
+  private final long nbRecords;
+  private MappedByteBuffer buffer;
+  private long mappedWindow = -1;
+  private int offset;
+
+  public TraceReader(final FileChannel channel, final long nbRecords) {
+    this.channel = channel;
+    this.nbRecords = nbRecords;
+  }
+
+  /**
+   * Moves to a record, mapping its window of the file if needed
+   */
+  public void seek(final long record) throws IOException {
+    long window = record / WINDOW_RECORDS;
+    long firstOfWindow = window * WINDOW_RECORDS;
+    if (window != mappedWindow) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+          TraceFormat.HEADER_SIZE + firstOfWindow * TraceFormat.RECORD_SIZE,
+          Math.min(WINDOW_RECORDS, nbRecords - firstOfWindow) * TraceFormat.RECORD_SIZE);
+      mappedWindow = window;
+    }
+    offset = (int)((record - firstOfWindow) * TraceFormat.RECORD_SIZE);
+  }
+
+  public long getTimestampInNs() {
+    return buffer.getLong(offset + TraceFormat.TIMESTAMP_OFFSET);
+  }
+
+  public long getKeyId() {
+    return buffer.getLong(offset + TraceFormat.KEY_OFFSET);
+  }
+
+  public int getValueSize() {
+    return buffer.getInt(offset + TraceFormat.VALUE_SIZE_OFFSET);
+  }
+
+  public int getCacheIndex() {
+    return buffer.getShort(offset + TraceFormat.CACHE_OFFSET);
+  }
+
+  public int getOperationOrdinal() {
+    return buffer.get(offset + TraceFormat.OPERATION_OFFSET) & 0xFF;
+  }
+
+  /**
+   * @return true when the record is one of the keys of the bulk record preceding it
+   */
+  public boolean isBatchContinuation() {
+    return (buffer.get(offset + TraceFormat.FLAGS_OFFSET) & TraceFormat.BATCH_CONTINUATION) != 0;
+  }
+
+  /**
+   * Makes the current record, with the keys of its batch if any, the one seen by the operations executed by this
+   * thread. The reader may be left on a following record.
+   *
+   * @param record index of the current record
+   */
+  public void loadInto(final ReplayCursor cursor, final long record) throws IOException {
+    cursor.set(getKeyId(), getValueSize(), getCacheIndex());
+    for (long next = record + 1; next < nbRecords; next++) {
+      seek(next);
+      if (!isBatchContinuation()) {
+        break;
+      }
+      cursor.add(getKeyId(), getValueSize());
+    }
+  }
+}
@@ -17,11 +17,24 @@
 package io.rainfall.ehcache2;
 
 import io.rainfall.Configuration;
+import io.rainfall.ehcache.concurrency.DedicatedThreads;
+import io.rainfall.ehcache.selection.WeightedCaches;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.ehcache.statistics.ExpiryStatistics;
+import io.rainfall.ehcache.statistics.HolderRecorder;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.ReplayCursor;
 import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.event.CacheEventListenerAdapter;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Aurelien Broszniowski
@@ -30,18 +43,322 @@ import java.util.List;
 public class CacheConfig<K, V> extends Configuration {
 
   private List<Ehcache> caches = new ArrayList<Ehcache>();
+  private List<String> cacheNames = new ArrayList<String>();
+  private int[] allCacheIndexes = new int[0];
+  private DedicatedThreads<int[]> dedicatedThreads = null;
+  private WeightedCaches<int[]> weightedCaches = null;
+  private volatile ReplayCursor replayCursor = null;
+  private EhcacheRecorder recorder = new HolderRecorder(cacheNames);
+  private OperationLog operationLog = null;
+  private final ByteStatistics byteStatistics = new ByteStatistics(cacheNames);
+  private EvictionStatistics evictionStatistics = null;
+  private ExpiryStatistics expiryStatistics = null;
 
   public static <K, V> CacheConfig<K, V> cacheConfig() {
     return new CacheConfig<K, V>();
   }
 
+  /**
+   * Ehcache 2 reads the wall clock and expires with a one second precision, so the expiry can't be time compressed as
+   * with Ehcache 3 : the time to live must be scaled down instead.
+   *
+   * @return the configuration of a cache whose entries expire a fixed time after they were created or updated
+   */
+  public static CacheConfiguration timeToLiveCache(final String name, final int maxEntriesLocalHeap,
+                                                   final long amount, final TimeUnit unit) {
+    return new CacheConfiguration().name(name).maxEntriesLocalHeap(maxEntriesLocalHeap)
+        .timeToLiveSeconds(inSeconds(amount, unit));
+  }
+
+  /**
+   * @return the configuration of a cache whose entries expire a fixed time after they were last accessed
+   * @see #timeToLiveCache(String, int, long, TimeUnit)
+   */
+  public static CacheConfiguration timeToIdleCache(final String name, final int maxEntriesLocalHeap,
+                                                   final long amount, final TimeUnit unit) {
+    return new CacheConfiguration().name(name).maxEntriesLocalHeap(maxEntriesLocalHeap)
+        .timeToIdleSeconds(inSeconds(amount, unit));
+  }
+
+  private static long inSeconds(final long amount, final TimeUnit unit) {
+    long seconds = unit.toSeconds(amount);
+    // 0 means eternal to Ehcache 2
+    if (seconds < 1) {
+      throw new IllegalArgumentException("Ehcache 2 can't expire entries in less than a second.");
+    }
+    return seconds;
+  }
+
   public CacheConfig<K, V> caches(final Ehcache... caches) {
-    Collections.addAll(this.caches, caches);
+    for (Ehcache cache : caches) {
+      this.caches.add(cache);
+      this.cacheNames.add(cache.getName());
+      watchCache(this.caches.size() - 1);
+    }
+    this.allCacheIndexes = new int[this.caches.size()];
+    for (int i = 0; i < allCacheIndexes.length; i++) {
+      allCacheIndexes[i] = i;
+    }
     return this;
   }
 
+  /**
+   * Hooks the statistics enabled so far on a cache added
+   */
+  private void watchCache(final int cacheIndex) {
+    if (evictionStatistics != null) {
+      watchEvictions(cacheIndex);
+    }
+    if (expiryStatistics != null) {
+      watchExpiries(cacheIndex);
+    }
+  }
+
+  private void watchEvictions(final int cacheIndex) {
+    caches.get(cacheIndex).getCacheEventNotificationService()
+        .registerListener(new EvictionListener(cacheIndex, evictionStatistics));
+  }
+
+  private void watchExpiries(final int cacheIndex) {
+    caches.get(cacheIndex).getCacheEventNotificationService()
+        .registerListener(new ExpiryListener(cacheIndex, expiryStatistics));
+  }
+
   public List<Ehcache> getCaches() {
     return caches;
   }
 
+  /**
+   * Gives each cache its own worker threads : every thread then only operates on one cache, instead of calling
+   * all the caches one after the other. Must be called once all the caches are added.
+   * <p/>
+   * The threads are spread over the caches in round robin, so the number of threads of the
+   * {@link io.rainfall.configuration.ConcurrencyConfig} should be a multiple of the number of caches. The
+   * sequence generators are still shared by all the threads, so with a sequential generator each cache only
+   * sees a part of the keys.
+   */
+  public CacheConfig<K, V> dedicatedThreadsPerCache() {
+    if (weightedCaches != null) {
+      throw new IllegalStateException("Caches are already picked by weight.");
+    }
+    this.dedicatedThreads = new DedicatedThreads<int[]>(singleCacheIndexes());
+    return this;
+  }
+
+  /**
+   * Makes each invocation of an operation work on one cache only, picked at random with a probability
+   * proportional to its weight, instead of working on all the caches.
+   *
+   * @param weights one weight per cache, in the order the caches were added
+   */
+  public CacheConfig<K, V> weights(final double... weights) {
+    if (dedicatedThreads != null) {
+      throw new IllegalStateException("Caches already have dedicated threads.");
+    }
+    this.weightedCaches = new WeightedCaches<int[]>(singleCacheIndexes(), weights);
+    return this;
+  }
+
+  private List<int[]> singleCacheIndexes() {
+    List<int[]> indexes = new ArrayList<int[]>();
+    for (int i = 0; i < caches.size(); i++) {
+      indexes.add(new int[] { i });
+    }
+    return indexes;
+  }
+
+  /**
+   * Records the results in per thread counters instead of the Rainfall statistics holder, so that the recording
+   * doesn't contend between threads.
+   *
+   * @see io.rainfall.ehcache.reporting.StripedStatisticsReporter
+   */
+  public CacheConfig<K, V> stripedStatistics() {
+    this.recorder = new StripedRecorder(cacheNames);
+    return this;
+  }
+
+  /**
+   * Counts the evictions of the caches with cache event listeners, and splits the latencies of the puts between the
+   * puts that triggered an eviction and the others : Ehcache 2 notifies the evictions in the putting thread.
+   *
+   * @see io.rainfall.ehcache.reporting.EvictionReporter
+   */
+  public CacheConfig<K, V> evictionStatistics() {
+    if (evictionStatistics != null) {
+      throw new IllegalStateException("Eviction statistics already enabled.");
+    }
+    this.evictionStatistics = new EvictionStatistics(cacheNames);
+    for (int i = 0; i < caches.size(); i++) {
+      watchEvictions(i);
+    }
+    return this;
+  }
+
+  /**
+   * @return the evictions of each cache, null when they are not counted
+   */
+  public EvictionStatistics getEvictionStatistics() {
+    return evictionStatistics;
+  }
+
+  /**
+   * Counts the expirations of the caches with cache event listeners, so that the gets tell the misses on expired
+   * entries from the misses on absent ones. The last
+   * {@link ExpiryStatistics#DEFAULT_MAX_EXPIRED_KEYS} expired keys of each cache are kept.
+   *
+   * @see io.rainfall.ehcache.reporting.ExpiryReporter
+   */
+  public CacheConfig<K, V> expiryStatistics() {
+    return expiryStatistics(ExpiryStatistics.DEFAULT_MAX_EXPIRED_KEYS);
+  }
+
+  /**
+   * @param maxExpiredKeys number of expired keys kept for each cache, a get missing a key expired before them is
+   * counted as a MISS
+   * @see #expiryStatistics()
+   */
+  public CacheConfig<K, V> expiryStatistics(final int maxExpiredKeys) {
+    if (expiryStatistics != null) {
+      throw new IllegalStateException("Expiry statistics already enabled.");
+    }
+    this.expiryStatistics = new ExpiryStatistics(cacheNames, maxExpiredKeys);
+    for (int i = 0; i < caches.size(); i++) {
+      watchExpiries(i);
+    }
+    return this;
+  }
+
+  /**
+   * @return the expirations of each cache, null when they are not counted
+   */
+  public ExpiryStatistics getExpiryStatistics() {
+    return expiryStatistics;
+  }
+
+  /**
+   * Makes each invocation work on the cache of the trace record being replayed.
+   *
+   * @param traceCacheNames names of the caches of the trace, resolved against the names of the configured caches
+   * @see io.rainfall.ehcache.execution.AbstractReplay
+   */
+  public void followReplay(final ReplayCursor replayCursor, final List<String> traceCacheNames) {
+    replayCursor.mapCaches(traceCacheNames, cacheNames);
+    this.replayCursor = replayCursor;
+  }
+
+  public void stopFollowingReplay() {
+    this.replayCursor = null;
+  }
+
+  /**
+   * Writes the operations issued on the caches to a log, which can be replayed to run the same stream of keys
+   * against another configuration. The log must be closed once the run is over.
+   *
+   * @see io.rainfall.ehcache.execution.AbstractReplay
+   */
+  public CacheConfig<K, V> recordOperations(final OperationLog operationLog) {
+    operationLog.setCacheNames(cacheNames);
+    this.operationLog = operationLog;
+    return this;
+  }
+
+  /**
+   * @return the log of the operations, null when they are not recorded
+   */
+  public OperationLog getOperationLog() {
+    return operationLog;
+  }
+
+  /**
+   * @return the indexes of the caches the current invocation of an operation works on
+   */
+  public int[] nextCacheIndexes() {
+    ReplayCursor cursor = replayCursor;
+    if (cursor != null) {
+      return cursor.cacheIndexes();
+    }
+    if (weightedCaches != null) {
+      return weightedCaches.next();
+    }
+    if (dedicatedThreads != null) {
+      return dedicatedThreads.getCacheForCurrentThread();
+    }
+    return allCacheIndexes;
+  }
+
+  public Ehcache getCache(final int cacheIndex) {
+    return caches.get(cacheIndex);
+  }
+
+  public String getCacheName(final int cacheIndex) {
+    return cacheNames.get(cacheIndex);
+  }
+
+  public EhcacheRecorder getRecorder() {
+    return recorder;
+  }
+
+  /**
+   * @return the bytes of the byte[] values written to and read from each cache
+   */
+  public ByteStatistics getByteStatistics() {
+    return byteStatistics;
+  }
+
+  private static class EvictionListener extends CacheEventListenerAdapter {
+    private final int cacheIndex;
+    private final EvictionStatistics evictionStatistics;
+
+    EvictionListener(final int cacheIndex, final EvictionStatistics evictionStatistics) {
+      this.cacheIndex = cacheIndex;
+      this.evictionStatistics = evictionStatistics;
+    }
+
+    @Override
+    public void notifyElementPut(final Ehcache cache, final Element element) {
+      evictionStatistics.created(cacheIndex);
+    }
+
+    @Override
+    public void notifyElementEvicted(final Ehcache cache, final Element element) {
+      evictionStatistics.evicted(cacheIndex);
+      evictionStatistics.evicting();
+    }
+
+    @Override
+    public void notifyElementRemoved(final Ehcache cache, final Element element) {
+      evictionStatistics.removed(cacheIndex);
+    }
+
+    @Override
+    public void notifyElementExpired(final Ehcache cache, final Element element) {
+      evictionStatistics.removed(cacheIndex);
+    }
+  }
+
+  private static class ExpiryListener extends CacheEventListenerAdapter {
+    private final int cacheIndex;
+    private final ExpiryStatistics expiryStatistics;
+
+    ExpiryListener(final int cacheIndex, final ExpiryStatistics expiryStatistics) {
+      this.cacheIndex = cacheIndex;
+      this.expiryStatistics = expiryStatistics;
+    }
+
+    @Override
+    public void notifyElementPut(final Ehcache cache, final Element element) {
+      expiryStatistics.created(cacheIndex, element.getObjectKey());
+    }
+
+    @Override
+    public void notifyElementExpired(final Ehcache cache, final Element element) {
+      expiryStatistics.expired(cacheIndex, element.getObjectKey());
+    }
+
+    @Override
+    public void notifyElementRemoved(final Ehcache cache, final Element element) {
+      expiryStatistics.removed(cacheIndex, element.getObjectKey());
+    }
+  }
 }
@@ -16,6 +16,8 @@
 
 package io.rainfall.ehcache2;
 
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache2.operation.CacheAsideOperation;
 import io.rainfall.ehcache2.operation.GetOperation;
 import io.rainfall.ehcache2.operation.PutOperation;
 import io.rainfall.ehcache2.operation.RemoveOperation;
@@ -39,4 +41,11 @@ public class Ehcache2Operations {
     return new RemoveOperation<K, V>();
   }
 
+  /**
+   * @param systemOfRecord system of record the missing values are loaded from
+   */
+  public static <K, V> CacheAsideOperation<K, V> cacheAside(SystemOfRecord<K, V> systemOfRecord) {
+    return new CacheAsideOperation<K, V>(systemOfRecord);
+  }
+
 }
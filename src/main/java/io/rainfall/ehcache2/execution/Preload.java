@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.execution.AbstractPreload;
+import io.rainfall.ehcache2.CacheConfig;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the caches of the {@link CacheConfig} with putAll.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Preload extends AbstractPreload<Object, Object> {
+
+  private List<Ehcache> caches;
+
+  public Preload(final long nbElements) {
+    super(nbElements);
+  }
+
+  public static Preload preload(final long nbElements) {
+    return new Preload(nbElements);
+  }
+
+  @Override
+  protected int startLoading(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheConfig cacheConfig = (CacheConfig)configurations.get(CacheConfig.class);
+    this.caches = cacheConfig.getCaches();
+    return caches.size();
+  }
+
+  @Override
+  protected void loadChunk(final long from, final long to) {
+    int size = (int)(to - from);
+    Object[] keys = new Object[size];
+    Object[] values = new Object[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = generateKey(from + i);
+      values[i] = generateValue(from + i);
+    }
+    for (Ehcache cache : caches) {
+      // Elements hold per cache state, they can't be shared between caches
+      List<Element> elements = new ArrayList<Element>(size);
+      for (int i = 0; i < size; i++) {
+        elements.add(new Element(keys[i], values[i]));
+      }
+      cache.putAll(elements);
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.execution.AbstractReplay;
+import io.rainfall.ehcache.trace.ReplayCursor;
+import io.rainfall.ehcache2.CacheConfig;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a trace file against the caches of the {@link CacheConfig}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Replay extends AbstractReplay {
+
+  public Replay(final File traceFile) {
+    super(traceFile);
+  }
+
+  public static Replay replay(final File traceFile) {
+    return new Replay(traceFile);
+  }
+
+  @Override
+  protected void startReplay(final Map<Class<? extends Configuration>, Configuration> configurations,
+                             final ReplayCursor cursor, final List<String> traceCacheNames) {
+    ((CacheConfig)configurations.get(CacheConfig.class)).followReplay(cursor, traceCacheNames);
+  }
+
+  @Override
+  protected void stopReplay(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    ((CacheConfig)configurations.get(CacheConfig.class)).stopFollowingReplay();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.EhcacheOperation;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
+import io.rainfall.ehcache2.CacheConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_MISS;
+
+/**
+ * Execute and measure a cache-aside : gets a key, and on a miss loads its value from the system of record and puts
+ * it in the cache.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CacheAsideOperation<K, V> extends EhcacheOperation<K, V> {
+
+  private final SystemOfRecord<K, V> systemOfRecord;
+
+  public CacheAsideOperation(final SystemOfRecord<K, V> systemOfRecord) {
+    this.systemOfRecord = systemOfRecord;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
+    final long next = this.sequenceGenerator.next();
+    final K key = generateKey(next);
+    final V generated = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Ehcache cache = cacheConfig.getCache(cacheIndex);
+      Element element;
+      Object value;
+      // a single record : the replay of a cache-aside loads and puts again on a miss
+      log(operationLog, TraceOperation.GET, cacheIndex, next, null);
+      long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
+      try {
+        element = cache.get(key);
+        if (element == null) {
+          value = systemOfRecord.load(key, generated);
+          cache.put(new Element(key, value));
+        } else {
+          value = element.getObjectValue();
+        }
+        long end = getTimeInNs();
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, element != null ? LOAD_HIT : LOAD_MISS);
+      } catch (Exception e) {
+        long end = getTimeInNs();
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
+        continue;
+      }
+      if (element != null) {
+        byteStatistics.read(cacheIndex, value);
+      } else {
+        byteStatistics.written(cacheIndex, value);
+      }
+    }
+  }
+}
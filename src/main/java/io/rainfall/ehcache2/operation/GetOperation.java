@@ -20,6 +20,13 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.ehcache.statistics.ExpiryStatistics;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache2.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
@@ -29,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXPIRED_MISS;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 
@@ -44,22 +52,46 @@ public class GetOperation<K, V> extends EhcacheOperation {
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
     final long next = this.sequenceGenerator.next();
-    List<Ehcache> caches = cacheConfig.getCaches();
-    for (final Ehcache cache : caches) {
+    final Object key = generateKey(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    EvictionStatistics evictionStatistics = cacheConfig.getEvictionStatistics();
+    ExpiryStatistics expiryStatistics = cacheConfig.getExpiryStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Ehcache cache = cacheConfig.getCache(cacheIndex);
       Element value;
+      log(operationLog, TraceOperation.GET, cacheIndex, next, null);
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
-        value = cache.get(keyGenerator.generate(next));
+        value = cache.get(key);
         long end = getTimeInNs();
         if (value == null) {
-          statisticsHolder.record(cache.getName(), (end - start), MISS);
+          EhcacheResult result = expiryStatistics != null && expiryStatistics.isExpired(cacheIndex, key)
+              ? EXPIRED_MISS : MISS;
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, result);
+          if (evictionStatistics != null) {
+            evictionStatistics.miss(cacheIndex);
+          }
+          if (expiryStatistics != null) {
+            expiryStatistics.get(cacheIndex, (end - start) + delay, result);
+          }
         } else {
-          statisticsHolder.record(cache.getName(), (end - start), GET);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, GET);
+          if (evictionStatistics != null) {
+            evictionStatistics.hit(cacheIndex);
+          }
+          if (expiryStatistics != null) {
+            expiryStatistics.get(cacheIndex, (end - start) + delay, GET);
+          }
+          byteStatistics.read(cacheIndex, value.getObjectValue());
         }
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cache.getName(), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
       }
     }
   }
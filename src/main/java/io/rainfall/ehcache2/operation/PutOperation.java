@@ -20,6 +20,11 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache2.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
@@ -43,17 +48,35 @@ public class PutOperation<K, V> extends EhcacheOperation {
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
     final long next = this.sequenceGenerator.next();
-    List<Ehcache> caches = cacheConfig.getCaches();
-    for (final Ehcache cache : caches) {
+    final Object key = generateKey(next);
+    final Object value = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    EvictionStatistics evictionStatistics = cacheConfig.getEvictionStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Ehcache cache = cacheConfig.getCache(cacheIndex);
+      // an Element holds per-cache state (hits, timestamps), it can't be shared between caches
+      Element element = new Element(key, value);
+      log(operationLog, TraceOperation.PUT, cacheIndex, next, value);
+      if (evictionStatistics != null) {
+        evictionStatistics.putting();
+      }
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
-        cache.put(new Element(keyGenerator.generate(next), valueGenerator.generate(next)));
+        cache.put(element);
         long end = getTimeInNs();
-        statisticsHolder.record(cache.getName(), (end - start), PUT);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, PUT);
+        if (evictionStatistics != null) {
+          evictionStatistics.put(cacheIndex, (end - start) + delay);
+        }
+        byteStatistics.written(cacheIndex, value);
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cache.getName(), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
       }
     }
   }
@@ -20,6 +20,9 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache2.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
@@ -43,22 +46,28 @@ public class RemoveOperation<K, V> extends EhcacheOperation {
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
     final long next = this.sequenceGenerator.next();
-    List<Ehcache> caches = cacheConfig.getCaches();
-    for (final Ehcache cache : caches) {
+    final Object key = generateKey(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Ehcache cache = cacheConfig.getCache(cacheIndex);
       boolean removed;
+      log(operationLog, TraceOperation.REMOVE, cacheIndex, next, null);
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
-        removed = cache.remove(keyGenerator.generate(next));
+        removed = cache.remove(key);
         long end = getTimeInNs();
         if (removed) {
-          statisticsHolder.record(cache.getName(), (end - start), REMOVE);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, REMOVE);
         } else {
-          statisticsHolder.record(cache.getName(), (end - start), MISS);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, MISS);
         }
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cache.getName(), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
       }
     }
   }
@@ -17,12 +17,42 @@
 package io.rainfall.ehcache3;
 
 import io.rainfall.Configuration;
+import io.rainfall.ehcache.concurrency.DedicatedThreads;
+import io.rainfall.ehcache.generator.BatchSizeDistribution;
+import io.rainfall.ehcache.selection.WeightedCaches;
+import io.rainfall.ehcache.statistics.BatchStatistics;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.ehcache.statistics.ExpiryStatistics;
+import io.rainfall.ehcache.statistics.HolderRecorder;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.ReplayCursor;
+import io.rainfall.ehcache3.tier.EvictionObserver;
+import io.rainfall.ehcache3.tier.TierProbe;
+import io.rainfall.ehcache3.tier.Tiers;
 import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.CacheManagerBuilder;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.CacheConfigurationBuilder;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.persistence.CacheManagerPersistenceConfiguration;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
+import org.ehcache.expiry.Duration;
+import org.ehcache.expiry.Expirations;
+import org.ehcache.expiry.Expiry;
 
+import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Aurelien Broszniowski
@@ -31,11 +61,65 @@ import java.util.Map;
 public class CacheConfig<K, V> extends Configuration {
 
   private List<Cache<K, V>> caches = new ArrayList<Cache<K, V>>();
-  private Map<Cache<K, V>, String> cacheNames = new HashMap<Cache<K, V>, String>();
-  private int bulkBatchSize = 10;     // Default nb of objects used for bulk operations
+  private List<String> cacheNames = new ArrayList<String>();
+  // tiers of the caches built by this configuration, null for the others
+  private final List<Tiers> cacheTiers = new ArrayList<Tiers>();
+  private int[] allCacheIndexes = new int[0];
+  private DedicatedThreads<int[]> dedicatedThreads = null;
+  private WeightedCaches<int[]> weightedCaches = null;
+  private volatile ReplayCursor replayCursor = null;
+  private EhcacheRecorder recorder = new HolderRecorder(cacheNames);
+  private OperationLog operationLog = null;
+  private final ByteStatistics byteStatistics = new ByteStatistics(cacheNames);
+  private BatchSizeDistribution bulkBatchSize = BatchSizeDistribution.fixed(10);     // Default nb of objects used for bulk operations
+  private final BatchStatistics batchStatistics = new BatchStatistics(cacheNames);
+  private EvictionStatistics evictionStatistics = null;
+  private ExpiryStatistics expiryStatistics = null;
+  private List<TierProbe> tierProbes = null;
+  private final Class<K> keyClass;
+  private final Class<V> valueClass;
+  private File directory = null;
+  private CacheManager cacheManager = null;
+
+  private CacheConfig(final Class<K> keyClass, final Class<V> valueClass) {
+    this.keyClass = keyClass;
+    this.valueClass = valueClass;
+  }
 
   public static <K, V> CacheConfig<K, V> cacheConfig(Class<K> keyClass, final Class<V> valueClass) {
-    return new CacheConfig<K, V>();
+    return new CacheConfig<K, V>(keyClass, valueClass);
+  }
+
+  /**
+   * @return the configuration of a cache whose entries expire a fixed time after they were created or updated
+   * @see io.rainfall.ehcache3.expiry.CompressedTimeSource
+   */
+  public static <K, V> CacheConfiguration<K, V> timeToLiveCache(final Class<K> keyClass, final Class<V> valueClass,
+                                                                final ResourcePools resourcePools,
+                                                                final long amount, final TimeUnit unit) {
+    return expiringCache(keyClass, valueClass, resourcePools,
+        Expirations.<K, V>timeToLiveExpiration(new Duration(amount, unit)));
+  }
+
+  /**
+   * @return the configuration of a cache whose entries expire a fixed time after they were last accessed
+   * @see io.rainfall.ehcache3.expiry.CompressedTimeSource
+   */
+  public static <K, V> CacheConfiguration<K, V> timeToIdleCache(final Class<K> keyClass, final Class<V> valueClass,
+                                                                final ResourcePools resourcePools,
+                                                                final long amount, final TimeUnit unit) {
+    return expiringCache(keyClass, valueClass, resourcePools,
+        Expirations.<K, V>timeToIdleExpiration(new Duration(amount, unit)));
+  }
+
+  private static <K, V> CacheConfiguration<K, V> expiringCache(final Class<K> keyClass, final Class<V> valueClass,
+                                                               final ResourcePools resourcePools,
+                                                               final Expiry<K, V> expiry) {
+    if (resourcePools == null) {
+      throw new IllegalArgumentException("Resource pools must be defined.");
+    }
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    return builder.withResourcePools(resourcePools).<K, V>withExpiry(expiry).buildConfig(keyClass, valueClass);
   }
 
   public List<Cache<K, V>> getCaches() {
@@ -43,38 +127,442 @@ public class CacheConfig<K, V> extends Configuration {
   }
 
   public CacheConfig<K, V> cache(final String cacheName, final Cache<K, V> cache) {
-    this.caches.add(cache);
-    this.cacheNames.put(cache, cacheName);
+    addCache(cacheName, cache, null);
+    return this;
+  }
+
+  /**
+   * Builds a cache from the specification of its tiers, in a cache manager owned by this configuration, which
+   * {@link #close()} closes.
+   */
+  public CacheConfig<K, V> cache(final String cacheName, final Tiers tiers) {
+    if (tiers.hasDisk() && directory == null) {
+      throw new IllegalStateException("The directory of the disk tiers must be set first.");
+    }
+    if (cacheManager == null) {
+      openCacheManager();
+    }
+    addCache(cacheName, createCache(cacheName, tiers), tiers);
     return this;
   }
 
+  private void openCacheManager() {
+    cacheManager = directory == null ? CacheManagerBuilder.newCacheManagerBuilder().build(true)
+        : CacheManagerBuilder.newCacheManagerBuilder()
+        .with(new CacheManagerPersistenceConfiguration(directory)).build(true);
+  }
+
+  private Cache<K, V> createCache(final String cacheName, final Tiers tiers) {
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    return cacheManager.createCache(cacheName,
+        builder.withResourcePools(tiers.toResourcePools()).buildConfig(keyClass, valueClass));
+  }
+
+  /**
+   * @param directory where the caches built from {@link Tiers} keep their disk tiers
+   */
+  public CacheConfig<K, V> directory(final File directory) {
+    if (cacheManager != null) {
+      throw new IllegalStateException("Caches are already built.");
+    }
+    this.directory = directory;
+    return this;
+  }
+
+  /**
+   * Closes the cache manager of the caches built from {@link Tiers}, if any.
+   */
+  public void close() {
+    if (cacheManager != null) {
+      cacheManager.close();
+      cacheManager = null;
+    }
+  }
+
+  /**
+   * Opens again the cache manager closed by {@link #close()} and builds its caches again, at the same cache indexes :
+   * the caches with a persistent disk tier recover their entries. The statistics enabled on the caches follow them.
+   */
+  public void reopen() {
+    if (cacheManager != null) {
+      throw new IllegalStateException("The cache manager must be closed first.");
+    }
+    if (caches.isEmpty() || cacheTiers.contains(null)) {
+      throw new IllegalStateException("Only the caches built from Tiers can be reopened.");
+    }
+    openCacheManager();
+    for (int i = 0; i < caches.size(); i++) {
+      caches.set(i, createCache(cacheNames.get(i), cacheTiers.get(i)));
+      watchCache(i);
+    }
+  }
+
+  /**
+   * @return the tiers of the cache, null when it wasn't built by this configuration
+   */
+  public Tiers getTiers(final int cacheIndex) {
+    return cacheTiers.get(cacheIndex);
+  }
+
   public CacheConfig<K, V> caches(final List<Cache<K, V>> caches) {
     for (Cache<K, V> cache : caches) {
-      this.caches.add(cache);
-      this.cacheNames.put(cache, cache.toString());
+      addCache(cache.toString(), cache, null);
     }
     return this;
   }
 
   public CacheConfig<K, V> caches(final Cache<K, V>... caches) throws ClassCastException {
     for (Cache<K, V> cache : caches) {
-      this.caches.add(cache);
-      this.cacheNames.put(cache, cache.toString());
+      addCache(cache.toString(), cache, null);
     }
     return this;
   }
 
-  public Configuration bulkBatchSize(final int bulkBatchSize) {
+  private void addCache(final String cacheName, final Cache<K, V> cache, final Tiers tiers) {
+    this.caches.add(cache);
+    this.cacheNames.add(cacheName);
+    this.cacheTiers.add(tiers);
+    this.allCacheIndexes = new int[caches.size()];
+    for (int i = 0; i < allCacheIndexes.length; i++) {
+      allCacheIndexes[i] = i;
+    }
+    watchCache(caches.size() - 1);
+  }
+
+  /**
+   * Hooks the statistics enabled so far on a cache added, or built again by {@link #reopen()}
+   */
+  private void watchCache(final int cacheIndex) {
+    if (evictionStatistics != null) {
+      watchEvictions(cacheIndex);
+    }
+    if (expiryStatistics != null) {
+      watchExpiries(cacheIndex);
+    }
+    if (tierProbes != null) {
+      watchTiers(cacheIndex);
+    }
+  }
+
+  private void watchEvictions(final int cacheIndex) {
+    Cache<K, V> cache = caches.get(cacheIndex);
+    cache.getRuntimeConfiguration().registerCacheEventListener(
+        new EvictionListener(cacheIndex, evictionStatistics), EventOrdering.UNORDERED, EventFiring.SYNCHRONOUS,
+        EnumSet.of(EventType.CREATED, EventType.EVICTED, EventType.REMOVED, EventType.EXPIRED));
+    EvictionObserver.observe(cache, evictionStatistics);
+  }
+
+  private void watchExpiries(final int cacheIndex) {
+    caches.get(cacheIndex).getRuntimeConfiguration().registerCacheEventListener(
+        new ExpiryListener(cacheIndex, expiryStatistics), EventOrdering.UNORDERED, EventFiring.SYNCHRONOUS,
+        EnumSet.of(EventType.CREATED, EventType.EXPIRED, EventType.REMOVED));
+  }
+
+  private void watchTiers(final int cacheIndex) {
+    TierProbe tierProbe = TierProbe.tierProbe(caches.get(cacheIndex));
+    if (cacheIndex < tierProbes.size()) {
+      tierProbes.set(cacheIndex, tierProbe);
+    } else {
+      tierProbes.add(tierProbe);
+    }
+  }
+
+  /**
+   * Gives each cache its own worker threads : every thread then only operates on one cache, instead of calling
+   * all the caches one after the other. Must be called once all the caches are added.
+   * <p/>
+   * The threads are spread over the caches in round robin, so the number of threads of the
+   * {@link io.rainfall.configuration.ConcurrencyConfig} should be a multiple of the number of caches. The
+   * sequence generators are still shared by all the threads, so with a sequential generator each cache only
+   * sees a part of the keys.
+   */
+  public CacheConfig<K, V> dedicatedThreadsPerCache() {
+    if (weightedCaches != null) {
+      throw new IllegalStateException("Caches are already picked by weight.");
+    }
+    this.dedicatedThreads = new DedicatedThreads<int[]>(singleCacheIndexes());
+    return this;
+  }
+
+  /**
+   * Makes each invocation of an operation work on one cache only, picked at random with a probability
+   * proportional to its weight, instead of working on all the caches.
+   *
+   * @param weights one weight per cache, in the order the caches were added
+   */
+  public CacheConfig<K, V> weights(final double... weights) {
+    if (dedicatedThreads != null) {
+      throw new IllegalStateException("Caches already have dedicated threads.");
+    }
+    this.weightedCaches = new WeightedCaches<int[]>(singleCacheIndexes(), weights);
+    return this;
+  }
+
+  private List<int[]> singleCacheIndexes() {
+    List<int[]> indexes = new ArrayList<int[]>();
+    for (int i = 0; i < caches.size(); i++) {
+      indexes.add(new int[] { i });
+    }
+    return indexes;
+  }
+
+  /**
+   * Records the results in per thread counters instead of the Rainfall statistics holder, so that the recording
+   * doesn't contend between threads.
+   *
+   * @see io.rainfall.ehcache.reporting.StripedStatisticsReporter
+   */
+  public CacheConfig<K, V> stripedStatistics() {
+    this.recorder = new StripedRecorder(cacheNames);
+    return this;
+  }
+
+  /**
+   * Counts the evictions of the caches with synchronous cache event listeners, and splits the latencies of the puts
+   * between the puts that made the authoritative tier evict and the others.
+   *
+   * @see io.rainfall.ehcache.reporting.EvictionReporter
+   * @see EvictionObserver
+   */
+  public CacheConfig<K, V> evictionStatistics() {
+    if (evictionStatistics != null) {
+      throw new IllegalStateException("Eviction statistics already enabled.");
+    }
+    this.evictionStatistics = new EvictionStatistics(cacheNames);
+    for (int i = 0; i < caches.size(); i++) {
+      watchEvictions(i);
+    }
+    return this;
+  }
+
+  /**
+   * @return the evictions of each cache, null when they are not counted
+   */
+  public EvictionStatistics getEvictionStatistics() {
+    return evictionStatistics;
+  }
+
+  /**
+   * Counts the expirations of the caches with synchronous cache event listeners, so that the gets tell the misses on
+   * expired entries from the misses on absent ones. The last
+   * {@link ExpiryStatistics#DEFAULT_MAX_EXPIRED_KEYS} expired keys of each cache are kept.
+   *
+   * @see io.rainfall.ehcache.reporting.ExpiryReporter
+   */
+  public CacheConfig<K, V> expiryStatistics() {
+    return expiryStatistics(ExpiryStatistics.DEFAULT_MAX_EXPIRED_KEYS);
+  }
+
+  /**
+   * @param maxExpiredKeys number of expired keys kept for each cache, a get missing a key expired before them is
+   * counted as a MISS
+   * @see #expiryStatistics()
+   */
+  public CacheConfig<K, V> expiryStatistics(final int maxExpiredKeys) {
+    if (expiryStatistics != null) {
+      throw new IllegalStateException("Expiry statistics already enabled.");
+    }
+    this.expiryStatistics = new ExpiryStatistics(cacheNames, maxExpiredKeys);
+    for (int i = 0; i < caches.size(); i++) {
+      watchExpiries(i);
+    }
+    return this;
+  }
+
+  /**
+   * @return the expirations of each cache, null when they are not counted
+   */
+  public ExpiryStatistics getExpiryStatistics() {
+    return expiryStatistics;
+  }
+
+  /**
+   * Records the hits of the gets by the tier serving them, as HEAP_HIT, OFFHEAP_HIT or DISK_HIT
+   * {@link io.rainfall.ehcache.statistics.EhcacheResult}, instead of GET.
+   *
+   * @see TierProbe
+   * @see io.rainfall.ehcache3.operation.GetOperation
+   */
+  public CacheConfig<K, V> tierStatistics() {
+    if (tierProbes != null) {
+      throw new IllegalStateException("Tier statistics already enabled.");
+    }
+    this.tierProbes = new ArrayList<TierProbe>();
+    for (int i = 0; i < caches.size(); i++) {
+      watchTiers(i);
+    }
+    return this;
+  }
+
+  /**
+   * @return the tiers of the cache, null when the hits aren't split by tier
+   */
+  public TierProbe getTierProbe(final int cacheIndex) {
+    return tierProbes == null ? null : tierProbes.get(cacheIndex);
+  }
+
+  /**
+   * Makes each invocation work on the cache of the trace record being replayed.
+   *
+   * @param traceCacheNames names of the caches of the trace, resolved against the names of the configured caches
+   * @see io.rainfall.ehcache.execution.AbstractReplay
+   */
+  public void followReplay(final ReplayCursor replayCursor, final List<String> traceCacheNames) {
+    replayCursor.mapCaches(traceCacheNames, cacheNames);
+    this.replayCursor = replayCursor;
+  }
+
+  public void stopFollowingReplay() {
+    this.replayCursor = null;
+  }
+
+  /**
+   * Writes the operations issued on the caches to a log, which can be replayed to run the same stream of keys
+   * against another configuration. The log must be closed once the run is over.
+   *
+   * @see io.rainfall.ehcache.execution.AbstractReplay
+   */
+  public CacheConfig<K, V> recordOperations(final OperationLog operationLog) {
+    operationLog.setCacheNames(cacheNames);
+    this.operationLog = operationLog;
+    return this;
+  }
+
+  /**
+   * @return the log of the operations, null when they are not recorded
+   */
+  public OperationLog getOperationLog() {
+    return operationLog;
+  }
+
+  /**
+   * @return the indexes of the caches the current invocation of an operation works on
+   */
+  public int[] nextCacheIndexes() {
+    ReplayCursor cursor = replayCursor;
+    if (cursor != null) {
+      return cursor.cacheIndexes();
+    }
+    if (weightedCaches != null) {
+      return weightedCaches.next();
+    }
+    if (dedicatedThreads != null) {
+      return dedicatedThreads.getCacheForCurrentThread();
+    }
+    return allCacheIndexes;
+  }
+
+  public Cache<K, V> getCache(final int cacheIndex) {
+    return caches.get(cacheIndex);
+  }
+
+  public String getCacheName(final int cacheIndex) {
+    return cacheNames.get(cacheIndex);
+  }
+
+  public String getCacheName(final Cache<K, V> cache) {
+    int cacheIndex = caches.indexOf(cache);
+    return cacheIndex < 0 ? null : cacheNames.get(cacheIndex);
+  }
+
+  public EhcacheRecorder getRecorder() {
+    return recorder;
+  }
+
+  /**
+   * @return the bytes of the byte[] values written to and read from each cache
+   */
+  public ByteStatistics getByteStatistics() {
+    return byteStatistics;
+  }
+
+  public CacheConfig<K, V> bulkBatchSize(final int bulkBatchSize) {
+    this.bulkBatchSize = BatchSizeDistribution.fixed(bulkBatchSize);
+    return this;
+  }
+
+  /**
+   * Draws the number of keys of each bulk operation from a distribution
+   *
+   * @see BatchSizeDistribution#fixed(int)
+   * @see BatchSizeDistribution#uniform(int, int)
+   * @see BatchSizeDistribution#histogram(int[], double[])
+   */
+  public CacheConfig<K, V> bulkBatchSize(final BatchSizeDistribution bulkBatchSize) {
     this.bulkBatchSize = bulkBatchSize;
     return this;
   }
 
+  /**
+   * @return the number of keys of the next bulk operation, drawn from the distribution
+   */
   public int getBulkBatchSize() {
+    return getBulkBatchSizeDistribution().next();
+  }
+
+  /**
+   * @return the distribution of the number of keys of the bulk operations, the one of the trace when replaying
+   */
+  public BatchSizeDistribution getBulkBatchSizeDistribution() {
+    ReplayCursor cursor = replayCursor;
+    if (cursor != null) {
+      return cursor.batchSizes();
+    }
     return bulkBatchSize;
   }
 
-  public String getCacheName(final Cache<K, V> cache) {
-    return cacheNames.get(cache);
+  /**
+   * @return the latencies of the bulk operations, per number of keys
+   */
+  public BatchStatistics getBatchStatistics() {
+    return batchStatistics;
+  }
+
+  private static class EvictionListener implements CacheEventListener<Object, Object> {
+    private final int cacheIndex;
+    private final EvictionStatistics evictionStatistics;
+
+    EvictionListener(final int cacheIndex, final EvictionStatistics evictionStatistics) {
+      this.cacheIndex = cacheIndex;
+      this.evictionStatistics = evictionStatistics;
+    }
+
+    @Override
+    public void onEvent(final CacheEvent<Object, Object> event) {
+      switch (event.getType()) {
+        case CREATED:
+          evictionStatistics.created(cacheIndex);
+          break;
+        case EVICTED:
+          evictionStatistics.evicted(cacheIndex);
+          break;
+        default:
+          evictionStatistics.removed(cacheIndex);
+      }
+    }
   }
 
+  private static class ExpiryListener implements CacheEventListener<Object, Object> {
+    private final int cacheIndex;
+    private final ExpiryStatistics expiryStatistics;
+
+    ExpiryListener(final int cacheIndex, final ExpiryStatistics expiryStatistics) {
+      this.cacheIndex = cacheIndex;
+      this.expiryStatistics = expiryStatistics;
+    }
+
+    @Override
+    public void onEvent(final CacheEvent<Object, Object> event) {
+      switch (event.getType()) {
+        case EXPIRED:
+          expiryStatistics.expired(cacheIndex, event.getKey());
+          break;
+        case CREATED:
+          expiryStatistics.created(cacheIndex, event.getKey());
+          break;
+        default:
+          expiryStatistics.removed(cacheIndex, event.getKey());
+      }
+    }
+  }
 }
@@ -16,11 +16,15 @@
 
 package io.rainfall.ehcache3;
 
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider;
+import io.rainfall.ehcache3.operation.CacheAsideOperation;
 import io.rainfall.ehcache3.operation.GetAllOperation;
 import io.rainfall.ehcache3.operation.GetOperation;
 import io.rainfall.ehcache3.operation.PutAllOperation;
 import io.rainfall.ehcache3.operation.PutIfAbsentOperation;
 import io.rainfall.ehcache3.operation.PutOperation;
+import io.rainfall.ehcache3.operation.ReadThroughOperation;
 import io.rainfall.ehcache3.operation.RemoveAllOperation;
 import io.rainfall.ehcache3.operation.RemoveForKeyAndValueOperation;
 import io.rainfall.ehcache3.operation.RemoveOperation;
@@ -28,6 +32,8 @@ import io.rainfall.ehcache3.operation.ReplaceOperation;
 import io.rainfall.ehcache3.operation.ReplaceForKeyAndValueOperation;
 import io.rainfall.ehcache3.operation.TpsLimitGetOperation;
 import io.rainfall.ehcache3.operation.TpsLimitPutOperation;
+import io.rainfall.ehcache3.operation.WriteBehindOperation;
+import io.rainfall.ehcache3.operation.WriteThroughOperation;
 
 /**
  * Contains the helper methods to instantiate the Ehcache {@link io.rainfall.Operation} objects.
@@ -84,4 +90,36 @@ public class Ehcache3Operations {
     return new RemoveForKeyAndValueOperation<K, V>();
   }
 
+  /**
+   * @param systemOfRecord system of record the missing values are loaded from
+   */
+  public static <K, V> CacheAsideOperation<K, V> cacheAside(Class<K> keyClass, Class<V> valueClass,
+                                                           SystemOfRecord<K, V> systemOfRecord) {
+    return new CacheAsideOperation<K, V>(systemOfRecord);
+  }
+
+  /**
+   * @param systemOfRecordProvider systems of record of the caches, looked up by cache name
+   */
+  public static <K, V> ReadThroughOperation<K, V> readThrough(Class<K> keyClass, Class<V> valueClass,
+                                                             SystemOfRecordProvider systemOfRecordProvider) {
+    return new ReadThroughOperation<K, V>(systemOfRecordProvider);
+  }
+
+  /**
+   * @param systemOfRecordProvider systems of record of the caches, looked up by cache name
+   */
+  public static <K, V> WriteThroughOperation<K, V> writeThrough(Class<K> keyClass, Class<V> valueClass,
+                                                               SystemOfRecordProvider systemOfRecordProvider) {
+    return new WriteThroughOperation<K, V>(systemOfRecordProvider);
+  }
+
+  /**
+   * @param systemOfRecordProvider systems of record of the caches, looked up by cache name
+   */
+  public static <K, V> WriteBehindOperation<K, V> writeBehind(Class<K> keyClass, Class<V> valueClass,
+                                                             SystemOfRecordProvider systemOfRecordProvider) {
+    return new WriteBehindOperation<K, V>(systemOfRecordProvider);
+  }
+
 }
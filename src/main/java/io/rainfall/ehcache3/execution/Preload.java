@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.execution.AbstractPreload;
+import io.rainfall.ehcache3.CacheConfig;
+import org.ehcache.Cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the caches of the {@link CacheConfig} with putAll.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Preload<K, V> extends AbstractPreload<K, V> {
+
+  private List<Cache<K, V>> caches;
+
+  public Preload(final long nbElements) {
+    super(nbElements);
+  }
+
+  public static <K, V> Preload<K, V> preload(final Class<K> keyClass, final Class<V> valueClass, final long nbElements) {
+    return new Preload<K, V>(nbElements);
+  }
+
+  @Override
+  protected int startLoading(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    this.caches = cacheConfig.getCaches();
+    return caches.size();
+  }
+
+  @Override
+  protected void loadChunk(final long from, final long to) {
+    Map<K, V> entries = new HashMap<K, V>((int)((to - from) / 0.75f) + 1);
+    for (long seed = from; seed < to; seed++) {
+      entries.put(generateKey(seed), generateValue(seed));
+    }
+    for (Cache<K, V> cache : caches) {
+      cache.putAll(entries);
+    }
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.tier.Tiers;
+import io.rainfall.statistics.StatisticsHolder;
+import org.HdrHistogram.Histogram;
+import org.ehcache.Cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Measures how the persistent caches of the {@link CacheConfig} recover from a restart, as their number of entries
+ * grows : for each size, fills the caches up to it, closes their cache manager, opens it again, and measures the time
+ * to open it, the time to the first hit, the hit ratio of the first gets, and how the latency of the gets warms up.
+ * <p/>
+ * Right after the reopening, the first hit is probed on all the caches in turn, then the first gets are sampled on
+ * each of them, before any of them warms up : the caches are measured in the same state, whatever their order.
+ * <p/>
+ * The caches must be built by the CacheConfig from {@link Tiers} with a persistent disk tier. The operations of the
+ * scenario are ignored : the caches are filled and read by a single thread, and the gets are made on random keys
+ * among the loaded ones. The gets are recorded by the recorder of the CacheConfig, as GET or MISS, on top of the
+ * restart report.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Restart<K, V> extends Execution {
+
+  private static final String FORMAT = "%-12s %-15s %8s %10s %10s %13s %12s %10s %14s %14s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final long[] sizes;
+  private ObjectGenerator<K> keyGenerator;
+  private ObjectGenerator<V> valueGenerator;
+  private int chunkSize = 1000;
+  private int sampleSize = 10000;
+  private long warmUpInNs = TimeUnit.MINUTES.toNanos(1);
+  private long intervalInNs = TimeUnit.SECONDS.toNanos(1);
+  private final Random random = new Random();
+
+  /**
+   * @param sizes numbers of entries of the caches at each restart, in increasing order
+   */
+  public Restart(final long... sizes) {
+    if (sizes.length == 0) {
+      throw new IllegalArgumentException("At least one size is needed.");
+    }
+    long previous = 0;
+    for (long size : sizes) {
+      if (size <= previous) {
+        throw new IllegalArgumentException("Sizes must be strictly positive and increasing.");
+      }
+      previous = size;
+    }
+    this.sizes = sizes.clone();
+  }
+
+  public static <K, V> Restart<K, V> restart(final Class<K> keyClass, final Class<V> valueClass, final long... sizes) {
+    return new Restart<K, V>(sizes);
+  }
+
+  public Restart<K, V> using(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator) {
+    this.keyGenerator = keyGenerator;
+    this.valueGenerator = valueGenerator;
+    return this;
+  }
+
+  /**
+   * Sets the number of entries of each putAll filling the caches, 1000 by default
+   */
+  public Restart<K, V> inChunksOf(final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be strictly positive.");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  /**
+   * Sets the number of gets measuring the hit ratio right after the restart, 10000 by default
+   */
+  public Restart<K, V> sampleSize(final int sampleSize) {
+    if (sampleSize <= 0) {
+      throw new IllegalArgumentException("Sample size must be strictly positive.");
+    }
+    this.sampleSize = sampleSize;
+    return this;
+  }
+
+  /**
+   * Sets how long the gets are measured after the sample, and how often their latency is printed meanwhile, 1 minute
+   * every second by default
+   */
+  public Restart<K, V> warmUp(final long duration, final long interval, final TimeUnit unit) {
+    if (duration < 0 || interval <= 0) {
+      throw new IllegalArgumentException("Warm-up duration must be positive, and its interval strictly positive.");
+    }
+    this.warmUpInNs = unit.toNanos(duration);
+    this.intervalInNs = unit.toNanos(interval);
+    return this;
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    if (keyGenerator == null || valueGenerator == null) {
+      throw new IllegalStateException("Key and value generators must be set with using(keyGenerator, valueGenerator).");
+    }
+    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    int nbCaches = cacheConfig.getCaches().size();
+    for (int i = 0; i < nbCaches; i++) {
+      Tiers tiers = cacheConfig.getTiers(i);
+      if (tiers == null || !tiers.isPersistent()) {
+        throw new IllegalStateException("The caches must be built from Tiers with a persistent disk tier.");
+      }
+    }
+
+    StringBuilder summary = new StringBuilder();
+    summary.append("================================================== RESTART SUMMARY =======================================")
+        .append(CRLF);
+    summary.append(String.format(FORMAT, "Size", "Cache", "Fill_s", "Close_ms", "Open_ms", "First_hit_ms",
+        "First_gets", "Hit_ratio", "Sample_p99_ms", "Warm_p99_ms")).append(CRLF);
+    long loaded = 0;
+    for (long size : sizes) {
+      long start = System.nanoTime();
+      fill(cacheConfig, loaded, size);
+      long fillInNs = System.nanoTime() - start;
+      loaded = size;
+
+      start = System.nanoTime();
+      cacheConfig.close();
+      long closeInNs = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      cacheConfig.reopen();
+      long reopened = System.nanoTime();
+      long openInNs = reopened - start;
+      FirstHit[] firstHits = firstHits(statisticsHolder, cacheConfig, size, reopened);
+      Histogram[] samples = new Histogram[nbCaches];
+      long[] sampleHits = new long[nbCaches];
+      for (int i = 0; i < nbCaches; i++) {
+        samples[i] = new Histogram(3);
+        sampleHits[i] = gets(statisticsHolder, cacheConfig, i, size, sampleSize, samples[i]);
+      }
+
+      StringBuilder sb = new StringBuilder();
+      sb.append("====================================================== RESTART ===========================================")
+          .append(CRLF);
+      sb.append(String.format("%d entries per cache : filled in %.3f s, closed in %.3f ms, opened in %.3f ms", size,
+          fillInNs / 1000000000d, closeInNs / 1000000d, openInNs / 1000000d)).append(CRLF);
+      for (int i = 0; i < nbCaches; i++) {
+        FirstHit firstHit = firstHits[i];
+        Histogram sample = samples[i];
+        long hits = sampleHits[i];
+        sb.append(String.format("%s : first hit %s ms after the reopening started, after %d gets, "
+                + "hit ratio of the first %d gets %.4f", cacheConfig.getCacheName(i), firstHit.toString(openInNs),
+            firstHit.gets, sampleSize, (double)hits / sampleSize)).append(CRLF);
+        Histogram lastInterval = warmUp(statisticsHolder, cacheConfig, i, size, sb);
+        summary.append(String.format(FORMAT, size, cacheConfig.getCacheName(i),
+            String.format("%.3f", fillInNs / 1000000000d),
+            String.format("%.3f", closeInNs / 1000000d),
+            String.format("%.3f", openInNs / 1000000d),
+            firstHit.toString(openInNs),
+            firstHit.gets,
+            String.format("%.4f", (double)hits / sampleSize),
+            p99(sample),
+            p99(lastInterval))).append(CRLF);
+      }
+      System.out.println(sb.toString());
+    }
+    System.out.println(summary.toString());
+  }
+
+  private void fill(final CacheConfig<K, V> cacheConfig, final long from, final long to) {
+    for (long chunk = from; chunk < to; chunk += chunkSize) {
+      long end = Math.min(chunk + chunkSize, to);
+      Map<K, V> entries = new HashMap<K, V>((int)((end - chunk) / 0.75f) + 1);
+      for (long seed = chunk; seed < end; seed++) {
+        entries.put(keyGenerator.generate(seed), valueGenerator.generate(seed));
+      }
+      for (Cache<K, V> cache : cacheConfig.getCaches()) {
+        cache.putAll(entries);
+      }
+    }
+  }
+
+  /**
+   * Gets random keys on each cache in turn until each has hit, for at most the sample size of gets per cache.
+   *
+   * @param reopened time the cache manager was opened again, in ns
+   */
+  private FirstHit[] firstHits(final StatisticsHolder statisticsHolder, final CacheConfig<K, V> cacheConfig,
+                               final long size, final long reopened) {
+    FirstHit[] firstHits = new FirstHit[cacheConfig.getCaches().size()];
+    for (int i = 0; i < firstHits.length; i++) {
+      firstHits[i] = new FirstHit();
+    }
+    int missing = firstHits.length;
+    for (int round = 0; round < sampleSize && missing > 0; round++) {
+      for (int i = 0; i < firstHits.length; i++) {
+        if (firstHits[i].timeInNs < 0) {
+          firstHits[i].gets++;
+          if (get(statisticsHolder, cacheConfig, i, size, null)) {
+            firstHits[i].timeInNs = System.nanoTime() - reopened;
+            missing--;
+          }
+        }
+      }
+    }
+    return firstHits;
+  }
+
+  /**
+   * @return the number of hits
+   */
+  private long gets(final StatisticsHolder statisticsHolder, final CacheConfig<K, V> cacheConfig, final int cacheIndex,
+                    final long size, final long count, final Histogram latencies) {
+    long hits = 0;
+    for (long i = 0; i < count; i++) {
+      if (get(statisticsHolder, cacheConfig, cacheIndex, size, latencies)) {
+        hits++;
+      }
+    }
+    return hits;
+  }
+
+  /**
+   * Gets a random key and records the get
+   *
+   * @param latencies where the latency is also recorded, null if it isn't
+   * @return true on a hit
+   */
+  private boolean get(final StatisticsHolder statisticsHolder, final CacheConfig<K, V> cacheConfig,
+                      final int cacheIndex, final long size, final Histogram latencies) {
+    K key = nextKey(size);
+    long start = System.nanoTime();
+    V value = cacheConfig.getCache(cacheIndex).get(key);
+    long latencyInNs = System.nanoTime() - start;
+    cacheConfig.getRecorder().record(statisticsHolder, cacheIndex, latencyInNs, value == null ? MISS : GET);
+    if (latencies != null) {
+      latencies.recordValue(latencyInNs);
+    }
+    return value != null;
+  }
+
+  /**
+   * @return the latencies of the last interval
+   */
+  private Histogram warmUp(final StatisticsHolder statisticsHolder, final CacheConfig<K, V> cacheConfig,
+                           final int cacheIndex, final long size, final StringBuilder sb) {
+    String cacheName = cacheConfig.getCacheName(cacheIndex);
+    sb.append(String.format("%-15s %10s %12s %10s %10s %10s", cacheName, "Second", "Gets/s", "Hit_ratio",
+        "Mean_ms", "P99_ms")).append(CRLF);
+    Histogram interval = new Histogram(3);
+    long start = System.nanoTime();
+    long intervalStart = start;
+    long hits = 0;
+    long now;
+    while ((now = System.nanoTime()) - start < warmUpInNs) {
+      if (now - intervalStart >= intervalInNs) {
+        append(sb, cacheName, now - start, now - intervalStart, interval, hits);
+        interval = new Histogram(3);
+        intervalStart = now;
+        hits = 0;
+      }
+      hits += gets(statisticsHolder, cacheConfig, cacheIndex, size, 100, interval);
+    }
+    if (interval.getTotalCount() > 0) {
+      append(sb, cacheName, now - start, now - intervalStart, interval, hits);
+    }
+    return interval;
+  }
+
+  private void append(final StringBuilder sb, final String cacheName, final long elapsedInNs,
+                      final long intervalInNs, final Histogram interval, final long hits) {
+    long gets = interval.getTotalCount();
+    sb.append(String.format("%-15s %10.1f %12d %10s %10.3f %10s", cacheName, elapsedInNs / 1000000000d,
+        (long)(gets * 1000000000d / intervalInNs), gets == 0 ? "-" : String.format("%.4f", (double)hits / gets),
+        interval.getMean() / 1000000d, p99(interval))).append(CRLF);
+  }
+
+  private K nextKey(final long size) {
+    return keyGenerator.generate((long)(random.nextDouble() * size));
+  }
+
+  private static String p99(final Histogram histogram) {
+    return histogram.getTotalCount() == 0 ? "-" : String.format("%.3f", histogram.getValueAtPercentile(99) / 1000000d);
+  }
+
+  private static class FirstHit {
+    long gets = 0;
+    long timeInNs = -1;
+
+    /**
+     * @param openInNs time spent opening the cache manager again, the first hit is timed from its end
+     */
+    String toString(final long openInNs) {
+      return timeInNs < 0 ? "-" : String.format("%.3f", (openInNs + timeInNs) / 1000000d);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.execution.AbstractUntilCacheFull;
+import io.rainfall.ehcache3.CacheConfig;
+import jsr166e.LongAdder;
+import org.ehcache.Cache;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache is considered full once it started evicting.
+ * <p/>
+ * The evictions are counted by an asynchronous listener, so nothing is paid on the put path until the cache is full.
+ * Caches that never evict will run until the timeout of the {@link io.rainfall.configuration.ConcurrencyConfig}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class UntilCacheFull extends AbstractUntilCacheFull {
+
+  private final List<Cache> caches = new ArrayList<Cache>();
+  private final List<EvictionCounter> counters = new ArrayList<EvictionCounter>();
+
+  @Override
+  protected void startMonitoring(final Map<Class<? extends Configuration>, Configuration> configurations) {
+    CacheConfig<?, ?> cacheConfig = (CacheConfig<?, ?>)configurations.get(CacheConfig.class);
+    for (Cache cache : cacheConfig.getCaches()) {
+      EvictionCounter counter = new EvictionCounter();
+      cache.getRuntimeConfiguration().registerCacheEventListener(counter, EventOrdering.UNORDERED,
+          EventFiring.ASYNCHRONOUS, EnumSet.of(EventType.EVICTED));
+      caches.add(cache);
+      counters.add(counter);
+    }
+  }
+
+  @Override
+  protected boolean cachesAreFull() {
+    for (EvictionCounter counter : counters) {
+      if (counter.evictions.sum() == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected void stopMonitoring() {
+    for (int i = 0; i < caches.size(); i++) {
+      caches.get(i).getRuntimeConfiguration().deregisterCacheEventListener(counters.get(i));
+    }
+    caches.clear();
+    counters.clear();
+  }
+
+  private static class EvictionCounter implements CacheEventListener<Object, Object> {
+
+    private final LongAdder evictions = new LongAdder();
+
+    @Override
+    public void onEvent(final CacheEvent<Object, Object> event) {
+      evictions.increment();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.expiry;
+
+import org.ehcache.internal.TimeSource;
+import org.ehcache.internal.TimeSourceConfiguration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock of the caches, running faster than the wall clock, so that the expiry of entries living for hours can be
+ * benchmarked in minutes, and which can be moved forward by a scenario.
+ * <p/>
+ * Given to the cache manager with {@code newCacheManagerBuilder().using(timeSource.configuration())}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CompressedTimeSource implements TimeSource {
+
+  private final double speedup;
+  private final long originInMs = System.currentTimeMillis();
+  private final long originInNs = System.nanoTime();
+  private final AtomicLong advancedInMs = new AtomicLong();
+
+  private CompressedTimeSource(final double speedup) {
+    if (speedup < 0) {
+      throw new IllegalArgumentException("Speedup must be positive.");
+    }
+    this.speedup = speedup;
+  }
+
+  /**
+   * @param speedup number of cache milliseconds elapsing in one wall clock millisecond, e.g. 60 for an hour in a minute
+   */
+  public static CompressedTimeSource compressedTime(final double speedup) {
+    return new CompressedTimeSource(speedup);
+  }
+
+  /**
+   * @return a clock only moving when advanced
+   */
+  public static CompressedTimeSource manualTime() {
+    return new CompressedTimeSource(0);
+  }
+
+  public void advance(final long amount, final TimeUnit unit) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Time can't go backward.");
+    }
+    advancedInMs.addAndGet(unit.toMillis(amount));
+  }
+
+  @Override
+  public long getTimeMillis() {
+    return originInMs + (long)((System.nanoTime() - originInNs) / 1000000d * speedup) + advancedInMs.get();
+  }
+
+  public double getSpeedup() {
+    return speedup;
+  }
+
+  public TimeSourceConfiguration configuration() {
+    return new TimeSourceConfiguration(this);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.loaderwriter;
+
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache loader-writer reading from and writing to a {@link SystemOfRecord}
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SystemOfRecordLoaderWriter<K, V> implements CacheLoaderWriter<K, V> {
+
+  private final SystemOfRecord<K, V> systemOfRecord;
+
+  public SystemOfRecordLoaderWriter(final SystemOfRecord<K, V> systemOfRecord) {
+    this.systemOfRecord = systemOfRecord;
+  }
+
+  @Override
+  public V load(final K key) throws Exception {
+    return systemOfRecord.load(key);
+  }
+
+  @Override
+  public Map<K, V> loadAll(final Iterable<? extends K> keys) throws Exception {
+    Map<K, V> values = new HashMap<K, V>();
+    for (K key : keys) {
+      values.put(key, systemOfRecord.load(key));
+    }
+    return values;
+  }
+
+  @Override
+  public void write(final K key, final V value) throws Exception {
+    systemOfRecord.write(key, value);
+  }
+
+  @Override
+  public void writeAll(final Iterable<? extends Map.Entry<? extends K, ? extends V>> entries) throws Exception {
+    systemOfRecord.writeAll(entries);
+  }
+
+  @Override
+  public void delete(final K key) throws Exception {
+    systemOfRecord.delete(key);
+  }
+
+  @Override
+  public void deleteAll(final Iterable<? extends K> keys) throws Exception {
+    for (K key : keys) {
+      systemOfRecord.delete(key);
+    }
+  }
+
+  public SystemOfRecord<K, V> getSystemOfRecord() {
+    return systemOfRecord;
+  }
+}
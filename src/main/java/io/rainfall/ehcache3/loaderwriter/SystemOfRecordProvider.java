@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.loaderwriter;
+
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.spi.ServiceProvider;
+import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
+import org.ehcache.spi.loaderwriter.CacheLoaderWriterProvider;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Attaches {@link SystemOfRecord}s to the caches of a cache manager, as their loader-writers :
+ * <pre>
+ *   newCacheManagerBuilder()
+ *       .using(systemsOfRecord().cache("one", systemOfRecord))
+ *       .withCache("one", cacheConfiguration)
+ * </pre>
+ * Ehcache 3 only configures loader-writers by class, this provider hands out the instances instead, so that the
+ * operations can track the calls made to them. The caches without a system of record have no loader-writer.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SystemOfRecordProvider implements CacheLoaderWriterProvider {
+
+  private final ConcurrentMap<String, SystemOfRecord<?, ?>> systemsOfRecord =
+      new ConcurrentHashMap<String, SystemOfRecord<?, ?>>();
+  private final List<String> aliases = new CopyOnWriteArrayList<String>();
+
+  public static SystemOfRecordProvider systemsOfRecord() {
+    return new SystemOfRecordProvider();
+  }
+
+  /**
+   * @param alias          alias of the cache in the cache manager
+   * @param systemOfRecord system of record the cache reads through and writes through
+   */
+  public SystemOfRecordProvider cache(final String alias, final SystemOfRecord<?, ?> systemOfRecord) {
+    if (systemsOfRecord.putIfAbsent(alias, systemOfRecord) != null) {
+      throw new IllegalStateException("Cache " + alias + " already has a system of record.");
+    }
+    aliases.add(alias);
+    return this;
+  }
+
+  /**
+   * @return the systems of record by cache alias, in the order they were added
+   */
+  public Map<String, SystemOfRecord<?, ?>> getSystemsOfRecord() {
+    Map<String, SystemOfRecord<?, ?>> ordered = new LinkedHashMap<String, SystemOfRecord<?, ?>>();
+    for (String alias : aliases) {
+      ordered.put(alias, systemsOfRecord.get(alias));
+    }
+    return ordered;
+  }
+
+  /**
+   * @param alias alias of the cache in the cache manager, which the operations look up by the name of the cache in
+   *              the {@link io.rainfall.ehcache3.CacheConfig}
+   * @return the system of record of the cache
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> SystemOfRecord<K, V> getSystemOfRecord(final String alias) {
+    SystemOfRecord<K, V> systemOfRecord = (SystemOfRecord<K, V>)systemsOfRecord.get(alias);
+    if (systemOfRecord == null) {
+      throw new IllegalStateException("Cache " + alias + " has no system of record.");
+    }
+    return systemOfRecord;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> CacheLoaderWriter<? super K, V> createCacheLoaderWriter(final String alias,
+                                                                         final CacheConfiguration<K, V> cacheConfiguration) {
+    SystemOfRecord<K, V> systemOfRecord = (SystemOfRecord<K, V>)systemsOfRecord.get(alias);
+    return systemOfRecord == null ? null : new SystemOfRecordLoaderWriter<K, V>(systemOfRecord);
+  }
+
+  @Override
+  public void releaseCacheLoaderWriter(final CacheLoaderWriter<?, ?> cacheLoaderWriter) {
+    // the systems of record outlive the caches
+  }
+
+  @Override
+  public void start(final ServiceProvider serviceProvider) {
+  }
+
+  @Override
+  public void stop() {
+  }
+}
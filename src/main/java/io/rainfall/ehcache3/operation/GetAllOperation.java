@@ -20,16 +20,20 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.BatchStatistics;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
 import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
@@ -40,22 +44,32 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
  */
 public class GetAllOperation<K, V> extends EhcacheOperation<K, V> {
 
+  private final ThreadLocal<Set<K>> keys = new ThreadLocal<Set<K>>() {
+    @Override
+    protected Set<K> initialValue() {
+      return new HashSet<K>();
+    }
+  };
+
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    int bulkBatchSize = cacheConfig.getBulkBatchSize();
-    final long next = this.sequenceGenerator.next();
-    Set<K> set = Collections.newSetFromMap(new WeakHashMap<K, Boolean>());
-    for (int i = 0; i < bulkBatchSize; i++) {
-      set.add(keyGenerator.generate(next));
-    }
+    final long intendedStart = pace();
+    Set<K> set = keys.get();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    generateKeys(operationLog, set, cacheConfig.getBulkBatchSize());
+    BatchStatistics batchStatistics = cacheConfig.getBatchStatistics();
 
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
       Map<K, V> all;
+      logBatch(operationLog, TraceOperation.GETALL, cacheIndex);
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
         all = cache.getAll(set);
         long end = getTimeInNs();
@@ -66,11 +80,14 @@ public class GetAllOperation<K, V> extends EhcacheOperation<K, V> {
             break;
           }
         }
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), result);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, result);
+        batchStatistics.record(cacheIndex, result, set.size(), (end - start) + delay);
+        byteStatistics.read(cacheIndex, all);
 
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
+        batchStatistics.record(cacheIndex, EXCEPTION, set.size(), (end - start) + delay);
       }
     }
   }
@@ -20,7 +20,15 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.ehcache.statistics.ExpiryStatistics;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.tier.TierProbe;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -28,10 +36,17 @@ import java.util.List;
 import java.util.Map;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXPIRED_MISS;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 
 /**
+ * With {@link CacheConfig#tierStatistics()}, the tier of a hit is asked to the {@link TierProbe} before the get : the
+ * probe and the get aren't atomic, so an entry moved between the tiers by another thread in between, e.g. faulted
+ * into the heap or evicted from it, makes the hit count for the wrong tier. The hits by tier are exact in single
+ * threaded runs only, and are an estimate otherwise. The probe also reads the private fields of the compound caching
+ * tier of Ehcache 3, which may change between its versions.
+ *
  * @author Aurelien Broszniowski
  */
 public class GetOperation<K, V> extends EhcacheOperation<K, V> {
@@ -41,22 +56,49 @@ public class GetOperation<K, V> extends EhcacheOperation<K, V> {
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
     final long next = sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    final K key = generateKey(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    EvictionStatistics evictionStatistics = cacheConfig.getEvictionStatistics();
+    ExpiryStatistics expiryStatistics = cacheConfig.getExpiryStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
+      final TierProbe tierProbe = cacheConfig.getTierProbe(cacheIndex);
       V value;
+      log(operationLog, TraceOperation.GET, cacheIndex, next, null);
+      // asked before the get, which moves the entry up the tiers
+      EhcacheResult hit = tierProbe == null ? GET : tierProbe.hitOf(key);
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
-        value = cache.get(keyGenerator.generate(next));
+        value = cache.get(key);
         long end = getTimeInNs();
         if (value == null) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
+          EhcacheResult result = expiryStatistics != null && expiryStatistics.isExpired(cacheIndex, key)
+              ? EXPIRED_MISS : MISS;
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, result);
+          if (evictionStatistics != null) {
+            evictionStatistics.miss(cacheIndex);
+          }
+          if (expiryStatistics != null) {
+            expiryStatistics.get(cacheIndex, (end - start) + delay, result);
+          }
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), GET);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, hit);
+          if (evictionStatistics != null) {
+            evictionStatistics.hit(cacheIndex);
+          }
+          if (expiryStatistics != null) {
+            expiryStatistics.get(cacheIndex, (end - start) + delay, GET);
+          }
+          byteStatistics.read(cacheIndex, value);
         }
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
       }
     }
   }
@@ -4,13 +4,18 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.BatchStatistics;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
@@ -20,28 +25,41 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
  */
 public class PutAllOperation<K, V> extends EhcacheOperation<K, V> {
 
+  private final ThreadLocal<Map<K, V>> entries = new ThreadLocal<Map<K, V>>() {
+    @Override
+    protected Map<K, V> initialValue() {
+      return new HashMap<K, V>();
+    }
+  };
+
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    int bulkBatchSize = cacheConfig.getBulkBatchSize();
-    final long next = this.sequenceGenerator.next();
-    Map<K, V> maps = new WeakHashMap<K, V>();
-    for (int i = 0; i < bulkBatchSize; i++) {
-      maps.put(keyGenerator.generate(next), valueGenerator.generate(next));
-    }
+    final long intendedStart = pace();
+    Map<K, V> maps = entries.get();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    generateEntries(operationLog, maps, cacheConfig.getBulkBatchSize());
+    BatchStatistics batchStatistics = cacheConfig.getBatchStatistics();
 
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
+      logBatch(operationLog, TraceOperation.PUTALL, cacheIndex);
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
         cache.putAll(maps);
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTALL);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, PUTALL);
+        batchStatistics.record(cacheIndex, PUTALL, maps.size(), (end - start) + delay);
+        byteStatistics.written(cacheIndex, maps);
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
+        batchStatistics.record(cacheIndex, EXCEPTION, maps.size(), (end - start) + delay);
       }
     }
   }
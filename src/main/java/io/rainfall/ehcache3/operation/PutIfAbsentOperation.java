@@ -20,6 +20,10 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
@@ -41,22 +45,31 @@ public class PutIfAbsentOperation<K, V> extends EhcacheOperation<K, V> {
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    final K key = generateKey(next);
+    final V value = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
       V v;
+      log(operationLog, TraceOperation.PUTIFABSENT, cacheIndex, next, value);
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
-        v = cache.putIfAbsent(keyGenerator.generate(next), valueGenerator.generate(next));
+        v = cache.putIfAbsent(key, value);
         long end = getTimeInNs();
         if (v != null) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, MISS);
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUTIFABSENT);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, PUTIFABSENT);
+          byteStatistics.written(cacheIndex, value);
         }
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
       }
     }
   }
@@ -20,6 +20,11 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
@@ -44,17 +49,33 @@ public class PutOperation<K, V> extends EhcacheOperation<K, V> {
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    final K key = generateKey(next);
+    final V value = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    EvictionStatistics evictionStatistics = cacheConfig.getEvictionStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
+      log(operationLog, TraceOperation.PUT, cacheIndex, next, value);
+      if (evictionStatistics != null) {
+        evictionStatistics.putting();
+      }
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
-        cache.put(keyGenerator.generate(next), valueGenerator.generate(next));
+        cache.put(key, value);
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUT);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, PUT);
+        if (evictionStatistics != null) {
+          evictionStatistics.put(cacheIndex, (end - start) + delay);
+        }
+        byteStatistics.written(cacheIndex, value);
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
       }
     }
   }
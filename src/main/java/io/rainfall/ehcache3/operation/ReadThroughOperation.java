@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.EhcacheOperation;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOADER;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Read-through : gets a key from a cache whose loader-writer is the system of record, see
+ * {@link SystemOfRecordProvider}, which holds the system of record of each cache under its name.
+ * <p/>
+ * A get is a miss when the loader was called by this thread. A get waiting for the load of the same key by another
+ * thread is a hit : the system of record wasn't called for it.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ReadThroughOperation<K, V> extends EhcacheOperation<K, V> {
+
+  private final SystemOfRecordProvider systemOfRecordProvider;
+
+  public ReadThroughOperation(final SystemOfRecordProvider systemOfRecordProvider) {
+    this.systemOfRecordProvider = systemOfRecordProvider;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
+    final long next = sequenceGenerator.next();
+    final K key = generateKey(next);
+    final V generated = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
+      final SystemOfRecord<K, V> systemOfRecord =
+          systemOfRecordProvider.getSystemOfRecord(cacheConfig.getCacheName(cacheIndex));
+      V value;
+      log(operationLog, TraceOperation.GET, cacheIndex, next, null);
+      SystemOfRecord.Calls calls = systemOfRecord.track(generated);
+      long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
+      try {
+        value = cache.get(key);
+        long end = getTimeInNs();
+        if (value == null) {
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, MISS);
+        } else {
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, calls.getLoads() > 0 ? LOAD_MISS : LOAD_HIT);
+          byteStatistics.read(cacheIndex, value);
+        }
+      } catch (Exception e) {
+        long end = getTimeInNs();
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
+      }
+      if (calls.getLoads() > 0) {
+        recorder.record(statisticsHolder, cacheIndex, calls.getLoadTimeInNs(), LOADER);
+      }
+    }
+  }
+}
@@ -20,6 +20,9 @@ import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
 import io.rainfall.EhcacheOperation;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
@@ -41,22 +44,29 @@ public class RemoveForKeyAndValueOperation<K, V> extends EhcacheOperation<K, V>
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
     CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
     final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    for (final Cache<K, V> cache : caches) {
+    final K key = generateKey(next);
+    final V value = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
       boolean removed;
+      log(operationLog, TraceOperation.REMOVEVALUE, cacheIndex, next, value);
       long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
       try {
-        removed = cache.remove(keyGenerator.generate(next), valueGenerator.generate(next));
+        removed = cache.remove(key, value);
         long end = getTimeInNs();
         if (!removed) {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, MISS);
         } else {
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), REMOVEVALUE);
+          recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, REMOVEVALUE);
         }
       } catch (Exception e) {
         long end = getTimeInNs();
-        statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
       }
     }
   }
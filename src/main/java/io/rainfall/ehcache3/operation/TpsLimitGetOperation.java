@@ -16,57 +16,15 @@
 
 package io.rainfall.ehcache3.operation;
 
-import io.rainfall.AssertionEvaluator;
-import io.rainfall.Configuration;
-import io.rainfall.TestException;
-import io.rainfall.ehcache.statistics.EhcacheResult;
-import io.rainfall.ehcache3.CacheConfig;
-import io.rainfall.statistics.StatisticsHolder;
-import org.ehcache.Cache;
-
-import java.util.List;
-import java.util.Map;
-
-import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
-import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
-import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
-
 /**
+ * {@link GetOperation} paced on a fixed schedule of tpsLimit operations per second.
+ *
  * @author Aurelien Broszniowski
+ * @see io.rainfall.EhcacheOperation#withTpsLimit(long)
  */
 public class TpsLimitGetOperation<K, V> extends GetOperation<K, V> {
 
-  private final long tpsLimit;
-
   public TpsLimitGetOperation(final long tpsLimit) {
-    this.tpsLimit = tpsLimit;
-  }
-
-  @Override
-  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
-      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
-
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    long currentTps = statisticsHolder.getCurrentTps(EhcacheResult.GET);
-    if (currentTps < this.tpsLimit) {
-      for (final Cache<K, V> cache : caches) {
-        V value;
-        long start = getTimeInNs();
-        try {
-          value = cache.get(keyGenerator.generate(next));
-          long end = getTimeInNs();
-          if (value == null) {
-            statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), MISS);
-          } else {
-            statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), GET);
-          }
-        } catch (Exception e) {
-          long end = getTimeInNs();
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
-        }
-      }
-    }
+    withTpsLimit(tpsLimit);
   }
 }
@@ -16,51 +16,15 @@
 
 package io.rainfall.ehcache3.operation;
 
-import io.rainfall.AssertionEvaluator;
-import io.rainfall.Configuration;
-import io.rainfall.TestException;
-import io.rainfall.ehcache.statistics.EhcacheResult;
-import io.rainfall.ehcache3.CacheConfig;
-import io.rainfall.statistics.StatisticsHolder;
-import org.ehcache.Cache;
-
-import java.util.List;
-import java.util.Map;
-
-import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
-import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
-
 /**
+ * {@link PutOperation} paced on a fixed schedule of tpsLimit operations per second.
+ *
  * @author Aurelien Broszniowski
+ * @see io.rainfall.EhcacheOperation#withTpsLimit(long)
  */
 public class TpsLimitPutOperation<K, V> extends PutOperation<K, V> {
 
-  private final long tpsLimit;
-
   public TpsLimitPutOperation(final long tpsLimit) {
-    this.tpsLimit = tpsLimit;
-  }
-
-  @Override
-  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
-      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
-
-    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
-    final long next = this.sequenceGenerator.next();
-    List<Cache<K, V>> caches = cacheConfig.getCaches();
-    long currentTps = statisticsHolder.getCurrentTps(EhcacheResult.PUT);
-    if (currentTps < this.tpsLimit) {
-      for (final Cache<K, V> cache : caches) {
-        long start = getTimeInNs();
-        try {
-          cache.put(keyGenerator.generate(next), valueGenerator.generate(next));
-          long end = getTimeInNs();
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), PUT);
-        } catch (Exception e) {
-          long end = getTimeInNs();
-          statisticsHolder.record(cacheConfig.getCacheName(cache), (end - start), EXCEPTION);
-        }
-      }
-    }
+    withTpsLimit(tpsLimit);
   }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.EhcacheOperation;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.sor.PendingWrites;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+
+/**
+ * Write-behind : puts a key in a cache whose loader-writer is the system of record, decorated by a write-behind
+ * queue. The put only measures the queueing of the write, the writes that are still queued are tracked by the
+ * {@link PendingWrites} of the system of record of the cache, looked up in the {@link SystemOfRecordProvider} by the
+ * name of the cache, see {@link io.rainfall.ehcache.reporting.WriteBehindReporter}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteBehindOperation<K, V> extends EhcacheOperation<K, V> {
+
+  private final SystemOfRecordProvider systemOfRecordProvider;
+
+  public WriteBehindOperation(final SystemOfRecordProvider systemOfRecordProvider) {
+    this.systemOfRecordProvider = systemOfRecordProvider;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
+    final long next = this.sequenceGenerator.next();
+    final K key = generateKey(next);
+    final V value = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
+      final SystemOfRecord<K, V> systemOfRecord =
+          systemOfRecordProvider.getSystemOfRecord(cacheConfig.getCacheName(cacheIndex));
+      final PendingWrites<K, V> pendingWrites = systemOfRecord.getPendingWrites();
+      log(operationLog, TraceOperation.PUT, cacheIndex, next, value);
+      final long sequence = pendingWrites.accepting(key, value);
+      long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
+      try {
+        cache.put(key, value);
+        long end = getTimeInNs();
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, PUT);
+        pendingWrites.accepted((end - start) + delay);
+        byteStatistics.written(cacheIndex, value);
+      } catch (Exception e) {
+        long end = getTimeInNs();
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
+        pendingWrites.rejected(key, sequence);
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.EhcacheOperation;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.ByteStatistics;
+import io.rainfall.ehcache.statistics.EhcacheRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceOperation;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.WRITER;
+
+/**
+ * Write-through : puts a key in a cache whose loader-writer is the system of record, see
+ * {@link SystemOfRecordProvider}, which holds the system of record of each cache under its name. The put includes
+ * the synchronous write.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteThroughOperation<K, V> extends EhcacheOperation<K, V> {
+
+  private final SystemOfRecordProvider systemOfRecordProvider;
+
+  public WriteThroughOperation(final SystemOfRecordProvider systemOfRecordProvider) {
+    this.systemOfRecordProvider = systemOfRecordProvider;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    CacheConfig<K, V> cacheConfig = (CacheConfig<K, V>)configurations.get(CacheConfig.class);
+    final long intendedStart = pace();
+    final long next = this.sequenceGenerator.next();
+    final K key = generateKey(next);
+    final V value = generateValue(next);
+    EhcacheRecorder recorder = cacheConfig.getRecorder();
+    OperationLog operationLog = cacheConfig.getOperationLog();
+    ByteStatistics byteStatistics = cacheConfig.getByteStatistics();
+    for (final int cacheIndex : cacheConfig.nextCacheIndexes()) {
+      final Cache<K, V> cache = cacheConfig.getCache(cacheIndex);
+      final SystemOfRecord<K, V> systemOfRecord =
+          systemOfRecordProvider.getSystemOfRecord(cacheConfig.getCacheName(cacheIndex));
+      log(operationLog, TraceOperation.PUT, cacheIndex, next, value);
+      SystemOfRecord.Calls calls = systemOfRecord.track(value);
+      long start = getTimeInNs();
+      final long delay = correction(intendedStart, start);
+      try {
+        cache.put(key, value);
+        long end = getTimeInNs();
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, PUT);
+        byteStatistics.written(cacheIndex, value);
+      } catch (Exception e) {
+        long end = getTimeInNs();
+        recorder.record(statisticsHolder, cacheIndex, (end - start) + delay, EXCEPTION);
+      }
+      if (calls.getWrites() > 0) {
+        recorder.record(statisticsHolder, cacheIndex, calls.getWriteTimeInNs(), WRITER);
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serializer;
+
+import org.ehcache.spi.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores byte[] values as they are : the cost of an offheap tier without any serialization.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ByteArraySerializer implements Serializer<byte[]> {
+
+  public ByteArraySerializer(final ClassLoader classLoader) {
+    // nothing to load
+  }
+
+  @Override
+  public ByteBuffer serialize(final byte[] value) {
+    return ByteBuffer.wrap(value);
+  }
+
+  @Override
+  public byte[] read(final ByteBuffer binary) {
+    byte[] value = new byte[binary.remaining()];
+    binary.get(value);
+    return value;
+  }
+
+  @Override
+  public boolean equals(final byte[] value, final ByteBuffer binary) {
+    return ByteBuffer.wrap(value).equals(binary);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serializer;
+
+import io.rainfall.ehcache.generator.pojo.Address;
+import io.rainfall.ehcache.generator.pojo.Customer;
+import io.rainfall.ehcache.generator.pojo.Order;
+import org.ehcache.spi.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written serializer of {@link Customer}s : the fields are written one after the other, without the class
+ * descriptions of Java serialization.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CustomerSerializer implements Serializer<Customer> {
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  public CustomerSerializer(final ClassLoader classLoader) {
+    // no class to load
+  }
+
+  @Override
+  public ByteBuffer serialize(final Customer customer) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeLong(customer.getId());
+    writeString(output, customer.getName());
+    writeString(output, customer.getEmail());
+    Address address = customer.getAddress();
+    writeString(output, address.getStreet());
+    writeString(output, address.getCity());
+    writeString(output, address.getZipCode());
+    output.writeInt(customer.getOrders().size());
+    for (Order order : customer.getOrders()) {
+      output.writeLong(order.getId());
+      writeString(output, order.getProduct());
+      output.writeInt(order.getQuantity());
+      output.writeDouble(order.getAmount());
+    }
+    output.writeInt(customer.getAttributes().size());
+    for (Map.Entry<String, String> attribute : customer.getAttributes().entrySet()) {
+      writeString(output, attribute.getKey());
+      writeString(output, attribute.getValue());
+    }
+    writeString(output, customer.getNotes());
+    output.writeInt(customer.getSerializedSize());
+    output.close();
+    return ByteBuffer.wrap(bytes.toByteArray());
+  }
+
+  @Override
+  public Customer read(final ByteBuffer binary) {
+    long id = binary.getLong();
+    String name = readString(binary);
+    String email = readString(binary);
+    Address address = new Address(readString(binary), readString(binary), readString(binary));
+    int nbOrders = binary.getInt();
+    List<Order> orders = new ArrayList<Order>(nbOrders);
+    for (int i = 0; i < nbOrders; i++) {
+      orders.add(new Order(binary.getLong(), readString(binary), binary.getInt(), binary.getDouble()));
+    }
+    int nbAttributes = binary.getInt();
+    Map<String, String> attributes = new HashMap<String, String>();
+    for (int i = 0; i < nbAttributes; i++) {
+      attributes.put(readString(binary), readString(binary));
+    }
+    Customer customer = new Customer(id, name, email, address, orders, attributes, readString(binary));
+    customer.setSerializedSize(binary.getInt());
+    return customer;
+  }
+
+  @Override
+  public boolean equals(final Customer customer, final ByteBuffer binary) {
+    return customer.equals(read(binary));
+  }
+
+  private static void writeString(final DataOutputStream output, final String s) throws IOException {
+    byte[] bytes = s.getBytes(UTF8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(final ByteBuffer binary) {
+    byte[] bytes = new byte[binary.getInt()];
+    binary.get(bytes);
+    return new String(bytes, UTF8);
+  }
+}
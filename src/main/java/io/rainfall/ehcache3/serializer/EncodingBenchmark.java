@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serializer;
+
+import org.ehcache.spi.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Measures the pure encoding and decoding cost of a serializer on a set of sample values, without any cache.
+ * <p/>
+ * The rounds of warm up let the JIT compile the serializer before the measured rounds. The results of each call are
+ * consumed, so that the JIT can't remove them.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class EncodingBenchmark {
+
+  private static volatile long sink;
+
+  private final int warmupRounds;
+  private final int measuredRounds;
+
+  public EncodingBenchmark(final int warmupRounds, final int measuredRounds) {
+    if (warmupRounds < 0 || measuredRounds <= 0) {
+      throw new IllegalArgumentException("Warm up rounds must be positive and measured rounds strictly positive.");
+    }
+    this.warmupRounds = warmupRounds;
+    this.measuredRounds = measuredRounds;
+  }
+
+  public <T> Result measure(final Serializer<T> serializer, final List<T> samples) throws Exception {
+    if (samples.isEmpty()) {
+      throw new IllegalArgumentException("At least one sample is needed.");
+    }
+    ByteBuffer[] encoded = new ByteBuffer[samples.size()];
+    long totalBytes = 0;
+    for (int i = 0; i < encoded.length; i++) {
+      encoded[i] = serializer.serialize(samples.get(i));
+      totalBytes += encoded[i].remaining();
+    }
+
+    long consumed = 0;
+    long encodingInNs = 0;
+    long decodingInNs = 0;
+    for (int round = 0; round < warmupRounds + measuredRounds; round++) {
+      long start = System.nanoTime();
+      for (T sample : samples) {
+        consumed += serializer.serialize(sample).remaining();
+      }
+      long middle = System.nanoTime();
+      for (ByteBuffer binary : encoded) {
+        T value = serializer.read(binary.duplicate());
+        consumed += value.hashCode();
+      }
+      long end = System.nanoTime();
+      if (round >= warmupRounds) {
+        encodingInNs += middle - start;
+        decodingInNs += end - middle;
+      }
+    }
+    sink += consumed;
+
+    long nbCalls = (long)measuredRounds * samples.size();
+    return new Result((double)totalBytes / samples.size(), (double)encodingInNs / nbCalls,
+        (double)decodingInNs / nbCalls);
+  }
+
+  public static class Result {
+    private final double bytesPerEntry;
+    private final double encodingInNs;
+    private final double decodingInNs;
+
+    Result(final double bytesPerEntry, final double encodingInNs, final double decodingInNs) {
+      this.bytesPerEntry = bytesPerEntry;
+      this.encodingInNs = encodingInNs;
+      this.decodingInNs = decodingInNs;
+    }
+
+    /**
+     * @return the average size of the serialized samples
+     */
+    public double getBytesPerEntry() {
+      return bytesPerEntry;
+    }
+
+    /**
+     * @return the average time to serialize a sample
+     */
+    public double getEncodingInNs() {
+      return encodingInNs;
+    }
+
+    /**
+     * @return the average time to read a sample back
+     */
+    public double getDecodingInNs() {
+      return decodingInNs;
+    }
+  }
+}
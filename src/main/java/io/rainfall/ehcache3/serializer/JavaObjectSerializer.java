@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serializer;
+
+import org.ehcache.spi.serialization.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+
+/**
+ * Plain Java serialization, the reference the other serializers are compared to.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class JavaObjectSerializer<T> implements Serializer<T> {
+
+  private final ClassLoader classLoader;
+
+  public JavaObjectSerializer(final ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  @Override
+  public ByteBuffer serialize(final T value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream output = new ObjectOutputStream(bytes);
+    try {
+      output.writeObject(value);
+    } finally {
+      output.close();
+    }
+    return ByteBuffer.wrap(bytes.toByteArray());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T read(final ByteBuffer binary) throws IOException, ClassNotFoundException {
+    byte[] bytes = new byte[binary.remaining()];
+    binary.get(bytes);
+    ObjectInputStream input = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes), classLoader);
+    try {
+      return (T)input.readObject();
+    } finally {
+      input.close();
+    }
+  }
+
+  @Override
+  public boolean equals(final T value, final ByteBuffer binary) throws IOException, ClassNotFoundException {
+    return value.equals(read(binary));
+  }
+
+  private static class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+    private final ClassLoader classLoader;
+
+    ClassLoaderObjectInputStream(final InputStream input, final ClassLoader classLoader) throws IOException {
+      super(input);
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    protected Class<?> resolveClass(final ObjectStreamClass description) throws IOException, ClassNotFoundException {
+      try {
+        return Class.forName(description.getName(), false, classLoader);
+      } catch (ClassNotFoundException e) {
+        return super.resolveClass(description);
+      }
+    }
+  }
+}
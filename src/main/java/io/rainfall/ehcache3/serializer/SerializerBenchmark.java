@@ -0,0 +1,268 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serializer;
+
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.Runner;
+import io.rainfall.Scenario;
+import io.rainfall.SyntaxException;
+import io.rainfall.configuration.ReportingConfig;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache.statistics.StripedRecorder.Snapshot;
+import io.rainfall.ehcache3.CacheConfig;
+import org.HdrHistogram.Histogram;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.CacheConfigurationBuilder;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.SerializerConfiguration;
+import org.ehcache.config.serializer.DefaultSerializerConfiguration;
+import org.ehcache.spi.serialization.Serializer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.ehcache.CacheManagerBuilder.newCacheManagerBuilder;
+
+/**
+ * Runs the same scenario against caches of the same shape, one per value serializer, then reports the load results
+ * and the pure encoding cost of each serializer side by side.
+ * <p/>
+ * Each serializer gets its own cache manager, created before its run and closed after it, and its own scenario : the
+ * operations keep state between runs (sequence generators, pacers, pools of keys and values), so a scenario run once
+ * per serializer would give each of them a different stream of keys. The serializers must have a constructor taking a
+ * ClassLoader, as required by Ehcache.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SerializerBenchmark<K, V> {
+
+  private static final String ENCODING_FORMAT = "%-15s %12s %12s %12s";
+  private static final String LOAD_FORMAT = "%-15s %-15s %12s %12s %12s %12s";
+
+  private final String CRLF = System.getProperty("line.separator");
+  private final Class<K> keyClass;
+  private final Class<V> valueClass;
+  private final Map<String, Class<? extends Serializer<V>>> serializers = new LinkedHashMap<String, Class<? extends Serializer<V>>>();
+  private ResourcePools resourcePools = null;
+  private ScenarioFactory scenarioFactory = null;
+  private Execution[] executions = null;
+  private final List<Configuration> configurations = new ArrayList<Configuration>();
+  private ObjectGenerator<V> sampleGenerator = null;
+  private int nbSamples;
+  private EncodingBenchmark encodingBenchmark = new EncodingBenchmark(10, 20);
+
+  private SerializerBenchmark(final Class<K> keyClass, final Class<V> valueClass) {
+    this.keyClass = keyClass;
+    this.valueClass = valueClass;
+  }
+
+  public static <K, V> SerializerBenchmark<K, V> serializerBenchmark(final Class<K> keyClass, final Class<V> valueClass) {
+    return new SerializerBenchmark<K, V>(keyClass, valueClass);
+  }
+
+  /**
+   * @param name            name of the cache, under which the results are reported
+   * @param serializerClass serializer of the values, e.g. {@link JavaObjectSerializer}, {@link CustomerSerializer}
+   *                        or {@link ByteArraySerializer}
+   */
+  @SuppressWarnings("unchecked")
+  public SerializerBenchmark<K, V> serializer(final String name, final Class<? extends Serializer> serializerClass) {
+    if (serializers.containsKey(name)) {
+      throw new IllegalStateException("Serializer " + name + " already added.");
+    }
+    serializers.put(name, (Class<? extends Serializer<V>>)serializerClass);
+    return this;
+  }
+
+  /**
+   * @param resourcePools shape shared by the caches of all the serializers
+   */
+  public SerializerBenchmark<K, V> resourcePools(final ResourcePools resourcePools) {
+    this.resourcePools = resourcePools;
+    return this;
+  }
+
+  /**
+   * @param scenarioFactory builds a new scenario of Ehcache 3 operations for the run of each serializer
+   * @param executions      executions of the scenario
+   */
+  public SerializerBenchmark<K, V> scenario(final ScenarioFactory scenarioFactory, final Execution... executions) {
+    this.scenarioFactory = scenarioFactory;
+    this.executions = executions;
+    return this;
+  }
+
+  /**
+   * @param configurations configurations of the runs, other than the CacheConfig which is built for each serializer
+   */
+  public SerializerBenchmark<K, V> config(final Configuration... configurations) {
+    this.configurations.addAll(Arrays.asList(configurations));
+    return this;
+  }
+
+  /**
+   * @param sampleGenerator generator of the values used to measure the encoding cost, seeded from 0 to nbSamples
+   */
+  public SerializerBenchmark<K, V> samples(final ObjectGenerator<V> sampleGenerator, final int nbSamples) {
+    if (nbSamples <= 0) {
+      throw new IllegalArgumentException("Number of samples must be strictly positive.");
+    }
+    this.sampleGenerator = sampleGenerator;
+    this.nbSamples = nbSamples;
+    return this;
+  }
+
+  public SerializerBenchmark<K, V> encodingRounds(final int warmupRounds, final int measuredRounds) {
+    this.encodingBenchmark = new EncodingBenchmark(warmupRounds, measuredRounds);
+    return this;
+  }
+
+  public void start() throws SyntaxException {
+    if (serializers.isEmpty()) {
+      throw new IllegalStateException("At least one serializer must be added.");
+    }
+    if (resourcePools == null) {
+      throw new IllegalStateException("Resource pools must be set.");
+    }
+    if (scenarioFactory == null) {
+      throw new IllegalStateException("Scenario must be set.");
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("================================================ SERIALIZER BENCHMARK ====================================")
+        .append(CRLF);
+    if (sampleGenerator != null) {
+      sb.append(formatEncoding()).append(CRLF);
+    }
+    sb.append(String.format(LOAD_FORMAT, "Serializer", "Type", "Txn_Count", "TPS", "Avg_Lat", "p99_us"))
+        .append(CRLF);
+    for (Map.Entry<String, Class<? extends Serializer<V>>> serializer : serializers.entrySet()) {
+      sb.append(formatLoad(serializer.getKey(), run(serializer.getKey(), serializer.getValue())));
+    }
+    System.out.println(sb.toString());
+  }
+
+  private Run run(final String name, final Class<? extends Serializer<V>> serializerClass) throws SyntaxException {
+    CacheConfiguration<K, V> cacheConfiguration = CacheConfigurationBuilder.newCacheConfigurationBuilder()
+        .withResourcePools(resourcePools)
+        .add(new DefaultSerializerConfiguration<V>(serializerClass, SerializerConfiguration.Type.VALUE))
+        .buildConfig(keyClass, valueClass);
+    CacheManager cacheManager = newCacheManagerBuilder().withCache(name, cacheConfiguration).build(true);
+    try {
+      Cache<K, V> cache = cacheManager.getCache(name, keyClass, valueClass);
+      CacheConfig<K, V> cacheConfig = CacheConfig.cacheConfig(keyClass, valueClass).cache(name, cache)
+          .stripedStatistics();
+      StripedRecorder recorder = (StripedRecorder)cacheConfig.getRecorder();
+
+      List<Configuration> runConfigurations = new ArrayList<Configuration>(configurations);
+      runConfigurations.add(cacheConfig);
+      boolean reporting = false;
+      for (Configuration configuration : configurations) {
+        reporting |= configuration instanceof ReportingConfig;
+      }
+      if (!reporting) {
+        runConfigurations.add(ReportingConfig.report(EhcacheResult.class));
+      }
+
+      System.out.println("----------> Serializer " + name);
+      Snapshot first = recorder.snapshot();
+      Scenario scenario = scenarioFactory.scenario();
+      if (scenario == null) {
+        throw new IllegalStateException("The scenario factory must build a scenario.");
+      }
+      Runner.setUp(scenario)
+          .executed(executions)
+          .config(runConfigurations.toArray(new Configuration[runConfigurations.size()]))
+          .start();
+      Snapshot last = recorder.snapshot();
+      return new Run(last.minus(first), last.getTimestampInNs() - first.getTimestampInNs());
+    } finally {
+      cacheManager.close();
+    }
+  }
+
+  private String formatEncoding() {
+    List<V> samples = new ArrayList<V>(nbSamples);
+    for (long seed = 0; seed < nbSamples; seed++) {
+      samples.add(sampleGenerator.generate(seed));
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format(ENCODING_FORMAT, "Serializer", "Bytes/entry", "Encode_ns", "Decode_ns")).append(CRLF);
+    for (Map.Entry<String, Class<? extends Serializer<V>>> serializer : serializers.entrySet()) {
+      try {
+        EncodingBenchmark.Result result = encodingBenchmark.measure(newSerializer(serializer.getValue()), samples);
+        sb.append(String.format(ENCODING_FORMAT, serializer.getKey(), String.format("%.1f", result.getBytesPerEntry()),
+            String.format("%.1f", result.getEncodingInNs()), String.format("%.1f", result.getDecodingInNs())))
+            .append(CRLF);
+      } catch (Exception e) {
+        throw new IllegalStateException("Serializer " + serializer.getKey() + " can't encode the samples.", e);
+      }
+    }
+    return sb.toString();
+  }
+
+  private Serializer<V> newSerializer(final Class<? extends Serializer<V>> serializerClass) {
+    try {
+      return serializerClass.getConstructor(ClassLoader.class).newInstance(valueClass.getClassLoader());
+    } catch (Exception e) {
+      throw new IllegalStateException("Serializer " + serializerClass.getName()
+                                      + " must have a public constructor taking a ClassLoader.", e);
+    }
+  }
+
+  private String formatLoad(final String name, final Run run) {
+    StringBuilder sb = new StringBuilder();
+    for (EhcacheResult result : EhcacheResult.values()) {
+      long count = run.snapshot.getCount(0, result);
+      if (count == 0) {
+        continue;
+      }
+      long tps = run.elapsedInNs <= 0 ? 0L : (long)(count * 1000000000d / run.elapsedInNs);
+      double averageLatencyInMs = run.snapshot.getTotalLatencyInNs(0, result) / 1000000d / count;
+      Histogram histogram = run.snapshot.getHistogram(0, result);
+      String p99 = histogram == null ? "-" : String.format("%.3f", histogram.getValueAtPercentile(99) / 1000d);
+      sb.append(String.format(LOAD_FORMAT, name, result.name(), count, tps, String.format("%.6f", averageLatencyInMs),
+          p99)).append(CRLF);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Builds a new scenario, with new operations, each time it is called
+   */
+  public interface ScenarioFactory {
+    Scenario scenario();
+  }
+
+  private static class Run {
+    final Snapshot snapshot;
+    final long elapsedInNs;
+
+    Run(final Snapshot snapshot, final long elapsedInNs) {
+      this.snapshot = snapshot;
+      this.elapsedInNs = elapsedInNs;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3.tier;
+
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import org.ehcache.Cache;
+import org.ehcache.statistics.StoreOperationOutcomes;
+import org.terracotta.context.ContextManager;
+import org.terracotta.context.TreeNode;
+import org.terracotta.statistics.OperationStatistic;
+import org.terracotta.statistics.observer.ChainedOperationObserver;
+
+import java.util.Map;
+
+/**
+ * Marks the put running in the current thread as evicting when the authoritative tier of a cache evicts : the tiers
+ * evict in the thread that puts, whereas the cache event listeners may be fired from other threads.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class EvictionObserver implements ChainedOperationObserver<StoreOperationOutcomes.EvictionOutcome> {
+
+  private final EvictionStatistics evictionStatistics;
+
+  private EvictionObserver(final EvictionStatistics evictionStatistics) {
+    this.evictionStatistics = evictionStatistics;
+  }
+
+  /**
+   * @throws IllegalStateException when the eviction statistic of the authoritative tier of the cache can't be found
+   */
+  @SuppressWarnings("unchecked")
+  public static void observe(final Cache<?, ?> cache, final EvictionStatistics evictionStatistics) {
+    Map<String, Object> tiers = TierProbe.findTiers(ContextManager.nodeFor(cache));
+    TreeNode tier = tiers == null ? null : ContextManager.nodeFor(tiers.get("authoritativeTier"));
+    if (tier != null) {
+      for (TreeNode child : tier.getChildren()) {
+        Map<String, Object> attributes = child.getContext().attributes();
+        if ("eviction".equals(attributes.get("name")) && attributes.get("this") instanceof OperationStatistic) {
+          ((OperationStatistic<StoreOperationOutcomes.EvictionOutcome>)attributes.get("this"))
+              .addDerivedStatistic(new EvictionObserver(evictionStatistics));
+          return;
+        }
+      }
+    }
+    throw new IllegalStateException("No eviction statistic found for the cache " + cache);
+  }
+
+  @Override
+  public void begin(final long time) {
+  }
+
+  @Override
+  public void end(final long time, final StoreOperationOutcomes.EvictionOutcome result) {
+    if (result == StoreOperationOutcomes.EvictionOutcome.SUCCESS) {
+      evictionStatistics.evicting();
+    }
+  }
+
+  @Override
+  public void end(final long time, final StoreOperationOutcomes.EvictionOutcome result, final long... parameters) {
+    end(time, result);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.tier;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import org.ehcache.Cache;
+import org.ehcache.exceptions.CacheAccessException;
+import org.ehcache.internal.store.disk.OffHeapDiskStore;
+import org.ehcache.internal.store.heap.OnHeapStore;
+import org.ehcache.internal.store.offheap.AbstractOffHeapStore;
+import org.ehcache.internal.store.tiering.CompoundCachingTier;
+import org.ehcache.spi.cache.Store;
+import org.terracotta.context.ContextManager;
+import org.terracotta.context.TreeNode;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.DISK_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.HEAP_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.OFFHEAP_HIT;
+
+/**
+ * Tells which tier of a cache serves the get of a key.
+ * <p/>
+ * Ehcache 3 doesn't count the hits of its tiers when a get goes down the tiers, so the caching tiers (heap, then
+ * offheap in front of a disk) are asked, before the get, whether they hold the key : a get finding a value is a hit of
+ * the first caching tier holding it, or else of the authoritative tier. The authoritative tier is never asked, so that
+ * a disk read isn't made before the measured get. With concurrent writes on the same keys, an entry may move between
+ * the question and the get.
+ * <p/>
+ * The heap and offheap tiers in front of a disk are read by reflection from the higher and lower fields of
+ * {@link CompoundCachingTier}, which aren't part of the API of Ehcache 3.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TierProbe {
+
+  private final List<Store<Object, ?>> cachingTiers = new ArrayList<Store<Object, ?>>();
+  private final List<EhcacheResult> cachingTierHits = new ArrayList<EhcacheResult>();
+  private final EhcacheResult authoritativeTierHit;
+
+  private TierProbe(final Object cachingTier, final Object authoritativeTier) {
+    if (cachingTier instanceof CompoundCachingTier) {
+      addCachingTier(field(cachingTier, "higher"));
+      addCachingTier(field(cachingTier, "lower"));
+    } else if (cachingTier != null) {
+      addCachingTier(cachingTier);
+    }
+    this.authoritativeTierHit = tierHit(authoritativeTier);
+  }
+
+  /**
+   * @throws IllegalStateException when the tiers of the cache can't be found
+   */
+  public static TierProbe tierProbe(final Cache<?, ?> cache) {
+    Map<String, Object> tiers = findTiers(ContextManager.nodeFor(cache));
+    if (tiers == null) {
+      throw new IllegalStateException("No tiers found for the cache " + cache);
+    }
+    return new TierProbe(tiers.get("cachingTier"), tiers.get("authoritativeTier"));
+  }
+
+  /**
+   * Each tier describes itself as an authoritative tier too : the tiers of the cache are the closest to its root.
+   */
+  static Map<String, Object> findTiers(final TreeNode root) {
+    if (root == null) {
+      return null;
+    }
+    Queue<TreeNode> nodes = new LinkedList<TreeNode>();
+    nodes.add(root);
+    while (!nodes.isEmpty()) {
+      TreeNode node = nodes.remove();
+      Map<String, Object> attributes = node.getContext().attributes();
+      if (attributes.containsKey("authoritativeTier")) {
+        return attributes;
+      }
+      nodes.addAll(node.getChildren());
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addCachingTier(final Object tier) {
+    if (!(tier instanceof Store)) {
+      throw new IllegalStateException("Unknown caching tier " + tier);
+    }
+    cachingTiers.add((Store<Object, ?>)tier);
+    cachingTierHits.add(tierHit(tier));
+  }
+
+  private static EhcacheResult tierHit(final Object tier) {
+    if (tier instanceof OnHeapStore) {
+      return HEAP_HIT;
+    } else if (tier instanceof OffHeapDiskStore) {
+      return DISK_HIT;
+    } else if (tier instanceof AbstractOffHeapStore) {
+      return OFFHEAP_HIT;
+    }
+    throw new IllegalStateException("Unknown tier " + tier);
+  }
+
+  private static Object field(final Object tier, final String name) {
+    try {
+      Field field = tier.getClass().getDeclaredField(name);
+      field.setAccessible(true);
+      return field.get(tier);
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException("Unknown caching tier " + tier, e);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Unknown caching tier " + tier, e);
+    }
+  }
+
+  /**
+   * @return the result of a get of the key that finds a value : {@link EhcacheResult#HEAP_HIT},
+   * {@link EhcacheResult#OFFHEAP_HIT} or {@link EhcacheResult#DISK_HIT}
+   */
+  public EhcacheResult hitOf(final Object key) {
+    for (int i = 0; i < cachingTiers.size(); i++) {
+      try {
+        if (cachingTiers.get(i).containsKey(key)) {
+          return cachingTierHits.get(i);
+        }
+      } catch (CacheAccessException e) {
+        // can't tell, looks further down
+      }
+    }
+    return authoritativeTierHit;
+  }
+
+  /**
+   * @return the hits of the tiers, from the top one
+   */
+  public List<EhcacheResult> getTierHits() {
+    List<EhcacheResult> tierHits = new ArrayList<EhcacheResult>(cachingTierHits);
+    tierHits.add(authoritativeTierHit);
+    return tierHits;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.tier;
+
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+
+/**
+ * Compact specification of the tiers of a cache, e.g. {@code heap(10000).offheap(64).persistentDisk(256)}, built by
+ * {@link io.rainfall.ehcache3.CacheConfig#cache(String, Tiers)}.
+ * <p/>
+ * The heap tier is mandatory and sized in entries only : Ehcache 3 can't size it in bytes yet.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Tiers {
+
+  private final long heapEntries;
+  private long offheapSizeInMb = 0;
+  private long diskSizeInMb = 0;
+  private boolean persistent = false;
+
+  private Tiers(final long heapEntries) {
+    this.heapEntries = positive(heapEntries, "Heap entries");
+  }
+
+  public static Tiers heap(final long entries) {
+    return new Tiers(entries);
+  }
+
+  public Tiers offheap(final long sizeInMb) {
+    if (offheapSizeInMb > 0) {
+      throw new IllegalStateException("Offheap tier already defined.");
+    }
+    this.offheapSizeInMb = positive(sizeInMb, "Offheap size");
+    return this;
+  }
+
+  /**
+   * A disk tier whose content is discarded when the cache manager closes.
+   */
+  public Tiers disk(final long sizeInMb) {
+    return disk(sizeInMb, false);
+  }
+
+  /**
+   * A disk tier whose content survives the cache manager.
+   */
+  public Tiers persistentDisk(final long sizeInMb) {
+    return disk(sizeInMb, true);
+  }
+
+  private Tiers disk(final long sizeInMb, final boolean persistent) {
+    if (diskSizeInMb > 0) {
+      throw new IllegalStateException("Disk tier already defined.");
+    }
+    this.diskSizeInMb = positive(sizeInMb, "Disk size");
+    this.persistent = persistent;
+    return this;
+  }
+
+  private static long positive(final long size, final String name) {
+    if (size < 1) {
+      throw new IllegalArgumentException(name + " must be positive.");
+    }
+    return size;
+  }
+
+  public boolean hasDisk() {
+    return diskSizeInMb > 0;
+  }
+
+  public boolean isPersistent() {
+    return persistent;
+  }
+
+  public ResourcePools toResourcePools() {
+    ResourcePoolsBuilder builder = ResourcePoolsBuilder.newResourcePoolsBuilder().heap(heapEntries, EntryUnit.ENTRIES);
+    if (offheapSizeInMb > 0) {
+      builder = builder.offheap(offheapSizeInMb, MemoryUnit.MB);
+    }
+    if (diskSizeInMb > 0) {
+      builder = builder.disk(diskSizeInMb, MemoryUnit.MB, persistent);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("heap:").append(heapEntries);
+    if (offheapSizeInMb > 0) {
+      sb.append(",offheap:").append(offheapSizeInMb).append("MB");
+    }
+    if (diskSizeInMb > 0) {
+      sb.append(persistent ? ",persistentDisk:" : ",disk:").append(diskSizeInMb).append("MB");
+    }
+    return sb.toString();
+  }
+}
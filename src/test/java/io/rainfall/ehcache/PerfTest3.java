@@ -16,14 +16,21 @@
 
 package io.rainfall.ehcache;
 
+import io.rainfall.EhcacheOperation;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.Runner;
 import io.rainfall.Scenario;
 import io.rainfall.SyntaxException;
 import io.rainfall.configuration.ConcurrencyConfig;
 import io.rainfall.configuration.ReportingConfig;
+import io.rainfall.ehcache.generator.pojo.Customer;
+import io.rainfall.ehcache.generator.pojo.CustomerGenerator;
 import io.rainfall.ehcache.statistics.EhcacheResult;
 import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.expiry.CompressedTimeSource;
+import io.rainfall.ehcache3.serializer.CustomerSerializer;
+import io.rainfall.ehcache3.serializer.JavaObjectSerializer;
+import io.rainfall.ehcache3.serializer.SerializerBenchmark;
 import io.rainfall.generator.ByteArrayGenerator;
 import io.rainfall.generator.LongGenerator;
 import io.rainfall.statistics.StatisticsPeekHolder;
@@ -31,21 +38,41 @@ import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.ehcache.config.CacheConfigurationBuilder;
 import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.File;
+
 import static io.rainfall.Unit.users;
 import static io.rainfall.configuration.ReportingConfig.html;
 import static io.rainfall.configuration.ReportingConfig.report;
 import static io.rainfall.configuration.ReportingConfig.text;
+import static io.rainfall.ehcache.generator.SizedByteArrayGenerator.sizedByteArrays;
+import static io.rainfall.ehcache.generator.ValueSizeDistribution.logNormal;
+import static io.rainfall.ehcache.generator.pojo.CustomerGenerator.customers;
+import static io.rainfall.ehcache.reporting.ByteReporter.bytes;
+import static io.rainfall.ehcache.reporting.EvictionReporter.evictions;
+import static io.rainfall.ehcache.reporting.ExpiryReporter.expiries;
+import static io.rainfall.ehcache.reporting.LatencyTimelineReporter.latencyTimeline;
+import static io.rainfall.ehcache.reporting.PacingReporter.pacing;
+import static io.rainfall.ehcache.reporting.StripedStatisticsReporter.stripedStatistics;
+import static io.rainfall.ehcache.statistics.EhcacheResult.DISK_HIT;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.HEAP_HIT;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.OFFHEAP_HIT;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
 import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
 import static io.rainfall.ehcache3.Ehcache3Operations.get;
 import static io.rainfall.ehcache3.Ehcache3Operations.put;
 import static io.rainfall.ehcache3.Ehcache3Operations.removeForKeyAndValue;
+import static io.rainfall.ehcache3.expiry.CompressedTimeSource.compressedTime;
+import static io.rainfall.ehcache3.execution.Preload.preload;
+import static io.rainfall.ehcache3.execution.Restart.restart;
+import static io.rainfall.ehcache3.serializer.SerializerBenchmark.serializerBenchmark;
+import static io.rainfall.ehcache3.tier.Tiers.heap;
 import static io.rainfall.execution.Executions.during;
 import static io.rainfall.execution.Executions.once;
 import static io.rainfall.execution.Executions.times;
@@ -53,6 +80,7 @@ import static io.rainfall.generator.sequence.Distribution.GAUSSIAN;
 import static io.rainfall.unit.TimeDivision.minutes;
 import static io.rainfall.unit.TimeDivision.seconds;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.ehcache.CacheManagerBuilder.newCacheManagerBuilder;
 import static org.ehcache.config.ResourcePoolsBuilder.newResourcePoolsBuilder;
 
@@ -177,6 +205,44 @@ public class PerfTest3 {
     cacheManager.close();
   }
 
+  @Test
+  @Ignore
+  public void testTpsLimitWithCoordinatedOmissionCorrection() throws SyntaxException {
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    builder.withResourcePools(newResourcePoolsBuilder().heap(250000, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.buildConfig(Long.class, Byte[].class))
+        .build(true);
+
+    final Cache<Long, Byte[]> one = cacheManager.getCache("one", Long.class, Byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig().threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1000);
+
+    EhcacheResult[] resultsReported = new EhcacheResult[] { GET, PUT, MISS };
+
+    EhcacheOperation<Long, byte[]> put = put(Long.class, byte[].class, 50000)
+        .using(keyGenerator, valueGenerator).sequentially()
+        .withCoordinatedOmissionCorrection();
+    Scenario scenario = Scenario.scenario("Test phase").exec(put);
+
+    System.out.println("----------> Test phase");
+    Runner.setUp(scenario)
+        .executed(once(4, users), during(10, seconds))
+        .config(concurrency,
+            ReportingConfig.report(EhcacheResult.class, resultsReported)
+                .log(text(), html(), pacing(put)))
+        .config(cacheConfig(Long.class, Byte[].class).cache("one", one)
+        )
+        .start();
+    System.out.println("----------> Done");
+
+    cacheManager.close();
+  }
+
   @Test
   @Ignore
   public void testWarmup() throws SyntaxException {
@@ -268,6 +334,131 @@ public class PerfTest3 {
     cacheManager.close();
   }
 
+  @Test
+  @Ignore
+  public void testValueSizes() throws SyntaxException {
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    builder.withResourcePools(newResourcePoolsBuilder().heap(250000, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.buildConfig(Long.class, Byte[].class))
+        .withCache("two", builder.buildConfig(Long.class, Byte[].class))
+        .build(true);
+
+    final Cache<Long, Byte[]> one = cacheManager.getCache("one", Long.class, Byte[].class);
+    final Cache<Long, Byte[]> two = cacheManager.getCache("two", Long.class, Byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = sizedByteArrays(logNormal(1000, 1.0, 256 * 1024));
+
+    EhcacheResult[] resultsReported = new EhcacheResult[] { GET, PUT, MISS };
+
+    Scenario scenario = Scenario.scenario("Test phase").exec(
+        put(Long.class, byte[].class).using(keyGenerator, valueGenerator).sequentially(),
+        get(Long.class, byte[].class).using(keyGenerator, valueGenerator).sequentially()
+    );
+
+    System.out.println("----------> Warm up phase");
+    Runner.setUp(scenario)
+        .executed(during(15, seconds))
+        .config(concurrency,
+            ReportingConfig.report(EhcacheResult.class, resultsReported).log(text()))
+        .config(cacheConfig(Long.class, Byte[].class).cache("one", one).cache("two", two)
+        )
+        .start();
+
+    System.out.println("----------> Test phase");
+    CacheConfig<Long, Byte[]> cacheConfig = cacheConfig(Long.class, Byte[].class).cache("one", one).cache("two", two);
+    Runner.setUp(
+        scenario)
+        .executed(during(30, seconds))
+        .config(concurrency,
+            ReportingConfig.report(EhcacheResult.class, resultsReported).log(text(), html(), bytes(cacheConfig)))
+        .config(cacheConfig)
+        .start();
+    System.out.println("----------> Done");
+
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testSerialization() throws SyntaxException {
+    CacheConfigurationBuilder<Object, Object> heapBuilder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    heapBuilder.withResourcePools(newResourcePoolsBuilder().heap(250000, EntryUnit.ENTRIES).build());
+    CacheConfigurationBuilder<Object, Object> offheapBuilder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    offheapBuilder.withResourcePools(newResourcePoolsBuilder().heap(1000, EntryUnit.ENTRIES).offheap(1, MemoryUnit.GB).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("heap", heapBuilder.buildConfig(Long.class, Customer.class))
+        .withCache("offheap", offheapBuilder.buildConfig(Long.class, Customer.class))
+        .build(true);
+
+    final Cache<Long, Customer> heap = cacheManager.getCache("heap", Long.class, Customer.class);
+    final Cache<Long, Customer> offheap = cacheManager.getCache("offheap", Long.class, Customer.class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<Customer> valueGenerator = customers().orders(5).serializedSize(4096).templates(10000);
+
+    EhcacheResult[] resultsReported = new EhcacheResult[] { GET, PUT, MISS };
+
+    Scenario scenario = Scenario.scenario("Serialization").exec(
+        put(Long.class, Customer.class).withWeight(0.10)
+            .using(keyGenerator, valueGenerator).atRandom(GAUSSIAN, 0, 250000, 25000),
+        get(Long.class, Customer.class).withWeight(0.90)
+            .using(keyGenerator, valueGenerator).atRandom(GAUSSIAN, 0, 250000, 25000)
+    );
+
+    CacheConfig<Long, Customer> cacheConfig = cacheConfig(Long.class, Customer.class)
+        .cache("heap", heap).cache("offheap", offheap);
+    Runner.setUp(scenario)
+        .executed(during(1, minutes))
+        .config(concurrency,
+            ReportingConfig.report(EhcacheResult.class, resultsReported).log(text(), bytes(cacheConfig)))
+        .config(cacheConfig)
+        .start();
+
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testSerializers() throws SyntaxException {
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(50, MINUTES);
+
+    final ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    final CustomerGenerator valueGenerator = customers().orders(5).serializedSize(4096);
+
+    // each serializer runs new operations, on the same stream of keys
+    SerializerBenchmark.ScenarioFactory scenario = new SerializerBenchmark.ScenarioFactory() {
+      @Override
+      public Scenario scenario() {
+        return Scenario.scenario("Serializers").exec(
+            put(Long.class, Customer.class).withWeight(0.10)
+                .using(keyGenerator, valueGenerator.templates(10000)).atRandom(GAUSSIAN, 0, 250000, 25000),
+            get(Long.class, Customer.class).withWeight(0.90)
+                .using(keyGenerator, valueGenerator.templates(10000)).atRandom(GAUSSIAN, 0, 250000, 25000)
+        );
+      }
+    };
+
+    serializerBenchmark(Long.class, Customer.class)
+        .serializer("java", JavaObjectSerializer.class)
+        .serializer("compact", CustomerSerializer.class)
+        .resourcePools(newResourcePoolsBuilder().heap(1000, EntryUnit.ENTRIES).offheap(1, MemoryUnit.GB).build())
+        .scenario(scenario, during(1, minutes))
+        .config(concurrency, ReportingConfig.report(EhcacheResult.class, new EhcacheResult[] { GET, PUT, MISS }))
+        .samples(valueGenerator, 1000)
+        .start();
+  }
+
   @Test
   @Ignore
   public void testLoad() throws SyntaxException {
@@ -296,11 +487,8 @@ public class PerfTest3 {
     EhcacheResult[] resultsReported = new EhcacheResult[] { PUT, PUTALL, MISS };
 
     System.out.println("----------> Warm up phase");
-    Runner.setUp(
-        Scenario.scenario("Warm up phase").exec(
-            put(Long.class, byte[].class).using(keyGenerator, valueGenerator).sequentially()
-        ))
-        .executed(times(nbElements))
+    Runner.setUp(Scenario.scenario("Warm up phase"))
+        .executed(preload(Long.class, byte[].class, nbElements).using(keyGenerator, valueGenerator).inChunksOf(5000))
         .config(concurrency, ReportingConfig.report(EhcacheResult.class, resultsReported).log(text()))
         .config(cacheConfig(Long.class, Byte[].class)
                 .cache("one", one).cache("two", two).cache("three", three).cache("four", four)
@@ -437,4 +625,177 @@ public class PerfTest3 {
     ;
     cacheManager.close();
   }
+
+  @Test
+  @Ignore
+  public void testLatencyTimeline() throws SyntaxException {
+    int nbElements = 5000000;
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    builder.withResourcePools(newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.buildConfig(Long.class, Long.class))
+        .build(true);
+
+    final Cache<Long, Long> one = cacheManager.getCache("one", Long.class, Long.class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(30, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<Long> valueGenerator = new LongGenerator();
+
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class).cache("one", one).stripedStatistics();
+    ReportingConfig reportingConfig = ReportingConfig.report(EhcacheResult.class)
+        .log(stripedStatistics(cacheConfig), latencyTimeline(cacheConfig));
+
+    Runner.setUp(
+        Scenario.scenario("Test phase").exec(
+            put(Long.class, Long.class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, nbElements, nbElements / 10)
+        ))
+        .executed(during(10, minutes))
+        .config(concurrency, reportingConfig)
+        .config(cacheConfig)
+        .start()
+    ;
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testEvictions() throws SyntaxException {
+    int capacity = 500000;
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    builder.withResourcePools(newResourcePoolsBuilder().heap(capacity, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.buildConfig(Long.class, Long.class))
+        .build(true);
+
+    final Cache<Long, Long> one = cacheManager.getCache("one", Long.class, Long.class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(30, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<Long> valueGenerator = new LongGenerator();
+
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class).cache("one", one).evictionStatistics();
+    ReportingConfig reportingConfig = ReportingConfig.report(EhcacheResult.class)
+        .log(text(), evictions(cacheConfig));
+
+    // the working set grows past the capacity : 10x the entries the cache can hold
+    Runner.setUp(
+        Scenario.scenario("Test phase").exec(
+            put(Long.class, Long.class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, capacity * 10, capacity),
+            get(Long.class, Long.class).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, capacity * 10, capacity)
+        ))
+        .executed(during(10, minutes))
+        .config(concurrency, reportingConfig)
+        .config(cacheConfig)
+        .start()
+    ;
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testExpiry() throws SyntaxException {
+    // an hour of the caches elapses in a minute
+    CompressedTimeSource timeSource = compressedTime(60);
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .using(timeSource.configuration())
+        .withCache("one", CacheConfig.timeToLiveCache(Long.class, Long.class,
+            newResourcePoolsBuilder().heap(1000000, EntryUnit.ENTRIES).build(), 30, MINUTES))
+        .build(true);
+
+    final Cache<Long, Long> one = cacheManager.getCache("one", Long.class, Long.class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(30, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<Long> valueGenerator = new LongGenerator();
+
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class).cache("one", one).expiryStatistics();
+    ReportingConfig reportingConfig = ReportingConfig.report(EhcacheResult.class)
+        .log(text(), expiries(cacheConfig));
+
+    Runner.setUp(
+        Scenario.scenario("Test phase").exec(
+            put(Long.class, Long.class).withWeight(0.10).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, 1000000, 100000),
+            get(Long.class, Long.class).withWeight(0.90).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, 1000000, 100000)
+        ))
+        .executed(during(5, minutes))
+        .config(concurrency, reportingConfig)
+        .config(cacheConfig)
+        .start()
+    ;
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testTiers() throws SyntaxException {
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(4).timeout(30, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1024);
+
+    CacheConfig<Long, byte[]> cacheConfig = cacheConfig(Long.class, byte[].class)
+        .directory(new File("rainfall-tiers"))
+        .cache("heap", heap(100000))
+        .cache("offheap", heap(10000).offheap(512))
+        .cache("disk", heap(10000).offheap(128).disk(1024))
+        .dedicatedThreadsPerCache()
+        .tierStatistics();
+    ReportingConfig reportingConfig = ReportingConfig.report(EhcacheResult.class,
+        new EhcacheResult[] { HEAP_HIT, OFFHEAP_HIT, DISK_HIT, MISS, PUT })
+        .log(text(), html());
+
+    Runner.setUp(
+        Scenario.scenario("Test phase").exec(
+            put(Long.class, byte[].class).withWeight(0.10).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, 500000, 100000),
+            get(Long.class, byte[].class).withWeight(0.90).using(keyGenerator, valueGenerator)
+                .atRandom(GAUSSIAN, 0, 500000, 100000)
+        ))
+        .executed(during(5, minutes))
+        .config(concurrency, reportingConfig)
+        .config(cacheConfig)
+        .start()
+    ;
+    cacheConfig.close();
+  }
+
+  @Test
+  @Ignore
+  public void testRestart() throws SyntaxException {
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig()
+        .threads(1).timeout(30, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = ByteArrayGenerator.fixedLength(1024);
+
+    CacheConfig<Long, byte[]> cacheConfig = cacheConfig(Long.class, byte[].class)
+        .directory(new File("rainfall-restart"))
+        .cache("persistent", heap(10000).offheap(256).persistentDisk(4096));
+    ReportingConfig reportingConfig = ReportingConfig.report(EhcacheResult.class).log(text());
+
+    Runner.setUp(Scenario.scenario("Restart phase"))
+        .executed(restart(Long.class, byte[].class, 100000, 500000, 1000000, 2000000)
+            .using(keyGenerator, valueGenerator)
+            .warmUp(30, 1, SECONDS))
+        .config(concurrency, reportingConfig)
+        .config(cacheConfig)
+        .start()
+    ;
+    cacheConfig.close();
+  }
 }
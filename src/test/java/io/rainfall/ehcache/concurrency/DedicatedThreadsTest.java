@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.concurrency;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class DedicatedThreadsTest {
+
+  @Test
+  public void testThreadsAreSpreadOverCaches() throws InterruptedException {
+    final DedicatedThreads<String> dedicatedThreads = new DedicatedThreads<String>(Arrays.asList("one", "two"));
+    assertThat(dedicatedThreads.getCacheForCurrentThread(), is("one"));
+    assertThat(dedicatedThreads.getCacheForCurrentThread(), is("one"));
+
+    final AtomicReference<String> second = new AtomicReference<String>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        second.set(dedicatedThreads.getCacheForCurrentThread());
+      }
+    };
+    thread.start();
+    thread.join();
+    assertThat(second.get(), is("two"));
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.generator.LongGenerator;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class AbstractPreloadTest {
+
+  @Test
+  public void testEveryKeyIsLoadedOnce() throws TestException {
+    RecordingPreload preload = new RecordingPreload(10007);
+    preload.using(new LongGenerator(), new LongGenerator()).inChunksOf(100);
+
+    preload.execute(null, null, configurations(4), null);
+
+    for (int i = 0; i < 10007; i++) {
+      assertThat(preload.loads.get(i), is(1));
+    }
+  }
+
+  @Test
+  public void testFailureOfAChunkFailsThePreload() {
+    AbstractPreload<Long, Long> preload = new AbstractPreload<Long, Long>(1000) {
+      @Override
+      protected int startLoading(final Map<Class<? extends Configuration>, Configuration> configurations) {
+        return 1;
+      }
+
+      @Override
+      protected void loadChunk(final long from, final long to) {
+        if (from == 500) {
+          throw new IllegalStateException("can't load");
+        }
+      }
+    };
+    preload.using(new LongGenerator(), new LongGenerator()).inChunksOf(100);
+    try {
+      preload.execute(null, null, configurations(2), null);
+      throw new AssertionError("Expected a TestException");
+    } catch (TestException e) {
+      assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGeneratorsMustBeSet() throws TestException {
+    new RecordingPreload(10).execute(null, null, configurations(1), null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNumberOfElementsMustBePositive() {
+    new RecordingPreload(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChunkSizeMustBePositive() {
+    new RecordingPreload(10).inChunksOf(0);
+  }
+
+  private static Map<Class<? extends Configuration>, Configuration> configurations(final int nbThreads) {
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(ConcurrencyConfig.class, ConcurrencyConfig.concurrencyConfig().threads(nbThreads)
+        .timeout(1, MINUTES));
+    return configurations;
+  }
+
+  private static class RecordingPreload extends AbstractPreload<Long, Long> {
+    final AtomicIntegerArray loads;
+
+    RecordingPreload(final int nbElements) {
+      super(nbElements);
+      this.loads = new AtomicIntegerArray(Math.max(nbElements, 0));
+    }
+
+    @Override
+    protected int startLoading(final Map<Class<? extends Configuration>, Configuration> configurations) {
+      return 1;
+    }
+
+    @Override
+    protected void loadChunk(final long from, final long to) {
+      for (long seed = from; seed < to; seed++) {
+        loads.incrementAndGet(generateKey(seed).intValue());
+      }
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Operation;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.rainfall.Scenario.scenario;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class AbstractUntilCacheFullTest {
+
+  @Test(timeout = 10000)
+  public void testWorkersStopOnceTheMonitorSeesTheCachesFull() throws TestException {
+    CountingOperation operation = new CountingOperation();
+    FullAfter execution = new FullAfter(3);
+    execution.sampledEvery(10, MILLISECONDS);
+
+    execution.execute(null, scenario("fill").exec(operation), configurations(4), null);
+
+    assertThat(execution.samples.get(), is(greaterThanOrEqualTo(3)));
+    assertThat(execution.started.get(), is(1));
+    assertThat(execution.stopped.get(), is(1));
+    assertThat(operation.invocations.get(), is(greaterThan(0L)));
+    long invocations = operation.invocations.get();
+    sleep(50);
+    assertThat(operation.invocations.get(), is(invocations));
+  }
+
+  @Test(timeout = 10000)
+  public void testWorkersStopWhenTheSamplingFails() throws TestException {
+    CountingOperation operation = new CountingOperation();
+    AbstractUntilCacheFull execution = new AbstractUntilCacheFull() {
+      @Override
+      protected void startMonitoring(final Map<Class<? extends Configuration>, Configuration> configurations) {
+      }
+
+      @Override
+      protected boolean cachesAreFull() {
+        throw new IllegalStateException("can't sample");
+      }
+
+      @Override
+      protected void stopMonitoring() {
+      }
+    };
+    execution.sampledEvery(10, MILLISECONDS);
+
+    // returns long before the timeout of the ConcurrencyConfig
+    execution.execute(null, scenario("fill").exec(operation), configurations(2), null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSamplingIntervalMustBePositive() {
+    new FullAfter(1).sampledEvery(0, TimeUnit.SECONDS);
+  }
+
+  private static Map<Class<? extends Configuration>, Configuration> configurations(final int nbThreads) {
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(ConcurrencyConfig.class, ConcurrencyConfig.concurrencyConfig().threads(nbThreads)
+        .timeout(1, MINUTES));
+    return configurations;
+  }
+
+  private static void sleep(final long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class FullAfter extends AbstractUntilCacheFull {
+    private final int nbSamples;
+    final AtomicInteger samples = new AtomicInteger();
+    final AtomicInteger started = new AtomicInteger();
+    final AtomicInteger stopped = new AtomicInteger();
+
+    FullAfter(final int nbSamples) {
+      this.nbSamples = nbSamples;
+    }
+
+    @Override
+    protected void startMonitoring(final Map<Class<? extends Configuration>, Configuration> configurations) {
+      started.incrementAndGet();
+    }
+
+    @Override
+    protected boolean cachesAreFull() {
+      return samples.incrementAndGet() >= nbSamples;
+    }
+
+    @Override
+    protected void stopMonitoring() {
+      stopped.incrementAndGet();
+    }
+  }
+
+  private static class CountingOperation extends Operation {
+    final AtomicLong invocations = new AtomicLong();
+
+    @Override
+    public void exec(final StatisticsHolder statisticsHolder,
+                     final Map<Class<? extends Configuration>, Configuration> configurations,
+                     final List<AssertionEvaluator> assertions) {
+      invocations.incrementAndGet();
+      Thread.yield();
+    }
+  }
+}
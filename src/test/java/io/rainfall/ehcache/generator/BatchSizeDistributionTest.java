@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import org.junit.Test;
+
+import static io.rainfall.ehcache.generator.BatchSizeDistribution.histogram;
+import static io.rainfall.ehcache.generator.BatchSizeDistribution.uniform;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class BatchSizeDistributionTest {
+
+  @Test
+  public void testUniformStaysInRange() {
+    BatchSizeDistribution distribution = uniform(5, 8);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(distribution.next(), is(both(greaterThanOrEqualTo(5)).and(lessThanOrEqualTo(8))));
+    }
+    assertThat(distribution.getMaxSize(), is(8));
+  }
+
+  @Test
+  public void testHistogramSkipsZeroWeights() {
+    BatchSizeDistribution distribution = histogram(new int[] { 1, 10, 100 }, new double[] { 0, 1, 0 });
+    for (int i = 0; i < 1000; i++) {
+      assertThat(distribution.next(), is(10));
+    }
+    assertThat(distribution.getMaxSize(), is(100));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHistogramNeedsOneWeightPerSize() {
+    histogram(new int[] { 1, 10 }, new double[] { 1 });
+  }
+}
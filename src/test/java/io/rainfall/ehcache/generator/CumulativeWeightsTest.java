@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class CumulativeWeightsTest {
+
+  @Test
+  public void testUnitsFallInTheShareOfEachWeight() {
+    CumulativeWeights weights = new CumulativeWeights(new double[] { 1, 0, 3 });
+    assertThat(weights.indexOf(0), is(0));
+    assertThat(weights.indexOf(0.2499), is(0));
+    // the zero weight has an empty share, never picked
+    assertThat(weights.indexOf(0.25), is(2));
+    assertThat(weights.indexOf(0.9999), is(2));
+  }
+
+  @Test
+  public void testLeadingAndTrailingZeroWeightsAreNeverPicked() {
+    CumulativeWeights weights = new CumulativeWeights(new double[] { 0, 0, 1, 0 });
+    assertThat(weights.indexOf(0), is(2));
+    assertThat(weights.indexOf(0.9999), is(2));
+  }
+
+  @Test
+  public void testIndexesArePickedByWeight() {
+    CumulativeWeights weights = new CumulativeWeights(new double[] { 9, 1 });
+    int zeros = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (weights.next() == 0) {
+        zeros++;
+      }
+    }
+    assertThat(zeros, is(both(greaterThan(8500)).and(lessThan(9500))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWeight() {
+    new CumulativeWeights(new double[] { 1, -1 });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAllZeroWeights() {
+    new CumulativeWeights(new double[] { 0, 0 });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoWeight() {
+    new CumulativeWeights(new double[0]);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.generator.ByteArrayGenerator;
+import io.rainfall.generator.LongGenerator;
+import org.junit.Test;
+
+import static io.rainfall.ehcache.generator.KeyPool.keyPool;
+import static io.rainfall.ehcache.generator.ValueArena.valueArena;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class PooledGeneratorTest {
+
+  @Test
+  public void testKeysArePrecomputed() {
+    KeyPool<Long> pool = keyPool(new LongGenerator(), 1000);
+    pool.warmUp();
+    assertThat(pool.size(), is(1000));
+    assertThat(pool.get(500L), is(equalTo(500L)));
+    assertThat(pool.get(500L), is(sameInstance(pool.get(500L))));
+  }
+
+  @Test
+  public void testKeysOutsideOfThePoolAreGenerated() {
+    KeyPool<Long> pool = keyPool(new LongGenerator(), 10);
+    assertThat(pool.get(5000L), is(equalTo(5000L)));
+    assertThat(pool.get(-1L), is(equalTo(-1L)));
+  }
+
+  @Test
+  public void testValuesAreReusedModuloArenaSize() {
+    ValueArena<byte[]> arena = valueArena(ByteArrayGenerator.fixedLength(100), 10);
+    assertThat(arena.get(3L), is(sameInstance(arena.get(13L))));
+    assertThat(arena.get(-7L), is(sameInstance(arena.get(3L))));
+  }
+
+  @Test
+  public void testMemoryBudgetLimitsPoolSize() {
+    PooledGenerator<byte[]> arena = valueArena(ByteArrayGenerator.fixedLength(1000), 1000).withMemoryBudget(100 * 1024);
+    arena.warmUp();
+    assertThat(arena.size(), is(100 * 1024 / (1016 + 8)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMemoryBudgetTooSmall() {
+    valueArena(ByteArrayGenerator.fixedLength(1000), 1000).withMemoryBudget(100).warmUp();
+  }
+}
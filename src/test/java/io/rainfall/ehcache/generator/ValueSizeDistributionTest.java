@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static io.rainfall.ehcache.generator.SizedByteArrayGenerator.sizedByteArrays;
+import static io.rainfall.ehcache.generator.ValueSizeDistribution.histogram;
+import static io.rainfall.ehcache.generator.ValueSizeDistribution.logNormal;
+import static io.rainfall.ehcache.generator.ValueSizeDistribution.uniform;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class ValueSizeDistributionTest {
+
+  @Test
+  public void testSizeIsTheSameForTheSameSeed() {
+    ValueSizeDistribution distribution = logNormal(1000, 1.0, 100000);
+    for (long seed = 0; seed < 1000; seed++) {
+      assertThat(distribution.sizeOf(seed), is(distribution.sizeOf(seed)));
+    }
+  }
+
+  @Test
+  public void testUniformStaysInRange() {
+    ValueSizeDistribution distribution = uniform(10, 20);
+    boolean[] seen = new boolean[21];
+    for (long seed = 0; seed < 10000; seed++) {
+      int size = distribution.sizeOf(seed);
+      assertThat(size, is(both(greaterThanOrEqualTo(10)).and(lessThanOrEqualTo(20))));
+      seen[size] = true;
+    }
+    assertThat(seen[10] && seen[20], is(true));
+  }
+
+  @Test
+  public void testLogNormalHasTheRequestedMedian() {
+    ValueSizeDistribution distribution = logNormal(1000, 1.0, 1000000);
+    int[] sizes = new int[100001];
+    for (int seed = 0; seed < sizes.length; seed++) {
+      sizes[seed] = distribution.sizeOf(seed);
+    }
+    Arrays.sort(sizes);
+    assertThat(sizes[sizes.length / 2], is(both(greaterThanOrEqualTo(950)).and(lessThanOrEqualTo(1050))));
+    assertThat(sizes[sizes.length - 1], is(lessThanOrEqualTo(1000000)));
+  }
+
+  @Test
+  public void testHistogramDrawsWithinTheBuckets() {
+    ValueSizeDistribution distribution = histogram(new int[] { 100, 1000, 10000 }, new double[] { 0, 1, 0 });
+    for (long seed = 0; seed < 1000; seed++) {
+      assertThat(distribution.sizeOf(seed), is(both(greaterThanOrEqualTo(101)).and(lessThanOrEqualTo(1000))));
+    }
+    assertThat(distribution.getMaxSize(), is(10000));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testHistogramBoundsMustBeAscending() {
+    histogram(new int[] { 1000, 100 }, new double[] { 1, 1 });
+  }
+
+  @Test
+  public void testGeneratedValuesAreDeterministic() {
+    SizedByteArrayGenerator generator = sizedByteArrays(uniform(0, 5000));
+    for (long seed = 0; seed < 100; seed++) {
+      byte[] value = generator.generate(seed);
+      assertThat(value.length, is(generator.getSizes().sizeOf(seed)));
+      assertThat(Arrays.equals(value, generator.generate(seed)), is(true));
+    }
+  }
+}
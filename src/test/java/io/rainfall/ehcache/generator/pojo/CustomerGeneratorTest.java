@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.pojo;
+
+import io.rainfall.ehcache.generator.ValueArena;
+import org.junit.Test;
+
+import static io.rainfall.ehcache.generator.pojo.CustomerGenerator.customers;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class CustomerGeneratorTest {
+
+  @Test
+  public void testSameSeedGivesEqualCustomers() {
+    CustomerGenerator generator = customers().orders(5).attributes(2);
+    Customer customer = generator.generate(42L);
+    assertThat(customer, is(equalTo(generator.generate(42L))));
+    assertThat(customer, is(not(equalTo(generator.generate(43L)))));
+    assertThat(customer.getOrders().size(), is(5));
+    assertThat(customer.getAttributes().size(), is(2));
+  }
+
+  @Test
+  public void testSerializedSizeIsPadded() {
+    for (int target : new int[] { 2048, 100000 }) {
+      CustomerGenerator generator = customers().serializedSize(target);
+      for (long seed = 0; seed < 10; seed++) {
+        Customer customer = generator.generate(seed);
+        assertThat(CustomerGenerator.serializedSizeOf(customer), is(target));
+        assertThat(customer.getSerializedSize(), is(target));
+      }
+    }
+  }
+
+  @Test
+  public void testSerializedSizeCantBeSmallerThanTheFields() {
+    Customer customer = customers().orders(10).serializedSize(10).generate(0L);
+    assertThat(customer.getNotes().length(), is(0));
+    assertThat(customer.getSerializedSize(), is(CustomerGenerator.serializedSizeOf(customer)));
+  }
+
+  @Test
+  public void testTemplatesAreBuiltOnce() {
+    ValueArena<Customer> templates = customers().templates(100);
+    assertThat(templates.get(7L), is(sameInstance(templates.get(107L))));
+  }
+}
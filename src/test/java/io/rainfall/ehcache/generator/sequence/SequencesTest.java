@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator.sequence;
+
+import io.rainfall.SequenceGenerator;
+import org.junit.Test;
+
+import static io.rainfall.ehcache.generator.sequence.Sequences.hotspot;
+import static io.rainfall.ehcache.generator.sequence.Sequences.latest;
+import static io.rainfall.ehcache.generator.sequence.Sequences.scrambledZipfian;
+import static io.rainfall.ehcache.generator.sequence.Sequences.zipfian;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class SequencesTest {
+
+  private static final int NB_DRAWS = 100000;
+
+  @Test
+  public void testZipfianFavorsTheFirstKeys() {
+    long[] counts = draw(zipfian(100, 1100, 0.99), 100, 1000);
+    assertThat(counts[0], is(greaterThan(counts[1])));
+    assertThat(counts[1], is(greaterThan(counts[10])));
+    assertThat(counts[10], is(greaterThan(counts[500])));
+  }
+
+  @Test
+  public void testScrambledZipfianStaysInRange() {
+    long[] counts = draw(scrambledZipfian(100, 1100, 0.99), 100, 1000);
+    long max = 0;
+    for (long count : counts) {
+      max = Math.max(max, count);
+    }
+    // the most popular key still gets a large share of the operations
+    assertThat(max, is(greaterThan(NB_DRAWS / 100L)));
+  }
+
+  @Test
+  public void testHotspotSendsMostOperationsToTheHotKeys() {
+    long[] counts = draw(hotspot(0, 1000, 0.1, 0.9), 0, 1000);
+    long hot = 0;
+    for (int i = 0; i < 100; i++) {
+      hot += counts[i];
+    }
+    assertThat(hot, is(both(greaterThan(NB_DRAWS * 85L / 100)).and(lessThan(NB_DRAWS * 95L / 100))));
+  }
+
+  @Test
+  public void testLatestFavorsTheLastInsertions() {
+    LatestSequenceGenerator latest = latest(0, 1000, 0.99, 0);
+    SequenceGenerator insertions = latest.insertions();
+    for (int i = 0; i < 500; i++) {
+      assertThat(insertions.next(), is((long)i));
+    }
+    long[] counts = draw(latest, 0, 500);
+    assertThat(counts[499], is(greaterThan(counts[498])));
+    assertThat(counts[498], is(greaterThan(counts[250])));
+  }
+
+  private long[] draw(final SequenceGenerator generator, final long min, final int nbKeys) {
+    long[] counts = new long[nbKeys];
+    for (int i = 0; i < NB_DRAWS; i++) {
+      long next = generator.next();
+      assertThat(next, is(both(greaterThanOrEqualTo(min)).and(lessThan(min + nbKeys))));
+      counts[(int)(next - min)]++;
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.pacing;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class PacerTest {
+
+  @Test
+  public void testSlotsAreOnAFixedSchedule() {
+    Pacer pacer = new Pacer(1000);
+    long first = pacer.acquire();
+    for (int i = 1; i < 50; i++) {
+      long intendedStart = pacer.acquire();
+      assertThat(intendedStart - first, is(equalTo(i * 1000000L)));
+      assertThat(System.nanoTime(), is(greaterThanOrEqualTo(intendedStart)));
+    }
+    assertThat(pacer.getStartedCount(), is(50L));
+  }
+
+  @Test
+  public void testLateSlotsAreNotDropped() throws InterruptedException {
+    Pacer pacer = new Pacer(10000);
+    pacer.acquire();
+    Thread.sleep(10);
+    assertThat(pacer.getScheduledCount(), is(greaterThanOrEqualTo(100L)));
+    for (int i = 0; i < 99; i++) {
+      pacer.acquire();
+    }
+    assertThat(pacer.getStartedCount(), is(100L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTpsLimitMustBePositive() {
+    new Pacer(0);
+  }
+}
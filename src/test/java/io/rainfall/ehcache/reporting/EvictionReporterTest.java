@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class EvictionReporterTest {
+
+  @Test
+  public void testFollowsTheCachesAddedLater() {
+    List<String> cacheNames = new ArrayList<String>();
+    cacheNames.add("one");
+    EvictionStatistics evictionStatistics = new EvictionStatistics(cacheNames);
+    EvictionReporter<?> reporter = new EvictionReporter(evictionStatistics);
+    reporter.tick();
+
+    cacheNames.add("two");
+    evictionStatistics.created(1);
+    evictionStatistics.evicted(1);
+    evictionStatistics.hit(1);
+    evictionStatistics.putting();
+    evictionStatistics.evicting();
+    evictionStatistics.put(1, 1000L);
+
+    assertThat(reporter.tick(), containsString("two"));
+    assertThat(reporter.summary(), containsString("two"));
+  }
+}
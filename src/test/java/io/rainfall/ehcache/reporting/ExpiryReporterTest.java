@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.ExpiryStatistics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class ExpiryReporterTest {
+
+  @Test
+  public void testFollowsTheCachesAddedLater() {
+    List<String> cacheNames = new ArrayList<String>();
+    cacheNames.add("one");
+    ExpiryStatistics expiryStatistics = new ExpiryStatistics(cacheNames);
+    ExpiryReporter<?> reporter = new ExpiryReporter(expiryStatistics);
+    reporter.tick();
+
+    cacheNames.add("two");
+    expiryStatistics.expired(1, 1L);
+    expiryStatistics.get(1, 1000L, EhcacheResult.EXPIRED_MISS);
+
+    assertThat(reporter.tick(), containsString("two"));
+    assertThat(reporter.summary(), containsString("two"));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class LatencyTimelineReporterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testIntervalsAreWrittenWithEscapedCacheNames() throws IOException {
+    StripedRecorder recorder = new StripedRecorder(Arrays.asList("plain", "<b>a,\"b\"</b>"));
+    File basedir = folder.newFolder("report");
+    LatencyTimelineReporter<EhcacheResult> reporter =
+        new LatencyTimelineReporter<EhcacheResult>(recorder, basedir.getPath());
+
+    recorder.record(null, 0, 1000L, GET);
+    recorder.record(null, 1, 2000L, MISS);
+    reporter.report(null);
+    reporter.summarize(null);
+
+    String csv = read(new File(basedir, "latency-timeline.csv"));
+    assertThat(csv, containsString(",plain,GET,1,"));
+    assertThat(csv, containsString(",\"<b>a,\"\"b\"\"</b>\",MISS,1,"));
+
+    String html = read(new File(basedir, "latency-timeline.html"));
+    assertThat(html, containsString("<h2>plain - GET</h2>"));
+    assertThat(html, containsString("<h2>&lt;b&gt;a,&quot;b&quot;&lt;/b&gt; - MISS</h2>"));
+    assertThat(html, not(containsString("<b>")));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteFailureIsThrown() throws IOException {
+    StripedRecorder recorder = new StripedRecorder(Arrays.asList("plain"));
+    File basedir = folder.newFolder("report");
+    LatencyTimelineReporter<EhcacheResult> reporter =
+        new LatencyTimelineReporter<EhcacheResult>(recorder, basedir.getPath());
+    new File(basedir, "latency-timeline.html").mkdir();
+
+    reporter.summarize(null);
+  }
+
+  private static String read(final File file) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    Reader reader = new FileReader(file);
+    try {
+      char[] buffer = new char[4096];
+      int read;
+      while ((read = reader.read(buffer)) > 0) {
+        sb.append(buffer, 0, read);
+      }
+    } finally {
+      reader.close();
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.statistics.RuntimeStatisticsHolder;
+import io.rainfall.statistics.Statistics;
+import org.junit.Test;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_MISS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class LoadReporterTest {
+
+  @Test
+  public void testEffectiveLatencyIsWeightedByTheCounts() {
+    EhcacheResult[] results = EhcacheResult.values();
+    RuntimeStatisticsHolder<EhcacheResult> holder = new RuntimeStatisticsHolder<EhcacheResult>(results, results);
+    holder.addStatistics("users", new Statistics<EhcacheResult>("users", results));
+    for (int i = 0; i < 3; i++) {
+      holder.record("users", 1000000L, LOAD_HIT);
+    }
+    holder.record("users", 5000000L, LOAD_MISS);
+
+    String summary = new LoadReporter<EhcacheResult>().summary(holder);
+    assertThat(summary, containsString(
+        String.format("%-15s %12s %12s %12s %12s %12s", "users", 4, "0.7500", "1.000000", "5.000000", "2.000000")));
+  }
+}
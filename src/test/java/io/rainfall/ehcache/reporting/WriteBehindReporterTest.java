@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache.reporting;
+
+import io.rainfall.ehcache.sor.PendingWrites;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache.sor.LatencyDistribution.none;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class WriteBehindReporterTest {
+
+  private static final int PENDING = 2;
+  private static final int OLDEST = 3;
+  private static final int AVG_BATCH = 6;
+  private static final int PUT_MAX = 8;
+
+  @Test
+  public void testPendingWritesAreReportedAtEachTick() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    Map<String, SystemOfRecord<?, ?>> systemsOfRecord = new LinkedHashMap<String, SystemOfRecord<?, ?>>();
+    systemsOfRecord.put("behind", systemOfRecord);
+    WriteBehindReporter<EhcacheResult> reporter = new WriteBehindReporter<EhcacheResult>(systemsOfRecord);
+
+    PendingWrites<Long, String> pendingWrites = systemOfRecord.getPendingWrites();
+    for (long key = 0; key < 3; key++) {
+      pendingWrites.accepting(key, "value");
+      pendingWrites.accepted(2000000L);
+    }
+    systemOfRecord.write(0L, "value");
+    assertThat(columns(reporter.tick())[PENDING], is("2"));
+
+    systemOfRecord.write(1L, "value");
+    systemOfRecord.write(2L, "value");
+    String[] tick = columns(reporter.tick());
+    assertThat(tick[PENDING], is("0"));
+    assertThat(tick[OLDEST], is("0.000"));
+    assertThat(tick[PUT_MAX], is("-"));
+
+    // the summary keeps the maximum seen at the ticks
+    String[] summary = columns(reporter.summary());
+    assertThat(summary[PENDING], is("2"));
+    assertThat(summary[AVG_BATCH], is("1.0"));
+    assertThat(Double.parseDouble(summary[PUT_MAX]), is(closeTo(2.0, 0.01)));
+  }
+
+  private static String[] columns(final String report) {
+    for (String line : report.split("\\r?\\n")) {
+      if (line.startsWith("behind")) {
+        return line.trim().split(" +");
+      }
+    }
+    throw new AssertionError("No line for the cache in " + report);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.selection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class WeightedCachesTest {
+
+  @Test
+  public void testCachesArePickedByWeight() {
+    WeightedCaches<String> caches = new WeightedCaches<String>(Arrays.asList("one", "two", "three"),
+        new double[] { 9, 1, 0 });
+    int ones = 0;
+    for (int i = 0; i < 10000; i++) {
+      String picked = caches.next();
+      if (picked.equals("one")) {
+        ones++;
+      } else {
+        assertThat(picked, is("two"));
+      }
+    }
+    assertThat(ones, is(both(greaterThan(8500)).and(lessThan(9500))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOneWeightPerCache() {
+    new WeightedCaches<String>(Arrays.asList("one", "two"), new double[] { 1 });
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.sor;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache.sor.LatencyDistribution.fixed;
+import static io.rainfall.ehcache.sor.LatencyDistribution.logNormal;
+import static io.rainfall.ehcache.sor.LatencyDistribution.none;
+import static io.rainfall.ehcache.sor.LatencyDistribution.uniform;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class SystemOfRecordTest {
+
+  @Test
+  public void testSimulatedReturnsTheGeneratedValue() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.simulated(none());
+    assertThat(systemOfRecord.load(1L, "first"), is("first"));
+    assertThat(systemOfRecord.load(1L, "second"), is("second"));
+    assertThat(systemOfRecord.getLoadCount(), is(2L));
+    assertThat(systemOfRecord.size(), is(0));
+  }
+
+  @Test
+  public void testLocalKeepsTheFirstValue() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    assertThat(systemOfRecord.load(1L, "first"), is("first"));
+    assertThat(systemOfRecord.load(1L, "second"), is("first"));
+    assertThat(systemOfRecord.size(), is(1));
+  }
+
+  @Test
+  public void testLoadsTheWrittenValue() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    systemOfRecord.write(1L, "written");
+    assertThat(systemOfRecord.load(1L, "generated"), is("written"));
+    systemOfRecord.delete(1L);
+    assertThat(systemOfRecord.load(1L), is(nullValue()));
+    assertThat(systemOfRecord.getWriteCount(), is(1L));
+    assertThat(systemOfRecord.getDeleteCount(), is(1L));
+  }
+
+  @Test
+  public void testCallsAreTrackedPerThread() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.simulated(none());
+    SystemOfRecord.Calls calls = systemOfRecord.track("generated");
+    assertThat(systemOfRecord.load(1L), is("generated"));
+    systemOfRecord.write(1L, "written");
+    assertThat(calls.getLoads(), is(1));
+    assertThat(calls.getWrites(), is(1));
+    systemOfRecord.track(null);
+    assertThat(calls.getLoads(), is(0));
+  }
+
+  @Test
+  public void testFailuresAreCounted() {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.<Long, String>simulated(none()).failureRate(1d);
+    try {
+      systemOfRecord.load(1L, "value");
+      fail("The load should have failed");
+    } catch (IOException e) {
+      // expected
+    }
+    assertThat(systemOfRecord.getFailureCount(), is(1L));
+    assertThat(systemOfRecord.getLoadCount(), is(1L));
+  }
+
+  @Test
+  public void testPendingWritesClearWhenTheLastValueIsWritten() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    PendingWrites<Long, String> pendingWrites = systemOfRecord.getPendingWrites();
+    String first = "first";
+    String second = "second";
+    pendingWrites.accepting(1L, first);
+    pendingWrites.accepting(1L, second);
+    pendingWrites.accepting(2L, first);
+    assertThat(pendingWrites.getCount(), is(2));
+
+    systemOfRecord.write(1L, first);
+    assertThat(pendingWrites.getCount(), is(2));
+    Map<Long, String> batch = new HashMap<Long, String>();
+    batch.put(1L, second);
+    batch.put(2L, first);
+    systemOfRecord.writeAll(batch.entrySet());
+    assertThat(pendingWrites.getCount(), is(0));
+    assertThat(pendingWrites.getOldestAgeInNs(), is(0L));
+    assertThat(systemOfRecord.getWriteCount(), is(3L));
+    assertThat(systemOfRecord.getWriteBatchCount(), is(2L));
+  }
+
+  @Test
+  public void testPendingWritesMatchTheNewestEqualValue() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    PendingWrites<Long, String> pendingWrites = systemOfRecord.getPendingWrites();
+    pendingWrites.accepting(1L, "value");
+    pendingWrites.accepting(1L, "other");
+    pendingWrites.accepting(1L, "value");
+
+    systemOfRecord.write(1L, "other");
+    assertThat(pendingWrites.getCount(), is(1));
+    // a copy of the value, e.g. read back from a serialized queue
+    systemOfRecord.write(1L, new String("value"));
+    assertThat(pendingWrites.getCount(), is(0));
+  }
+
+  @Test
+  public void testCoalescedPutsOfTheSameValueAreWrittenOnce() throws IOException {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    PendingWrites<Long, String> pendingWrites = systemOfRecord.getPendingWrites();
+    pendingWrites.accepting(1L, "value");
+    pendingWrites.accepting(1L, "value");
+
+    // the write-behind queue coalesced both puts of the key into one write
+    systemOfRecord.write(1L, "value");
+    assertThat(pendingWrites.getCount(), is(0));
+    assertThat(pendingWrites.getOldestAgeInNs(), is(0L));
+  }
+
+  @Test
+  public void testRejectedWriteIsNoLongerPending() {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    PendingWrites<Long, String> pendingWrites = systemOfRecord.getPendingWrites();
+    long first = pendingWrites.accepting(1L, "value");
+    long second = pendingWrites.accepting(1L, "value");
+
+    pendingWrites.rejected(1L, second);
+    assertThat(pendingWrites.getCount(), is(1));
+    pendingWrites.rejected(1L, first);
+    assertThat(pendingWrites.getCount(), is(0));
+  }
+
+  @Test
+  public void testLatenciesStayInBounds() {
+    LatencyDistribution uniform = uniform(1, 3, TimeUnit.MILLISECONDS);
+    LatencyDistribution logNormal = logNormal(2, 1.0, 20, TimeUnit.MILLISECONDS);
+    for (int i = 0; i < 1000; i++) {
+      long latency = uniform.nextInNs();
+      assertThat(latency, is(greaterThanOrEqualTo(1000000L)));
+      assertThat(latency, is(lessThan(3000000L)));
+      assertThat(logNormal.nextInNs(), is(lessThanOrEqualTo(20000000L)));
+    }
+    assertThat(fixed(5, TimeUnit.MICROSECONDS).nextInNs(), is(5000L));
+  }
+
+  @Test
+  public void testSimulateWaitsForTheLatency() {
+    LatencyDistribution latency = fixed(2, TimeUnit.MILLISECONDS);
+    long start = System.nanoTime();
+    latency.simulate();
+    assertThat(System.nanoTime() - start, is(greaterThanOrEqualTo(2000000L)));
+  }
+}
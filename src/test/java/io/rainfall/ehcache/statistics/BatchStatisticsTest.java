@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class BatchStatisticsTest {
+
+  @Test
+  public void testCountsAreIndexedByBatchSize() {
+    BatchStatistics batchStatistics = new BatchStatistics(Arrays.asList("one", "two"));
+    batchStatistics.record(0, PUTALL, 3, 30L);
+    batchStatistics.record(0, PUTALL, 3, 50L);
+    batchStatistics.record(0, PUTALL, 1, 10L);
+    batchStatistics.record(1, GETALL, 2, 20L);
+
+    assertThat(batchStatistics.getCounts(0, PUTALL), is(new long[] { 0L, 1L, 0L, 2L }));
+    assertThat(batchStatistics.getTotalLatenciesInNs(0, PUTALL), is(new long[] { 0L, 10L, 0L, 80L }));
+    assertThat(batchStatistics.getCounts(0, GETALL), is(new long[0]));
+    assertThat(batchStatistics.getCounts(1, GETALL), is(new long[] { 0L, 0L, 1L }));
+  }
+
+  @Test
+  public void testCacheWithoutBulkOperationsHasNoCounts() {
+    BatchStatistics batchStatistics = new BatchStatistics(Arrays.asList("one", "two"));
+    assertThat(batchStatistics.getCounts(2, PUTALL), is(new long[0]));
+    assertThat(batchStatistics.getTotalLatenciesInNs(2, PUTALL), is(new long[0]));
+  }
+
+  @Test
+  public void testConcurrentGrowthLosesNoCount() throws InterruptedException {
+    final BatchStatistics batchStatistics = new BatchStatistics(Arrays.asList("one", "two"));
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for (int batchSize = 1; batchSize <= 100; batchSize++) {
+            batchStatistics.record(0, PUTALL, batchSize, batchSize);
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long[] counts = batchStatistics.getCounts(0, PUTALL);
+    long[] latencies = batchStatistics.getTotalLatenciesInNs(0, PUTALL);
+    assertThat(counts.length, is(101));
+    for (int batchSize = 1; batchSize <= 100; batchSize++) {
+      assertThat(counts[batchSize], is(4L));
+      assertThat(latencies[batchSize], is(4L * batchSize));
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.ehcache2.CacheConfig;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class EvictionStatisticsTest {
+
+  @Test
+  public void testCountsByCacheIndex() {
+    EvictionStatistics evictionStatistics = new EvictionStatistics(Arrays.asList("one", "two"));
+    evictionStatistics.created(0);
+    evictionStatistics.created(0);
+    evictionStatistics.created(0);
+    evictionStatistics.evicted(0);
+    evictionStatistics.removed(0);
+    evictionStatistics.created(1);
+    evictionStatistics.hit(1);
+    evictionStatistics.miss(1);
+    evictionStatistics.miss(1);
+
+    assertThat(evictionStatistics.getMappings(0), is(1L));
+    assertThat(evictionStatistics.getEvicted(0), is(1L));
+    assertThat(evictionStatistics.getMappings(1), is(1L));
+    assertThat(evictionStatistics.getEvicted(1), is(0L));
+    assertThat(evictionStatistics.getHits(1), is(1L));
+    assertThat(evictionStatistics.getMisses(1), is(2L));
+  }
+
+  @Test
+  public void testSplitsEvictingPuts() {
+    EvictionStatistics evictionStatistics = new EvictionStatistics(Arrays.asList("one"));
+    evictionStatistics.putting();
+    evictionStatistics.put(0, 1000L);
+    evictionStatistics.putting();
+    evictionStatistics.put(0, 2000L);
+    evictionStatistics.putting();
+    evictionStatistics.evicting();
+    evictionStatistics.put(0, 5000L);
+
+    assertThat(evictionStatistics.getIntervalPutLatencies(0, false).getTotalCount(), is(2L));
+    assertThat(evictionStatistics.getIntervalPutLatencies(0, true).getTotalCount(), is(1L));
+    assertThat(evictionStatistics.getIntervalPutLatencies(0, true).getTotalCount(), is(0L));
+  }
+
+  @Test
+  public void testEvictingFlagIsPerThread() throws InterruptedException {
+    final EvictionStatistics evictionStatistics = new EvictionStatistics(Arrays.asList("one"));
+    evictionStatistics.putting();
+    Thread other = new Thread() {
+      @Override
+      public void run() {
+        evictionStatistics.putting();
+        evictionStatistics.evicting();
+      }
+    };
+    other.start();
+    other.join();
+    evictionStatistics.put(0, 1000L);
+
+    assertThat(evictionStatistics.getIntervalPutLatencies(0, false).getTotalCount(), is(1L));
+    assertThat(evictionStatistics.getIntervalPutLatencies(0, true).getTotalCount(), is(0L));
+  }
+
+  @Test
+  public void testFollowsTheCachesAddedLater() {
+    List<String> cacheNames = new ArrayList<String>();
+    cacheNames.add("one");
+    EvictionStatistics evictionStatistics = new EvictionStatistics(cacheNames);
+    evictionStatistics.created(0);
+    assertThat(evictionStatistics.getCreated(1), is(0L));
+
+    cacheNames.add("two");
+    evictionStatistics.created(1);
+    evictionStatistics.putting();
+    evictionStatistics.put(1, 1000L);
+
+    assertThat(evictionStatistics.getCreated(0), is(1L));
+    assertThat(evictionStatistics.getCreated(1), is(1L));
+    assertThat(evictionStatistics.getIntervalPutLatencies(1, false).getTotalCount(), is(1L));
+  }
+
+  @Test
+  public void testCountsTheEvictionsOfACache() {
+    CacheManager cacheManager = CacheManager.create(new Configuration().name("EvictionStatisticsTest")
+        .defaultCache(new CacheConfiguration("default", 0))
+        .cache(new CacheConfiguration("one", 10)));
+    try {
+      CacheConfig<Long, Long> cacheConfig = CacheConfig.<Long, Long>cacheConfig()
+          .caches(cacheManager.getEhcache("one"))
+          .evictionStatistics();
+      EvictionStatistics evictionStatistics = cacheConfig.getEvictionStatistics();
+      for (long i = 0; i < 15; i++) {
+        evictionStatistics.putting();
+        cacheManager.getEhcache("one").put(new Element(i, i));
+        evictionStatistics.put(0, 1000L);
+      }
+
+      assertThat(evictionStatistics.getCreated(0), is(15L));
+      assertThat(evictionStatistics.getEvicted(0), is(5L));
+      assertThat(evictionStatistics.getMappings(0), is(10L));
+      assertThat(evictionStatistics.getIntervalPutLatencies(0, false).getTotalCount(), is(10L));
+      assertThat(evictionStatistics.getIntervalPutLatencies(0, true).getTotalCount(), is(5L));
+    } finally {
+      cacheManager.shutdown();
+    }
+  }
+
+  @Test
+  public void testCountsTheEvictionsOfACacheAddedLater() {
+    CacheManager cacheManager = CacheManager.create(new Configuration().name("EvictionStatisticsTestLater")
+        .defaultCache(new CacheConfiguration("default", 0))
+        .cache(new CacheConfiguration("one", 10))
+        .cache(new CacheConfiguration("two", 10)));
+    try {
+      CacheConfig<Long, Long> cacheConfig = CacheConfig.<Long, Long>cacheConfig()
+          .caches(cacheManager.getEhcache("one"))
+          .evictionStatistics()
+          .caches(cacheManager.getEhcache("two"));
+      for (long i = 0; i < 15; i++) {
+        cacheManager.getEhcache("two").put(new Element(i, i));
+      }
+
+      EvictionStatistics evictionStatistics = cacheConfig.getEvictionStatistics();
+      assertThat(evictionStatistics.getCreated(0), is(0L));
+      assertThat(evictionStatistics.getEvicted(1), is(5L));
+    } finally {
+      cacheManager.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCanOnlyBeEnabledOnce() {
+    CacheConfig.<Long, Long>cacheConfig().evictionStatistics().evictionStatistics();
+  }
+}
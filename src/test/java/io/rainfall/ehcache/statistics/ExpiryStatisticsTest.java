@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.expiry.CompressedTimeSource;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.units.EntryUnit;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache3.expiry.CompressedTimeSource.manualTime;
+import static org.ehcache.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.ehcache.config.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class ExpiryStatisticsTest {
+
+  @Test
+  public void testTellsExpiredKeysFromAbsentOnes() {
+    CompressedTimeSource timeSource = manualTime();
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .using(timeSource.configuration())
+        .withCache("one", CacheConfig.timeToLiveCache(Long.class, Long.class,
+            newResourcePoolsBuilder().heap(100, EntryUnit.ENTRIES).build(), 1, TimeUnit.HOURS))
+        .build(true);
+    try {
+      Cache<Long, Long> one = cacheManager.getCache("one", Long.class, Long.class);
+      CacheConfig<Long, Long> cacheConfig = CacheConfig.cacheConfig(Long.class, Long.class)
+          .cache("one", one)
+          .expiryStatistics();
+      ExpiryStatistics expiryStatistics = cacheConfig.getExpiryStatistics();
+
+      one.put(1L, 1L);
+      timeSource.advance(2, TimeUnit.HOURS);
+      assertThat(one.get(1L), is((Long)null));
+      assertThat(expiryStatistics.isExpired(0, 1L), is(true));
+      assertThat(expiryStatistics.isExpired(0, 2L), is(false));
+      assertThat(expiryStatistics.getExpired(0), is(1L));
+
+      one.put(1L, 1L);
+      assertThat(expiryStatistics.isExpired(0, 1L), is(false));
+    } finally {
+      cacheManager.close();
+    }
+  }
+
+  @Test
+  public void testTellsTheExpiredKeysOfACacheAddedLater() {
+    CompressedTimeSource timeSource = manualTime();
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .using(timeSource.configuration())
+        .withCache("one", CacheConfig.timeToLiveCache(Long.class, Long.class,
+            newResourcePoolsBuilder().heap(100, EntryUnit.ENTRIES).build(), 1, TimeUnit.HOURS))
+        .withCache("two", CacheConfig.timeToLiveCache(Long.class, Long.class,
+            newResourcePoolsBuilder().heap(100, EntryUnit.ENTRIES).build(), 1, TimeUnit.HOURS))
+        .build(true);
+    try {
+      Cache<Long, Long> two = cacheManager.getCache("two", Long.class, Long.class);
+      CacheConfig<Long, Long> cacheConfig = CacheConfig.cacheConfig(Long.class, Long.class)
+          .cache("one", cacheManager.getCache("one", Long.class, Long.class))
+          .expiryStatistics()
+          .cache("two", two);
+      ExpiryStatistics expiryStatistics = cacheConfig.getExpiryStatistics();
+
+      two.put(1L, 1L);
+      timeSource.advance(2, TimeUnit.HOURS);
+      assertThat(two.get(1L), is((Long)null));
+      assertThat(expiryStatistics.isExpired(1, 1L), is(true));
+      assertThat(expiryStatistics.getExpired(0), is(0L));
+      assertThat(expiryStatistics.getExpired(1), is(1L));
+    } finally {
+      cacheManager.close();
+    }
+  }
+
+  @Test
+  public void testKeepsTheLastExpiredKeys() {
+    ExpiryStatistics expiryStatistics = new ExpiryStatistics(Arrays.asList("one"), 2);
+    expiryStatistics.expired(0, 1L);
+    expiryStatistics.expired(0, 2L);
+    expiryStatistics.expired(0, 1L);
+    expiryStatistics.expired(0, 3L);
+
+    assertThat(expiryStatistics.isExpired(0, 1L), is(true));
+    assertThat(expiryStatistics.isExpired(0, 2L), is(false));
+    assertThat(expiryStatistics.isExpired(0, 3L), is(true));
+    assertThat(expiryStatistics.getExpired(0), is(4L));
+  }
+
+  @Test
+  public void testExpiredKeysStayBounded() {
+    ExpiryStatistics.ExpiredKeys expiredKeys = new ExpiryStatistics.ExpiredKeys(10);
+    for (long i = 0; i < 1000; i++) {
+      expiredKeys.add(i);
+      expiredKeys.remove(i - 1);
+    }
+    assertThat(expiredKeys.size(), is(1));
+    for (long i = 0; i < 1000; i++) {
+      expiredKeys.add(i);
+    }
+    assertThat(expiredKeys.size(), is(10));
+  }
+
+  @Test
+  public void testSplitsGetLatencies() {
+    ExpiryStatistics expiryStatistics = new ExpiryStatistics(Arrays.asList("one"));
+    expiryStatistics.get(0, 1000L, EhcacheResult.GET);
+    expiryStatistics.get(0, 1000L, EhcacheResult.MISS);
+    expiryStatistics.get(0, 5000L, EhcacheResult.EXPIRED_MISS);
+    expiryStatistics.get(0, 6000L, EhcacheResult.EXPIRED_MISS);
+
+    assertThat(expiryStatistics.getIntervalGetLatencies(0, EhcacheResult.GET).getTotalCount(), is(1L));
+    assertThat(expiryStatistics.getIntervalGetLatencies(0, EhcacheResult.MISS).getTotalCount(), is(1L));
+    assertThat(expiryStatistics.getIntervalGetLatencies(0, EhcacheResult.EXPIRED_MISS).getTotalCount(), is(2L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOnlyRecordsGets() {
+    new ExpiryStatistics(Arrays.asList("one")).get(0, 1000L, EhcacheResult.PUT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testKeepsAtLeastOneExpiredKey() {
+    new ExpiryStatistics(Arrays.asList("one"), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEhcache2CantExpireInLessThanASecond() {
+    io.rainfall.ehcache2.CacheConfig.timeToLiveCache("one", 100, 500, TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.statistics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.DISK_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class StripedRecorderTest {
+
+  @Test
+  public void testStripesAreMergedAtSnapshot() throws InterruptedException {
+    final StripedRecorder recorder = new StripedRecorder(Arrays.asList("one", "two"));
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 1000; j++) {
+            recorder.record(null, 1, 10L, GET);
+          }
+          recorder.record(null, 0, 5L, MISS);
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    StripedRecorder.Snapshot snapshot = recorder.snapshot();
+    assertThat(snapshot.getCount(1, GET), is(4000L));
+    assertThat(snapshot.getTotalLatencyInNs(1, GET), is(40000L));
+    assertThat(snapshot.getCount(0, MISS), is(4L));
+    assertThat(snapshot.getCount(0, GET), is(0L));
+    assertThat(snapshot.getHistogram(1, GET).getTotalCount(), is(4000L));
+    assertThat(snapshot.getHistogram(1, GET).getMaxValue(), is(10L));
+    assertThat(snapshot.getHistogram(0, GET), is(nullValue()));
+
+    recorder.record(null, 0, 5L, MISS);
+    StripedRecorder.Snapshot interval = recorder.snapshot().minus(snapshot);
+    assertThat(interval.getCount(0, MISS), is(1L));
+    assertThat(interval.getHistogram(0, MISS).getTotalCount(), is(1L));
+    assertThat(interval.getHistogram(1, GET).getTotalCount(), is(0L));
+  }
+
+  @Test
+  public void testCachesAddedAfterTheCreationAreRecorded() {
+    List<String> cacheNames = new ArrayList<String>(Arrays.asList("one"));
+    StripedRecorder recorder = new StripedRecorder(cacheNames);
+    recorder.record(null, 0, 5L, GET);
+    StripedRecorder.Snapshot snapshot = recorder.snapshot();
+
+    cacheNames.add("two");
+    recorder.record(null, 1, 7L, DISK_HIT);
+    recorder.record(null, 0, 5L, GET);
+
+    StripedRecorder.Snapshot current = recorder.snapshot();
+    assertThat(recorder.getCacheNames().size(), is(2));
+    assertThat(current.getCount(0, GET), is(2L));
+    assertThat(current.getCount(1, DISK_HIT), is(1L));
+    assertThat(current.getHistogram(1, DISK_HIT).getMaxValue(), is(7L));
+    assertThat(snapshot.getCount(1, DISK_HIT), is(0L));
+    assertThat(snapshot.getHistogram(1, DISK_HIT), is(nullValue()));
+    StripedRecorder.Snapshot interval = current.minus(snapshot);
+    assertThat(interval.getCount(0, GET), is(1L));
+    assertThat(interval.getCount(1, DISK_HIT), is(1L));
+  }
+}
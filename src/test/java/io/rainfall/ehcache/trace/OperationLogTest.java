@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class OperationLogTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRecordsOfAllThreadsAreWritten() throws Exception {
+    File file = folder.newFile("operations.bin");
+    final OperationLog log = OperationLog.operationLog(file);
+    log.setCacheNames(Arrays.asList("one", "two"));
+
+    final int nbThreads = 4;
+    final int nbRecords = 10000;
+    final CountDownLatch done = new CountDownLatch(nbThreads);
+    for (int t = 0; t < nbThreads; t++) {
+      final int threadNb = t;
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < nbRecords; i++) {
+              log.record(TraceOperation.PUT, threadNb % 2, threadNb * nbRecords + i, 100);
+            }
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          } finally {
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    done.await();
+    log.close();
+
+    TraceFormat format = TraceFormat.read(file);
+    assertThat(format.getNbRecords(), is((long)nbThreads * nbRecords));
+    assertThat(format.getCacheNames(), contains("one", "two"));
+
+    boolean[] seen = new boolean[nbThreads * nbRecords];
+    FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+    try {
+      TraceReader reader = new TraceReader(channel, format.getNbRecords());
+      long lastTimestampInNs = 0L;
+      for (long record = 0; record < format.getNbRecords(); record++) {
+        reader.seek(record);
+        assertThat(reader.getTimestampInNs(), greaterThanOrEqualTo(lastTimestampInNs));
+        lastTimestampInNs = reader.getTimestampInNs();
+        int key = (int)reader.getKeyId();
+        assertThat(reader.getCacheIndex(), is((key / nbRecords) % 2));
+        assertThat(reader.getValueSize(), is(100));
+        seen[key] = true;
+      }
+    } finally {
+      channel.close();
+    }
+    for (boolean b : seen) {
+      assertThat(b, is(true));
+    }
+    assertThat(folder.getRoot().list(), arrayContaining("operations.bin"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCacheIndexMustFitInARecord() throws Exception {
+    OperationLog log = OperationLog.operationLog(folder.newFile("operations.bin"));
+    try {
+      log.record(TraceOperation.GET, Short.MAX_VALUE + 1, 1L, 0);
+    } finally {
+      log.close();
+    }
+  }
+
+  @Test
+  public void testBatchIsReplayedAsOneRecord() throws Exception {
+    File file = folder.newFile("operations.bin");
+    OperationLog log = OperationLog.operationLog(file);
+    log.setCacheNames(Arrays.asList("one"));
+    OperationBatch batch = new OperationBatch();
+    for (long key = 10; key < 15; key++) {
+      batch.add(key, (int)key);
+    }
+    log.record(TraceOperation.PUTALL, 0, batch);
+    log.record(TraceOperation.GET, 0, 99L, 0);
+    log.close();
+
+    TraceFormat format = TraceFormat.read(file);
+    assertThat(format.getNbRecords(), is(6L));
+
+    FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+    try {
+      TraceReader reader = new TraceReader(channel, format.getNbRecords());
+      reader.seek(3);
+      assertThat(reader.isBatchContinuation(), is(true));
+
+      ReplayCursor cursor = new ReplayCursor();
+      cursor.mapCaches(format.getCacheNames(), Arrays.asList("one"));
+      reader.seek(0);
+      assertThat(reader.isBatchContinuation(), is(false));
+      assertThat(reader.getOperationOrdinal(), is(TraceOperation.PUTALL.ordinal()));
+      reader.loadInto(cursor, 0);
+      assertThat(cursor.batchSizes().next(), is(5));
+      for (long key = 10; key < 15; key++) {
+        assertThat(cursor.keys().next(), is(key));
+        assertThat(cursor.values().generate(key).length, is((int)key));
+      }
+
+      reader.seek(5);
+      reader.loadInto(cursor, 5);
+      assertThat(cursor.batchSizes().next(), is(1));
+      assertThat(cursor.keys().next(), is(99L));
+    } finally {
+      channel.close();
+    }
+  }
+
+  @Test
+  public void testLargeBatchFollowsTheEarlierRecords() throws Exception {
+    File file = folder.newFile("operations.bin");
+    OperationLog log = OperationLog.operationLog(file);
+    log.setCacheNames(Arrays.asList("one"));
+    log.record(TraceOperation.GET, 0, 1L, 0);
+    log.record(TraceOperation.GET, 0, 2L, 0);
+    OperationBatch batch = new OperationBatch();
+    int batchSize = 5000;
+    for (long key = 100; key < 100 + batchSize; key++) {
+      batch.add(key, 0);
+    }
+    log.record(TraceOperation.PUTALL, 0, batch);
+    log.record(TraceOperation.GET, 0, 3L, 0);
+    log.close();
+
+    TraceFormat format = TraceFormat.read(file);
+    assertThat(format.getNbRecords(), is(batchSize + 3L));
+
+    FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+    try {
+      TraceReader reader = new TraceReader(channel, format.getNbRecords());
+      long lastTimestampInNs = 0L;
+      for (long record = 0; record < format.getNbRecords(); record++) {
+        reader.seek(record);
+        assertThat(reader.getTimestampInNs(), greaterThanOrEqualTo(lastTimestampInNs));
+        lastTimestampInNs = reader.getTimestampInNs();
+      }
+      reader.seek(0);
+      assertThat(reader.getKeyId(), is(1L));
+      reader.seek(1);
+      assertThat(reader.getKeyId(), is(2L));
+      reader.seek(2);
+      assertThat(reader.getKeyId(), is(100L));
+      assertThat(reader.isBatchContinuation(), is(false));
+      reader.seek(batchSize + 2);
+      assertThat(reader.getKeyId(), is(3L));
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.trace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class TraceConverterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testCsvIsConvertedToFixedSizeRecords() throws IOException {
+    File csv = folder.newFile("trace.csv");
+    FileWriter writer = new FileWriter(csv);
+    writer.write("timestamp,operation,cache,key,value_size\n");
+    writer.write("1000.5,get,users,42,0\n");
+    writer.write("\n");
+    writer.write("1002,PUT,sessions,abc,512\n");
+    writer.write(",remove,users,43,\n");
+    writer.close();
+
+    File trace = folder.newFile("trace.bin");
+    assertThat(TraceConverter.convert(csv, trace), is(3L));
+
+    TraceFormat format = TraceFormat.read(trace);
+    assertThat(format.getNbRecords(), is(3L));
+    assertThat(format.getCacheNames(), contains("users", "sessions"));
+
+    FileChannel channel = new RandomAccessFile(trace, "r").getChannel();
+    try {
+      TraceReader reader = new TraceReader(channel, format.getNbRecords());
+      reader.seek(1);
+      assertThat(reader.getTimestampInNs(), is(1500000L));
+      assertThat(reader.getOperationOrdinal(), is(TraceOperation.PUT.ordinal()));
+      assertThat(reader.getCacheIndex(), is(1));
+      assertThat(reader.getKeyId(), is(TraceConverter.keyId("abc")));
+      assertThat(reader.getValueSize(), is(512));
+
+      reader.seek(2);
+      assertThat(reader.getTimestampInNs(), is(TraceFormat.NO_TIMESTAMP));
+      assertThat(reader.getOperationOrdinal(), is(TraceOperation.REMOVE.ordinal()));
+      assertThat(reader.getKeyId(), is(43L));
+
+      ReplayCursor cursor = new ReplayCursor();
+      cursor.mapCaches(format.getCacheNames(), Arrays.asList("sessions", "users"));
+      reader.seek(0);
+      reader.loadInto(cursor, 0);
+      assertThat(cursor.keys().next(), is(42L));
+      assertThat(cursor.cacheIndexes()[0], is(1));
+    } finally {
+      channel.close();
+    }
+  }
+
+  @Test
+  public void testOperationOrdinalIsUnsigned() throws IOException {
+    File csv = folder.newFile("trace.csv");
+    FileWriter writer = new FileWriter(csv);
+    writer.write("1000,get,users,42,0\n");
+    writer.close();
+    File trace = folder.newFile("trace.bin");
+    TraceConverter.convert(csv, trace);
+
+    RandomAccessFile file = new RandomAccessFile(trace, "rw");
+    try {
+      file.seek(TraceFormat.HEADER_SIZE + TraceFormat.OPERATION_OFFSET);
+      file.writeByte(200);
+      TraceReader reader = new TraceReader(file.getChannel(), 1);
+      reader.seek(0);
+      assertThat(reader.getOperationOrdinal(), is(200));
+    } finally {
+      file.close();
+    }
+  }
+}
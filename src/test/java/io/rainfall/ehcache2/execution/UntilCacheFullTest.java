@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache2.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.ehcache2.CacheConfig;
+import io.rainfall.generator.LongGenerator;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.config.CacheConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.Scenario.scenario;
+import static io.rainfall.ehcache2.Ehcache2Operations.put;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class UntilCacheFullTest {
+
+  private CacheManager cacheManager;
+
+  @Before
+  public void setUp() {
+    cacheManager = new CacheManager(new net.sf.ehcache.config.Configuration().name("UntilCacheFullTest")
+        .cache(new CacheConfiguration("full", 100)));
+  }
+
+  @After
+  public void tearDown() {
+    cacheManager.shutdown();
+  }
+
+  @Test(timeout = 30000)
+  public void testStopsOnceTheCacheEvicts() throws TestException {
+    Ehcache cache = cacheManager.getEhcache("full");
+    CacheConfig<Long, Long> cacheConfig = CacheConfig.<Long, Long>cacheConfig().caches(cache).stripedStatistics();
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    configurations.put(ConcurrencyConfig.class, ConcurrencyConfig.concurrencyConfig().threads(2).timeout(1, MINUTES));
+
+    new UntilCacheFull().sampledEvery(10, MILLISECONDS).execute(null,
+        scenario("fill").exec(put().using(new LongGenerator(), new LongGenerator()).sequentially()),
+        configurations, null);
+
+    assertThat(cache.getStatistics().cacheEvictedCount(), is(greaterThan(0L)));
+    assertThat(cache.getSize(), is(lessThanOrEqualTo(100)));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.generator.LongGenerator;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.execution.Preload.preload;
+import static io.rainfall.ehcache3.tier.Tiers.heap;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class PreloadTest {
+
+  @Test
+  public void testEveryCacheIsFilled() throws TestException {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("one", heap(2000))
+        .cache("two", heap(2000));
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    configurations.put(ConcurrencyConfig.class, ConcurrencyConfig.concurrencyConfig().threads(4).timeout(1, MINUTES));
+    try {
+      preload(Long.class, Long.class, 1500).using(new LongGenerator(), new LongGenerator()).inChunksOf(64)
+          .execute(null, null, configurations, null);
+
+      for (int i = 0; i < 2; i++) {
+        for (long key = 0; key < 1500; key++) {
+          assertThat(cacheConfig.getCache(i).get(key), is(key));
+        }
+      }
+    } finally {
+      cacheConfig.close();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.generator.LongGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.execution.Restart.restart;
+import static io.rainfall.ehcache3.tier.Tiers.heap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class RestartTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testReopenRecoversEntries() throws Exception {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .directory(folder.newFolder())
+        .cache("persistent", heap(10).offheap(1).persistentDisk(2));
+    try {
+      for (long i = 0; i < 100; i++) {
+        cacheConfig.getCache(0).put(i, i);
+      }
+      cacheConfig.close();
+      cacheConfig.reopen();
+      assertThat(cacheConfig.getCache(0).get(42L), is(42L));
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReopenNeedsAClosedCacheManager() {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class).cache("heap", heap(10));
+    try {
+      cacheConfig.reopen();
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test
+  public void testRecordsTheGetsOfEveryCache() throws Exception {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .directory(folder.newFolder())
+        .cache("one", heap(10).offheap(1).persistentDisk(2))
+        .cache("two", heap(10).offheap(1).persistentDisk(2))
+        .stripedStatistics();
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    try {
+      restart(Long.class, Long.class, 100).using(new LongGenerator(), new LongGenerator())
+          .sampleSize(50)
+          .warmUp(0, 1, TimeUnit.SECONDS)
+          .execute(null, null, configurations, null);
+
+      StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+      for (int i = 0; i < 2; i++) {
+        assertThat(snapshot.getCount(i, GET) + snapshot.getCount(i, MISS), greaterThanOrEqualTo(51L));
+        assertThat(snapshot.getCount(i, GET), greaterThan(0L));
+      }
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSizesMustIncrease() {
+    restart(Long.class, Long.class, 1000, 1000);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCachesMustBePersistent() throws Exception {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .directory(folder.newFolder())
+        .cache("disk", heap(10).offheap(1).disk(2));
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    try {
+      restart(Long.class, Long.class, 100).using(new LongGenerator(), new LongGenerator())
+          .execute(null, null, configurations, null);
+    } finally {
+      cacheConfig.close();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.execution;
+
+import io.rainfall.Configuration;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.generator.LongGenerator;
+import org.ehcache.Cache;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.Scenario.scenario;
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.Ehcache3Operations.put;
+import static io.rainfall.ehcache3.tier.Tiers.heap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class UntilCacheFullTest {
+
+  @Test(timeout = 30000)
+  public void testStopsOnceTheCacheEvicts() throws TestException {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("full", heap(100))
+        .stripedStatistics();
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    configurations.put(ConcurrencyConfig.class, ConcurrencyConfig.concurrencyConfig().threads(2).timeout(1, MINUTES));
+    try {
+      // only stops on an eviction, or fails at the timeout
+      new UntilCacheFull().sampledEvery(10, MILLISECONDS).execute(null,
+          scenario("fill").exec(put(Long.class, Long.class).using(new LongGenerator(), new LongGenerator())
+              .sequentially()),
+          configurations, null);
+
+      int mappings = 0;
+      for (Cache.Entry<Long, Long> ignored : cacheConfig.getCache(0)) {
+        mappings++;
+      }
+      assertThat(mappings, is(greaterThan(0)));
+      assertThat(mappings, is(lessThanOrEqualTo(100)));
+    } finally {
+      cacheConfig.close();
+    }
+  }
+}
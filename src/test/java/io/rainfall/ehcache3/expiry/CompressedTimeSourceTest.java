@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.expiry;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache3.expiry.CompressedTimeSource.compressedTime;
+import static io.rainfall.ehcache3.expiry.CompressedTimeSource.manualTime;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class CompressedTimeSourceTest {
+
+  @Test
+  public void testManualTimeOnlyMovesWhenAdvanced() throws InterruptedException {
+    CompressedTimeSource timeSource = manualTime();
+    long start = timeSource.getTimeMillis();
+    Thread.sleep(20);
+    assertThat(timeSource.getTimeMillis(), is(start));
+    timeSource.advance(1, TimeUnit.HOURS);
+    assertThat(timeSource.getTimeMillis(), is(start + TimeUnit.HOURS.toMillis(1)));
+  }
+
+  @Test
+  public void testCompressedTimeRunsFaster() throws InterruptedException {
+    CompressedTimeSource timeSource = compressedTime(1000);
+    long start = timeSource.getTimeMillis();
+    Thread.sleep(20);
+    assertThat(timeSource.getTimeMillis() - start, greaterThanOrEqualTo(TimeUnit.SECONDS.toMillis(20)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCantGoBackward() {
+    manualTime().advance(-1, TimeUnit.SECONDS);
+  }
+}
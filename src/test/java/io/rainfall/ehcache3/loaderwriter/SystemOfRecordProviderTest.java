@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.loaderwriter;
+
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.CacheConfigurationBuilder;
+import org.junit.Test;
+
+import static io.rainfall.ehcache.sor.LatencyDistribution.none;
+import static io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider.systemsOfRecord;
+import static org.ehcache.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class SystemOfRecordProviderTest {
+
+  @Test
+  public void testCachesReadAndWriteThrough() throws Exception {
+    SystemOfRecord<Long, String> systemOfRecord = SystemOfRecord.local(none());
+    systemOfRecord.write(1L, "stored");
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .using(systemsOfRecord().cache("through", systemOfRecord))
+        .withCache("through", builder.buildConfig(Long.class, String.class))
+        .withCache("plain", builder.buildConfig(Long.class, String.class))
+        .build(true);
+    try {
+      Cache<Long, String> through = cacheManager.getCache("through", Long.class, String.class);
+      assertThat(through.get(1L), is("stored"));
+      assertThat(through.get(1L), is("stored"));
+      assertThat(systemOfRecord.getLoadCount(), is(1L));
+
+      through.put(2L, "written");
+      assertThat(systemOfRecord.load(2L, null), is("written"));
+
+      Cache<Long, String> plain = cacheManager.getCache("plain", Long.class, String.class);
+      assertThat(plain.get(1L), is(nullValue()));
+    } finally {
+      cacheManager.close();
+    }
+  }
+}
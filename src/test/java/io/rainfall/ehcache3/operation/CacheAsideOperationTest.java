@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache.trace.OperationLog;
+import io.rainfall.ehcache.trace.TraceFormat;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.generator.LongGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache.sor.LatencyDistribution.none;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD_MISS;
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.tier.Tiers.heap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class CacheAsideOperationTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testEachInvocationIsRecordedOnce() throws Exception {
+    File logFile = folder.newFile("operations.bin");
+    OperationLog operationLog = OperationLog.operationLog(logFile);
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("one", heap(100))
+        .stripedStatistics()
+        .recordOperations(operationLog);
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    try {
+      SystemOfRecord<Long, Long> systemOfRecord = SystemOfRecord.simulated(none());
+      for (int i = 0; i < 2; i++) {
+        CacheAsideOperation<Long, Long> cacheAside = new CacheAsideOperation<Long, Long>(systemOfRecord);
+        cacheAside.using(new LongGenerator(), new LongGenerator()).sequentially();
+        cacheAside.exec(null, configurations, null);
+      }
+    } finally {
+      cacheConfig.close();
+      operationLog.close();
+    }
+
+    StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+    assertThat(snapshot.getCount(0, LOAD_MISS), is(1L));
+    assertThat(snapshot.getCount(0, LOAD_HIT), is(1L));
+    assertThat(TraceFormat.read(logFile).getNbRecords(), is(2L));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.generator.LongGenerator;
+import org.ehcache.Cache;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class CoordinatedOmissionTest {
+
+  private static final long STALL_IN_MS = 50;
+
+  @Test
+  public void testEachCacheIsCorrectedFromTheIntendedStart() throws Exception {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("stalled", cache(STALL_IN_MS))
+        .cache("fast", cache(0))
+        .stripedStatistics();
+    PutOperation<Long, Long> put = new PutOperation<Long, Long>();
+    put.using(new LongGenerator(), new LongGenerator()).sequentially();
+    // one invocation every 10 ms, each one stalls for 50 ms
+    put.withTpsLimit(100).withCoordinatedOmissionCorrection();
+
+    for (int i = 0; i < 3; i++) {
+      put.exec(null, configurations(cacheConfig), null);
+    }
+
+    StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+    // the third invocation starts 80 ms after its intended start
+    assertThat(snapshot.getHistogram(0, PUT).getMaxValue(), is(greaterThanOrEqualTo(MILLISECONDS.toNanos(120))));
+    // the fast cache is only called once the stalled one returned
+    assertThat(snapshot.getHistogram(1, PUT).getMinValue(),
+        is(greaterThanOrEqualTo(MILLISECONDS.toNanos(STALL_IN_MS))));
+  }
+
+  @Test
+  public void testNoCorrectionByDefault() throws Exception {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("stalled", cache(STALL_IN_MS))
+        .cache("fast", cache(0))
+        .stripedStatistics();
+    PutOperation<Long, Long> put = new PutOperation<Long, Long>();
+    put.using(new LongGenerator(), new LongGenerator()).sequentially();
+    put.withTpsLimit(100);
+
+    for (int i = 0; i < 3; i++) {
+      put.exec(null, configurations(cacheConfig), null);
+    }
+
+    StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+    assertThat(snapshot.getHistogram(1, PUT).getMaxValue(), is(lessThan(MILLISECONDS.toNanos(STALL_IN_MS))));
+  }
+
+  private static Map<Class<? extends Configuration>, Configuration> configurations(
+      final CacheConfig<?, ?> cacheConfig) {
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    return configurations;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Cache<Long, Long> cache(final long putInMs) {
+    return (Cache<Long, Long>)Proxy.newProxyInstance(Cache.class.getClassLoader(), new Class<?>[] { Cache.class },
+        new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if (method.getName().equals("put")) {
+              Thread.sleep(putInMs);
+            }
+            return null;
+          }
+        });
+  }
+}
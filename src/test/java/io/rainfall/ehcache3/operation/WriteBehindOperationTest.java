@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider;
+import io.rainfall.generator.LongGenerator;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.CacheConfigurationBuilder;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache.sor.LatencyDistribution.none;
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider.systemsOfRecord;
+import static org.ehcache.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.ehcache.config.writebehind.WriteBehindConfigurationBuilder.newWriteBehindConfiguration;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class WriteBehindOperationTest {
+
+  @Test(timeout = 10000)
+  public void testPutsArePendingUntilWritten() throws Exception {
+    SystemOfRecord<Long, Long> systemOfRecord = SystemOfRecord.local(none());
+    SystemOfRecordProvider systemOfRecordProvider = systemsOfRecord().cache("behind", systemOfRecord);
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .using(systemOfRecordProvider)
+        .withCache("behind", CacheConfigurationBuilder.newCacheConfigurationBuilder()
+            .add(newWriteBehindConfiguration().queueSize(100).batchSize(1))
+            .buildConfig(Long.class, Long.class))
+        .build(true);
+    try {
+      CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+          .cache("behind", cacheManager.getCache("behind", Long.class, Long.class))
+          .stripedStatistics();
+      WriteBehindOperation<Long, Long> writeBehind = new WriteBehindOperation<Long, Long>(systemOfRecordProvider);
+      writeBehind.using(new LongGenerator(), new LongGenerator()).sequentially();
+      for (int i = 0; i < 10; i++) {
+        writeBehind.exec(null, configurations(cacheConfig), null);
+      }
+
+      assertThat(systemOfRecord.getPendingWrites().getAcceptedCount(), is(10L));
+      while (systemOfRecord.getPendingWrites().getCount() > 0) {
+        Thread.sleep(10);
+      }
+      assertThat(systemOfRecord.getWriteCount(), is(10L));
+      assertThat(systemOfRecord.load(9L), is(9L));
+      StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+      assertThat(snapshot.getCount(0, PUT), is(10L));
+    } finally {
+      cacheManager.close();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testEachCacheTracksItsPendingWrites() throws Exception {
+    SystemOfRecord<Long, Long> one = SystemOfRecord.local(none());
+    SystemOfRecord<Long, Long> two = SystemOfRecord.local(none());
+    SystemOfRecordProvider systemOfRecordProvider = systemsOfRecord().cache("one", one).cache("two", two);
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .using(systemOfRecordProvider)
+        .withCache("one", CacheConfigurationBuilder.newCacheConfigurationBuilder()
+            .add(newWriteBehindConfiguration().queueSize(100).batchSize(1))
+            .buildConfig(Long.class, Long.class))
+        .withCache("two", CacheConfigurationBuilder.newCacheConfigurationBuilder()
+            .add(newWriteBehindConfiguration().queueSize(100).batchSize(1))
+            .buildConfig(Long.class, Long.class))
+        .build(true);
+    try {
+      CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+          .cache("one", cacheManager.getCache("one", Long.class, Long.class))
+          .cache("two", cacheManager.getCache("two", Long.class, Long.class))
+          .stripedStatistics();
+      WriteBehindOperation<Long, Long> writeBehind = new WriteBehindOperation<Long, Long>(systemOfRecordProvider);
+      writeBehind.using(new LongGenerator(), new LongGenerator()).sequentially();
+      for (int i = 0; i < 10; i++) {
+        writeBehind.exec(null, configurations(cacheConfig), null);
+      }
+
+      assertThat(one.getPendingWrites().getAcceptedCount(), is(10L));
+      assertThat(two.getPendingWrites().getAcceptedCount(), is(10L));
+      while (one.getPendingWrites().getCount() > 0 || two.getPendingWrites().getCount() > 0) {
+        Thread.sleep(10);
+      }
+      assertThat(one.getWriteCount(), is(10L));
+      assertThat(two.getWriteCount(), is(10L));
+      StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+      assertThat(snapshot.getCount(0, PUT), is(10L));
+      assertThat(snapshot.getCount(1, PUT), is(10L));
+    } finally {
+      cacheManager.close();
+    }
+  }
+
+  @Test
+  public void testFailedPutIsNotPending() throws Exception {
+    SystemOfRecord<Long, Long> systemOfRecord = SystemOfRecord.local(none());
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("failing", failingCache())
+        .stripedStatistics();
+    WriteBehindOperation<Long, Long> writeBehind =
+        new WriteBehindOperation<Long, Long>(systemsOfRecord().cache("failing", systemOfRecord));
+    writeBehind.using(new LongGenerator(), new LongGenerator()).sequentially();
+    writeBehind.exec(null, configurations(cacheConfig), null);
+
+    assertThat(systemOfRecord.getPendingWrites().getCount(), is(0));
+    assertThat(systemOfRecord.getPendingWrites().getAcceptedCount(), is(0L));
+    StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+    assertThat(snapshot.getCount(0, EXCEPTION), is(1L));
+  }
+
+  private static Map<Class<? extends Configuration>, Configuration> configurations(
+      final CacheConfig<?, ?> cacheConfig) {
+    Map<Class<? extends Configuration>, Configuration> configurations =
+        new HashMap<Class<? extends Configuration>, Configuration>();
+    configurations.put(CacheConfig.class, cacheConfig);
+    return configurations;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Cache<Long, Long> failingCache() {
+    return (Cache<Long, Long>)Proxy.newProxyInstance(Cache.class.getClassLoader(), new Class<?>[] { Cache.class },
+        new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            throw new IllegalStateException("down");
+          }
+        });
+  }
+}
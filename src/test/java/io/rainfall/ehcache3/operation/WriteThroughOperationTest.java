@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.Configuration;
+import io.rainfall.ehcache.sor.SystemOfRecord;
+import io.rainfall.ehcache.statistics.StripedRecorder;
+import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider;
+import io.rainfall.generator.LongGenerator;
+import org.ehcache.CacheManager;
+import org.ehcache.config.CacheConfigurationBuilder;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.rainfall.ehcache.sor.LatencyDistribution.none;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.WRITER;
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.loaderwriter.SystemOfRecordProvider.systemsOfRecord;
+import static org.ehcache.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class WriteThroughOperationTest {
+
+  @Test
+  public void testEachCacheWritesThroughItsSystemOfRecord() throws Exception {
+    SystemOfRecord<Long, Long> one = SystemOfRecord.simulated(none());
+    SystemOfRecord<Long, Long> two = SystemOfRecord.simulated(none());
+    SystemOfRecordProvider systemOfRecordProvider = systemsOfRecord().cache("one", one).cache("two", two);
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .using(systemOfRecordProvider)
+        .withCache("one", builder.buildConfig(Long.class, Long.class))
+        .withCache("two", builder.buildConfig(Long.class, Long.class))
+        .build(true);
+    try {
+      CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+          .cache("one", cacheManager.getCache("one", Long.class, Long.class))
+          .cache("two", cacheManager.getCache("two", Long.class, Long.class))
+          .stripedStatistics();
+      Map<Class<? extends Configuration>, Configuration> configurations =
+          new HashMap<Class<? extends Configuration>, Configuration>();
+      configurations.put(CacheConfig.class, cacheConfig);
+      WriteThroughOperation<Long, Long> writeThrough = new WriteThroughOperation<Long, Long>(systemOfRecordProvider);
+      writeThrough.using(new LongGenerator(), new LongGenerator()).sequentially();
+      writeThrough.exec(null, configurations, null);
+
+      StripedRecorder.Snapshot snapshot = ((StripedRecorder)cacheConfig.getRecorder()).snapshot();
+      for (int cacheIndex = 0; cacheIndex < 2; cacheIndex++) {
+        assertThat(snapshot.getCount(cacheIndex, PUT), is(1L));
+        assertThat(snapshot.getCount(cacheIndex, WRITER), is(1L));
+      }
+      assertThat(one.getWriteCount(), is(1L));
+      assertThat(two.getWriteCount(), is(1L));
+    } finally {
+      cacheManager.close();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCacheWithoutSystemOfRecord() throws Exception {
+    SystemOfRecordProvider systemOfRecordProvider = systemsOfRecord();
+    CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder();
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .using(systemOfRecordProvider)
+        .withCache("one", builder.buildConfig(Long.class, Long.class))
+        .build(true);
+    try {
+      CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+          .cache("one", cacheManager.getCache("one", Long.class, Long.class));
+      Map<Class<? extends Configuration>, Configuration> configurations =
+          new HashMap<Class<? extends Configuration>, Configuration>();
+      configurations.put(CacheConfig.class, cacheConfig);
+      WriteThroughOperation<Long, Long> writeThrough = new WriteThroughOperation<Long, Long>(systemOfRecordProvider);
+      writeThrough.using(new LongGenerator(), new LongGenerator()).sequentially();
+      writeThrough.exec(null, configurations, null);
+    } finally {
+      cacheManager.close();
+    }
+  }
+}
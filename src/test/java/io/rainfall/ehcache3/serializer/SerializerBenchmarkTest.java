@@ -0,0 +1,74 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3.serializer;
+
+import io.rainfall.Scenario;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.generator.LongGenerator;
+import org.ehcache.config.units.EntryUnit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache3.Ehcache3Operations.put;
+import static io.rainfall.ehcache3.serializer.SerializerBenchmark.serializerBenchmark;
+import static io.rainfall.execution.Executions.times;
+import static org.ehcache.config.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class SerializerBenchmarkTest {
+
+  @Test
+  public void testEachSerializerRunsANewScenario() throws Exception {
+    final List<Scenario> scenarios = new ArrayList<Scenario>();
+    serializerBenchmark(Long.class, Long.class)
+        .serializer("one", JavaObjectSerializer.class)
+        .serializer("two", JavaObjectSerializer.class)
+        .resourcePools(newResourcePoolsBuilder().heap(100, EntryUnit.ENTRIES).build())
+        .scenario(new SerializerBenchmark.ScenarioFactory() {
+          @Override
+          public Scenario scenario() {
+            Scenario scenario = Scenario.scenario("Serializers").exec(
+                put(Long.class, Long.class).using(new LongGenerator(), new LongGenerator()).sequentially());
+            scenarios.add(scenario);
+            return scenario;
+          }
+        }, times(10))
+        .config(ConcurrencyConfig.concurrencyConfig().threads(1).timeout(1, TimeUnit.MINUTES))
+        .start();
+
+    assertThat(scenarios.size(), is(2));
+    assertThat(scenarios.get(1), not(sameInstance(scenarios.get(0))));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testScenarioMustBeSet() throws Exception {
+    serializerBenchmark(Long.class, Long.class)
+        .serializer("one", JavaObjectSerializer.class)
+        .resourcePools(newResourcePoolsBuilder().heap(100, EntryUnit.ENTRIES).build())
+        .start();
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.serializer;
+
+import io.rainfall.ehcache.generator.pojo.Customer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.rainfall.ehcache.generator.pojo.CustomerGenerator.customers;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class SerializersTest {
+
+  private final ClassLoader classLoader = getClass().getClassLoader();
+
+  @Test
+  public void testCustomerSerializerRoundTrip() throws Exception {
+    CustomerSerializer serializer = new CustomerSerializer(classLoader);
+    Customer customer = customers().orders(3).attributes(2).serializedSize(4096).generate(7L);
+    ByteBuffer binary = serializer.serialize(customer);
+    assertThat(serializer.equals(customer, binary.duplicate()), is(true));
+    Customer read = serializer.read(binary);
+    assertThat(read, is(equalTo(customer)));
+    assertThat(read.getSerializedSize(), is(customer.getSerializedSize()));
+  }
+
+  @Test
+  public void testJavaObjectSerializerRoundTrip() throws Exception {
+    JavaObjectSerializer<Customer> serializer = new JavaObjectSerializer<Customer>(classLoader);
+    Customer customer = customers().orders(3).generate(7L);
+    assertThat(serializer.read(serializer.serialize(customer)), is(equalTo(customer)));
+  }
+
+  @Test
+  public void testByteArraySerializerRoundTrip() throws Exception {
+    ByteArraySerializer serializer = new ByteArraySerializer(classLoader);
+    byte[] value = new byte[] { 1, 2, 3 };
+    assertThat(serializer.read(serializer.serialize(value)), is(equalTo(value)));
+  }
+
+  @Test
+  public void testCompactEncodingIsSmaller() throws Exception {
+    List<Customer> samples = new ArrayList<Customer>();
+    for (long seed = 0; seed < 10; seed++) {
+      samples.add(customers().orders(5).generate(seed));
+    }
+    EncodingBenchmark benchmark = new EncodingBenchmark(0, 1);
+    EncodingBenchmark.Result compact = benchmark.measure(new CustomerSerializer(classLoader), samples);
+    EncodingBenchmark.Result java = benchmark.measure(new JavaObjectSerializer<Customer>(classLoader), samples);
+    assertThat(compact.getBytesPerEntry(), is(lessThan(java.getBytesPerEntry())));
+    assertThat(compact.getEncodingInNs(), is(greaterThan(0d)));
+    assertThat(compact.getDecodingInNs(), is(greaterThan(0d)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBenchmarkNeedsSamples() throws Exception {
+    new EncodingBenchmark(0, 1).measure(new ByteArraySerializer(classLoader), new ArrayList<byte[]>());
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.rainfall.ehcache3.tier;
+
+import io.rainfall.ehcache.statistics.EvictionStatistics;
+import io.rainfall.ehcache3.CacheConfig;
+import org.ehcache.Cache;
+import org.junit.Test;
+
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.tier.Tiers.heap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class EvictionObserverTest {
+
+  @Test
+  public void testFlagsTheEvictingPuts() {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("heap", heap(10))
+        .evictionStatistics();
+    try {
+      assertEvictingPuts(cacheConfig, 0);
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test
+  public void testFollowsTheCachesAddedLater() {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("one", heap(10))
+        .evictionStatistics()
+        .cache("two", heap(10));
+    try {
+      assertEvictingPuts(cacheConfig, 1);
+      assertThat(cacheConfig.getEvictionStatistics().getIntervalPutLatencies(0, false).getTotalCount(), is(0L));
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  private static void assertEvictingPuts(final CacheConfig<Long, Long> cacheConfig, final int cacheIndex) {
+    EvictionStatistics evictionStatistics = cacheConfig.getEvictionStatistics();
+    Cache<Long, Long> cache = cacheConfig.getCache(cacheIndex);
+    for (long i = 0; i < 10; i++) {
+      evictionStatistics.putting();
+      cache.put(i, i);
+      evictionStatistics.put(cacheIndex, 1000L);
+    }
+    assertThat(evictionStatistics.getIntervalPutLatencies(cacheIndex, true).getTotalCount(), is(0L));
+    for (long i = 10; i < 20; i++) {
+      evictionStatistics.putting();
+      cache.put(i, i);
+      evictionStatistics.put(cacheIndex, 1000L);
+    }
+    assertThat(evictionStatistics.getIntervalPutLatencies(cacheIndex, true).getTotalCount(), greaterThan(0L));
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache3.tier;
+
+import io.rainfall.ehcache3.CacheConfig;
+import org.ehcache.Cache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.DISK_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.HEAP_HIT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.OFFHEAP_HIT;
+import static io.rainfall.ehcache3.CacheConfig.cacheConfig;
+import static io.rainfall.ehcache3.tier.Tiers.heap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class TierProbeTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testHeapOnly() {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("heap", heap(100))
+        .tierStatistics();
+    try {
+      assertThat(cacheConfig.getTierProbe(0).getTierHits(), contains(HEAP_HIT));
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test
+  public void testFollowsTheCachesAddedLater() {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("heap", heap(100))
+        .tierStatistics()
+        .cache("offheap", heap(10).offheap(1));
+    try {
+      assertThat(cacheConfig.getTierProbe(0).getTierHits(), contains(HEAP_HIT));
+      assertThat(cacheConfig.getTierProbe(1).getTierHits(), contains(HEAP_HIT, OFFHEAP_HIT));
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test
+  public void testFaultsIntoHeap() {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .cache("offheap", heap(10).offheap(1))
+        .tierStatistics();
+    try {
+      Cache<Long, Long> cache = cacheConfig.getCache(0);
+      TierProbe tierProbe = cacheConfig.getTierProbe(0);
+      assertThat(tierProbe.getTierHits(), contains(HEAP_HIT, OFFHEAP_HIT));
+      cache.put(1L, 1L);
+      assertThat(tierProbe.hitOf(1L), is(OFFHEAP_HIT));
+      cache.get(1L);
+      assertThat(tierProbe.hitOf(1L), is(HEAP_HIT));
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test
+  public void testThreeTiers() throws Exception {
+    CacheConfig<Long, Long> cacheConfig = cacheConfig(Long.class, Long.class)
+        .directory(folder.newFolder())
+        .cache("disk", heap(10).offheap(1).disk(2))
+        .tierStatistics();
+    try {
+      Cache<Long, Long> cache = cacheConfig.getCache(0);
+      TierProbe tierProbe = cacheConfig.getTierProbe(0);
+      assertThat(tierProbe.getTierHits(), contains(HEAP_HIT, OFFHEAP_HIT, DISK_HIT));
+      cache.put(1L, 1L);
+      assertThat(tierProbe.hitOf(1L), is(DISK_HIT));
+      cache.get(1L);
+      assertThat(tierProbe.hitOf(1L), is(HEAP_HIT));
+    } finally {
+      cacheConfig.close();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDiskNeedsADirectory() {
+    cacheConfig(Long.class, Long.class).cache("disk", heap(10).offheap(1).disk(2));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTierDefinedOnce() {
+    heap(10).offheap(1).offheap(2);
+  }
+}